@@ -3,6 +3,7 @@ package br.gov.formosa.backup.config.api.dto;
 import br.gov.formosa.backup.shared.enums.DatabaseType;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 public record BackupSourceDTO(
         @NotBlank String name,
@@ -13,5 +14,6 @@ public record BackupSourceDTO(
         Integer dbPort,
         String dbName,
         String dbUser,
-        String dbPassword
+        String dbPassword,
+        @Size(max = 60) String zone
 ) {}
\ No newline at end of file
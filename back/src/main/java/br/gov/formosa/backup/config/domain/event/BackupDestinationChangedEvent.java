@@ -0,0 +1,8 @@
+package br.gov.formosa.backup.config.domain.event;
+
+import java.util.UUID;
+
+/**
+ * Publicado quando um destino do usuário é criado, alterado ou excluído.
+ */
+public record BackupDestinationChangedEvent(UUID destinationId, UUID userId) {}
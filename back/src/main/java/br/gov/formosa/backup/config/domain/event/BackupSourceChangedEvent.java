@@ -0,0 +1,8 @@
+package br.gov.formosa.backup.config.domain.event;
+
+import java.util.UUID;
+
+/**
+ * Publicado quando uma fonte do usuário é criada, alterada ou excluída.
+ */
+public record BackupSourceChangedEvent(UUID sourceId, UUID userId) {}
@@ -3,6 +3,7 @@ package br.gov.formosa.backup.config.domain.model;
 import br.gov.formosa.backup.user.domain.model.User;
 import br.gov.formosa.backup.shared.enums.BackupType;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,6 +16,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Table(name = "backup_destination")
 public class BackupDestination {
 
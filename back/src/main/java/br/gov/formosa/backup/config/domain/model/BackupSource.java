@@ -3,12 +3,14 @@ package br.gov.formosa.backup.config.domain.model;
 import br.gov.formosa.backup.user.domain.model.User;
 import br.gov.formosa.backup.shared.enums.DatabaseType;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.util.UUID;
 
 @Data
 @Entity
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Table(name = "backup_source")
 public class BackupSource {
 
@@ -45,8 +47,16 @@ public class BackupSource {
     @Column(length = 255, nullable = false)
     private String dbDumpToolPath;
 
+    // Datacenter da fonte; só workers da mesma zona executam o dump. Nulo: qualquer worker.
+    @Column(length = 60)
+    private String zone;
+
     @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
-}
\ No newline at end of file
+
+    public void setZone(String zone) {
+        this.zone = zone == null || zone.isBlank() ? null : zone.trim();
+    }
+}
@@ -1,16 +1,20 @@
 package br.gov.formosa.backup.config.domain.service;
 
 import br.gov.formosa.backup.config.api.dto.BackupDestinationDTO;
+import br.gov.formosa.backup.config.domain.event.BackupDestinationChangedEvent;
 import br.gov.formosa.backup.shared.exception.GlobalBackupException;
 import br.gov.formosa.backup.config.api.mapper.BackupDestinationMapper;
 import br.gov.formosa.backup.config.domain.model.BackupDestination;
 import br.gov.formosa.backup.user.domain.model.User;
 import br.gov.formosa.backup.shared.enums.BackupType;
 import br.gov.formosa.backup.config.infra.repository.BackupDestinationRepository;
+import br.gov.formosa.backup.shared.infra.service.CloudStorageClientCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -20,13 +24,17 @@ public class BackupDestinationService {
 
     private final BackupDestinationRepository repository;
     private final BackupDestinationMapper mapper;
+    private final CloudStorageClientCache cloudClients;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public BackupDestination save(BackupDestinationDTO dto, User user) {
         validateDestinationCredentials(dto);
         BackupDestination entity = mapper.toEntity(dto);
         entity.setUser(user);
-        return repository.save(entity);
+        BackupDestination saved = repository.save(entity);
+        eventPublisher.publishEvent(new BackupDestinationChangedEvent(saved.getId(), user.getId()));
+        return saved;
     }
 
     @Transactional
@@ -41,7 +49,10 @@ public class BackupDestinationService {
         BackupDestination entity = mapper.toEntity(dto);
         entity.setId(uuid);
         entity.setUser(user);
-        return repository.save(entity);
+        cloudClients.evict(uuid);
+        BackupDestination saved = repository.save(entity);
+        eventPublisher.publishEvent(new BackupDestinationChangedEvent(uuid, user.getId()));
+        return saved;
     }
 
     public BackupDestination findById(String id, User user) {
@@ -50,6 +61,10 @@ public class BackupDestinationService {
                 .orElseThrow(() -> new GlobalBackupException("Destino de backup não encontrado com ID: " + id, HttpStatus.NOT_FOUND));
     }
 
+    public List<BackupDestination> findAllById(Collection<UUID> ids, User user) {
+        return repository.findByIdInAndUser(ids, user);
+    }
+
     public List<BackupDestination> findAll(User user) {
         return repository.findByUser(user);
     }
@@ -61,6 +76,8 @@ public class BackupDestinationService {
             throw new GlobalBackupException("Destino de backup não encontrado com ID: " + id, HttpStatus.NOT_FOUND);
         }
         repository.deleteByIdAndUser(uuid, user);
+        cloudClients.evict(uuid);
+        eventPublisher.publishEvent(new BackupDestinationChangedEvent(uuid, user.getId()));
     }
 
     private UUID parseUUID(String id) {
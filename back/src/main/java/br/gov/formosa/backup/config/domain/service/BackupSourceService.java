@@ -1,12 +1,14 @@
 package br.gov.formosa.backup.config.domain.service;
 
 import br.gov.formosa.backup.config.api.dto.BackupSourceDTO;
+import br.gov.formosa.backup.config.domain.event.BackupSourceChangedEvent;
 import br.gov.formosa.backup.shared.exception.GlobalBackupException;
 import br.gov.formosa.backup.config.api.mapper.BackupSourceMapper;
 import br.gov.formosa.backup.config.domain.model.BackupSource;
 import br.gov.formosa.backup.user.domain.model.User;
 import br.gov.formosa.backup.config.infra.repository.BackupSourceRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,12 +27,15 @@ public class BackupSourceService {
 
     private final BackupSourceRepository repository;
     private final BackupSourceMapper mapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public BackupSource save(BackupSourceDTO dto, User user) {
         BackupSource source = mapper.toEntity(dto);
         source.setUser(user);
-        return repository.save(source);
+        BackupSource saved = repository.save(source);
+        eventPublisher.publishEvent(new BackupSourceChangedEvent(saved.getId(), user.getId()));
+        return saved;
     }
 
     @Transactional
@@ -41,7 +46,9 @@ public class BackupSourceService {
         BackupSource source = mapper.toEntity(dto);
         source.setId(id);
         source.setUser(user);
-        return repository.save(source);
+        BackupSource saved = repository.save(source);
+        eventPublisher.publishEvent(new BackupSourceChangedEvent(id, user.getId()));
+        return saved;
     }
 
     public BackupSource findById(UUID id, User user) {
@@ -59,6 +66,7 @@ public class BackupSourceService {
             throw new GlobalBackupException("Fonte de backup (Source) não encontrada: " + id, HttpStatus.NOT_FOUND);
         }
         repository.deleteById(id);
+        eventPublisher.publishEvent(new BackupSourceChangedEvent(id, user.getId()));
     }
 
     public void testConnection(BackupSourceDTO dto) {
@@ -5,6 +5,7 @@ import br.gov.formosa.backup.user.domain.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,6 +14,7 @@ import java.util.UUID;
 public interface BackupDestinationRepository extends JpaRepository<BackupDestination, UUID> {
     List<BackupDestination> findByUser(User user);
     Optional<BackupDestination> findByIdAndUser(UUID id, User user);
+    List<BackupDestination> findByIdInAndUser(Collection<UUID> ids, User user);
     boolean existsByIdAndUser(UUID id, User user);
     void deleteByIdAndUser(UUID id, User user);
 
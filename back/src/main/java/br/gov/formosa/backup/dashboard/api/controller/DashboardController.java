@@ -2,9 +2,11 @@ package br.gov.formosa.backup.dashboard.api.controller;
 
 import br.gov.formosa.backup.dashboard.api.dto.DashboardDTO;
 import br.gov.formosa.backup.dashboard.domain.service.DashboardService;
+import br.gov.formosa.backup.user.domain.model.User;
 import br.gov.formosa.backup.user.domain.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -20,4 +22,10 @@ public class DashboardController {
     public DashboardDTO getDashboardData() {
         return dashboardService.getDashboardData();
     }
+
+    @PostMapping("/rollup/rebuild")
+    public DashboardDTO rebuildRollup() {
+        User user = userService.getAuthenticatedUser();
+        return dashboardService.rebuildRollup(user);
+    }
 }
\ No newline at end of file
@@ -4,11 +4,14 @@ import br.gov.formosa.backup.job.domain.model.BackupJob;
 import br.gov.formosa.backup.job.domain.model.BackupRecord;
 
 import java.util.List;
+import java.util.UUID;
 
+// userId identifica o tópico /topic/dashboard/{userId}, onde chegam as seções alteradas.
 public record DashboardDTO(
         DashboardStatsDTO stats,
         List<BackupStatusSummaryDTO> dailyStatusSummary,
         List<StorageUsageSummaryDTO> storageBySource,
         List<BackupJob> upcomingJobs,
-        List<BackupRecord> recentFailures
-) {}
\ No newline at end of file
+        List<BackupRecord> recentFailures,
+        UUID userId
+) {}
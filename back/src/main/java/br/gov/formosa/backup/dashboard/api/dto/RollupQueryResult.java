@@ -0,0 +1,15 @@
+package br.gov.formosa.backup.dashboard.api.dto;
+
+import br.gov.formosa.backup.shared.enums.BackupStatus;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record RollupQueryResult(
+        UUID userId,
+        LocalDate day,
+        UUID sourceId,
+        BackupStatus status,
+        long count,
+        long sizeBytes
+) {}
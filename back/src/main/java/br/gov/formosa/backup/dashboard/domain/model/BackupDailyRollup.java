@@ -0,0 +1,30 @@
+package br.gov.formosa.backup.dashboard.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Registros finalizados (SUCCESS/FAILED) por usuário, dia, fonte e status, com a soma dos tamanhos.
+ * Mantido a cada registro finalizado ou excluído pela retenção; o dashboard lê só esta tabela.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "backup_daily_rollup")
+public class BackupDailyRollup {
+
+    @EmbeddedId
+    private BackupDailyRollupId id;
+
+    @Column(name = "record_count", nullable = false)
+    private long recordCount;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+}
@@ -0,0 +1,39 @@
+package br.gov.formosa.backup.dashboard.domain.model;
+
+import br.gov.formosa.backup.dashboard.api.dto.DashboardDTO;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Partes do dashboard que são recalculadas e enviadas separadamente. A chave é o nome do campo no {@link DashboardDTO}.
+ */
+public enum DashboardSection {
+    STATS("stats", DashboardDTO::stats),
+    DAILY_STATUS("dailyStatusSummary", DashboardDTO::dailyStatusSummary),
+    STORAGE_BY_SOURCE("storageBySource", DashboardDTO::storageBySource),
+    UPCOMING_JOBS("upcomingJobs", DashboardDTO::upcomingJobs),
+    RECENT_FAILURES("recentFailures", DashboardDTO::recentFailures);
+
+    public static final Set<DashboardSection> RECORDS = EnumSet.of(STATS, DAILY_STATUS, STORAGE_BY_SOURCE, RECENT_FAILURES);
+    public static final Set<DashboardSection> JOBS = EnumSet.of(STATS, UPCOMING_JOBS);
+    public static final Set<DashboardSection> SOURCES = EnumSet.of(STATS, STORAGE_BY_SOURCE);
+    public static final Set<DashboardSection> DESTINATIONS = EnumSet.of(STATS);
+
+    private final String key;
+    private final Function<DashboardDTO, Object> accessor;
+
+    DashboardSection(String key, Function<DashboardDTO, Object> accessor) {
+        this.key = key;
+        this.accessor = accessor;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Object valueOf(DashboardDTO dashboard) {
+        return accessor.apply(dashboard);
+    }
+}
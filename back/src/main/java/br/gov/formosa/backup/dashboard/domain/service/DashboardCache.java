@@ -0,0 +1,119 @@
+package br.gov.formosa.backup.dashboard.domain.service;
+
+import br.gov.formosa.backup.dashboard.api.dto.DashboardDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Último dashboard calculado de cada usuário, limitado em quantidade (sai o acessado há mais tempo) e em idade.
+ * Quem mantém as entradas em dia é o {@link DashboardUpdatePublisher}; o TTL só cobre o que não gera evento
+ * (ex.: o horário que faz um job sair de "próximos").
+ */
+@Service
+public class DashboardCache {
+
+    private final int maxUsers;
+    private final long ttlMs;
+
+    // Protegidos por "this". Cada usuário com cálculo em andamento tem uma geração, que avança quando o dashboard dele
+    // é invalidado, para que um cálculo iniciado antes disso não seja guardado. Mudanças de outros usuários não contam.
+    private final Map<UUID, Entry> entries;
+    private final Map<UUID, Loading> loading = new HashMap<>();
+
+    public DashboardCache(@Value("${app.dashboard.cache.max-users:500}") int maxUsers,
+                          @Value("${app.dashboard.cache.ttl-ms:60000}") long ttlMs) {
+        this.maxUsers = Math.max(1, maxUsers);
+        this.ttlMs = Math.max(1000, ttlMs);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                return size() > DashboardCache.this.maxUsers;
+            }
+        };
+    }
+
+    /**
+     * Devolve o dashboard guardado se ainda estiver no prazo; senão calcula pelo {@code loader}, fora do lock.
+     */
+    public DashboardDTO get(UUID userId, Supplier<DashboardDTO> loader) {
+        Loading load;
+        long startedAt;
+        synchronized (this) {
+            Optional<DashboardDTO> cached = peek(userId);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+            load = loading.computeIfAbsent(userId, id -> new Loading());
+            load.loaders++;
+            startedAt = load.generation;
+        }
+        DashboardDTO loaded = null;
+        try {
+            loaded = loader.get();
+            return loaded;
+        } finally {
+            synchronized (this) {
+                if (loaded != null && load.generation == startedAt) {
+                    entries.put(userId, new Entry(loaded, System.currentTimeMillis()));
+                }
+                if (--load.loaders == 0) {
+                    loading.remove(userId);
+                }
+            }
+        }
+    }
+
+    public synchronized Optional<DashboardDTO> peek(UUID userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (System.currentTimeMillis() - entry.computedAt > ttlMs) {
+            entries.remove(userId);
+            return Optional.empty();
+        }
+        return Optional.of(entry.dashboard);
+    }
+
+    /**
+     * Troca seções de uma entrada existente. A idade continua contando do cálculo completo.
+     */
+    public synchronized void replace(UUID userId, DashboardDTO dashboard) {
+        entries.computeIfPresent(userId, (id, entry) -> new Entry(dashboard, entry.computedAt));
+    }
+
+    /**
+     * O dashboard do usuário mudou: um cálculo dele já em andamento não é guardado. A entrada existente continua e é
+     * atualizada por {@link #replace}.
+     */
+    public synchronized void invalidated(UUID userId) {
+        Loading load = loading.get(userId);
+        if (load != null) {
+            load.generation++;
+        }
+    }
+
+    public synchronized void evict(UUID userId) {
+        invalidated(userId);
+        entries.remove(userId);
+    }
+
+    public synchronized Set<UUID> users() {
+        return Set.copyOf(entries.keySet());
+    }
+
+    private record Entry(DashboardDTO dashboard, long computedAt) {}
+
+    private static class Loading {
+        private long generation;
+        private int loaders;
+    }
+}
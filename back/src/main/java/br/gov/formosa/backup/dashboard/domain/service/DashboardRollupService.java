@@ -0,0 +1,156 @@
+package br.gov.formosa.backup.dashboard.domain.service;
+
+import br.gov.formosa.backup.dashboard.api.dto.RollupQueryResult;
+import br.gov.formosa.backup.dashboard.domain.model.BackupDailyRollup;
+import br.gov.formosa.backup.dashboard.domain.model.BackupDailyRollupId;
+import br.gov.formosa.backup.dashboard.infra.repository.BackupDailyRollupRepository;
+import br.gov.formosa.backup.job.domain.event.BackupRecordsChangedEvent;
+import br.gov.formosa.backup.job.infra.repository.BackupRecordRepository;
+import br.gov.formosa.backup.shared.enums.BackupStatus;
+import br.gov.formosa.backup.shared.infra.service.NodeIdentity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Mantém o {@link BackupDailyRollup}: cada registro conta uma vez ao chegar a SUCCESS/FAILED e sai da conta
+ * quando a retenção o exclui. As contas são incrementos atômicos, então vários nós podem finalizar registros
+ * ao mesmo tempo. A saída da conta é confirmada junto com a exclusão; se o rollup divergir (ex.: nó parado entre
+ * finalizar o registro e o ajuste), {@link #rebuild} o refaz a partir de backup_record.
+ */
+@Service
+public class DashboardRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardRollupService.class);
+    private static final List<BackupStatus> TERMINAL_STATUSES = List.of(BackupStatus.SUCCESS, BackupStatus.FAILED);
+
+    private final BackupDailyRollupRepository rollupRepository;
+    private final BackupRecordRepository recordRepository;
+    private final NodeIdentity nodeIdentity;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public DashboardRollupService(BackupDailyRollupRepository rollupRepository,
+                                  BackupRecordRepository recordRepository,
+                                  NodeIdentity nodeIdentity,
+                                  ApplicationEventPublisher eventPublisher,
+                                  PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.recordRepository = recordRepository;
+        this.nodeIdentity = nodeIdentity;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Bancos que já tinham registros antes do rollup existir são preenchidos uma vez pelo coordenador.
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!nodeIdentity.isCoordinator() || rollupRepository.count() > 0 || !recordRepository.existsByStatusIn(TERMINAL_STATUSES)) {
+            return;
+        }
+        int rows = rebuildAll();
+        log.info("Rollup do dashboard preenchido a partir do histórico: {} linha(s).", rows);
+    }
+
+    /**
+     * Chamado depois que os registros foram gravados com status final. Registros ainda em andamento são ignorados.
+     */
+    public void recordsFinished(Collection<UUID> recordIds) {
+        if (recordIds.isEmpty()) {
+            return;
+        }
+        Set<UUID> userIds = new HashSet<>();
+        try {
+            for (RollupQueryResult delta : recordRepository.summarizeForRollup(recordIds)) {
+                increment(new BackupDailyRollupId(delta.userId(), delta.day(), delta.sourceId(), delta.status()),
+                        delta.count(), delta.sizeBytes());
+                userIds.add(delta.userId());
+            }
+        } catch (RuntimeException e) {
+            log.error("Falha ao atualizar o rollup do dashboard; use a reconstrução para corrigir: {}", e.getMessage(), e);
+        }
+        if (!userIds.isEmpty()) {
+            eventPublisher.publishEvent(new BackupRecordsChangedEvent(userIds));
+        }
+    }
+
+    /**
+     * Chamado antes de excluir os registros, enquanto ainda dá para saber em que linhas eles contavam, e na mesma
+     * transação do DELETE: se um dos dois falhar, nenhum é confirmado. As linhas já existem, então basta o UPDATE;
+     * as que zeram saem da tabela, como na reconstrução.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordsDeleted(Collection<UUID> recordIds) {
+        if (recordIds.isEmpty()) {
+            return;
+        }
+        Set<UUID> userIds = new HashSet<>();
+        for (RollupQueryResult delta : recordRepository.summarizeForRollup(recordIds)) {
+            BackupDailyRollupId id = new BackupDailyRollupId(delta.userId(), delta.day(), delta.sourceId(), delta.status());
+            rollupRepository.increment(id, -delta.count(), -delta.sizeBytes());
+            rollupRepository.deleteIfEmpty(id);
+            userIds.add(delta.userId());
+        }
+        if (!userIds.isEmpty()) {
+            eventPublisher.publishEvent(new BackupRecordsChangedEvent(userIds));
+        }
+    }
+
+    private void increment(BackupDailyRollupId id, long count, long bytes) {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                if (rollupRepository.increment(id, count, bytes) == 0) {
+                    rollupRepository.saveAndFlush(new BackupDailyRollup(id, count, bytes));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Outro nó criou a linha entre o UPDATE e o INSERT.
+            transactionTemplate.executeWithoutResult(tx -> rollupRepository.increment(id, count, bytes));
+        }
+    }
+
+    /**
+     * Refaz as linhas do usuário a partir de backup_record e devolve quantas foram gravadas.
+     */
+    public int rebuild(UUID userId) {
+        Integer rows = transactionTemplate.execute(tx -> {
+            rollupRepository.deleteByUserId(userId);
+            return save(recordRepository.summarizeForRollupByUserId(userId));
+        });
+        eventPublisher.publishEvent(new BackupRecordsChangedEvent(Set.of(userId)));
+        return rows != null ? rows : 0;
+    }
+
+    public int rebuildAll() {
+        Integer rows = transactionTemplate.execute(tx -> {
+            rollupRepository.deleteAllInBatch();
+            return save(recordRepository.summarizeAllForRollup());
+        });
+        return rows != null ? rows : 0;
+    }
+
+    private int save(List<RollupQueryResult> results) {
+        rollupRepository.saveAll(results.stream()
+                .map(result -> new BackupDailyRollup(
+                        new BackupDailyRollupId(result.userId(), result.day(), result.sourceId(), result.status()),
+                        result.count(), result.sizeBytes()))
+                .toList());
+        return results.size();
+    }
+}
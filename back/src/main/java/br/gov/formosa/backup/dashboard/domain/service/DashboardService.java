@@ -6,6 +6,8 @@ import br.gov.formosa.backup.dashboard.api.dto.BackupStatusSummaryDTO;
 import br.gov.formosa.backup.dashboard.api.dto.DailyStatusQueryResult;
 import br.gov.formosa.backup.dashboard.api.dto.StorageUsageQueryResult;
 import br.gov.formosa.backup.dashboard.api.dto.StorageUsageSummaryDTO;
+import br.gov.formosa.backup.dashboard.domain.model.DashboardSection;
+import br.gov.formosa.backup.dashboard.infra.repository.BackupDailyRollupRepository;
 import br.gov.formosa.backup.job.domain.model.BackupJob;
 import br.gov.formosa.backup.job.domain.model.BackupRecord;
 import br.gov.formosa.backup.user.domain.model.User;
@@ -16,15 +18,17 @@ import br.gov.formosa.backup.job.infra.repository.BackupRecordRepository;
 import br.gov.formosa.backup.config.infra.repository.BackupSourceRepository;
 import br.gov.formosa.backup.user.domain.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,21 +36,50 @@ import java.util.stream.Collectors;
 public class DashboardService {
 
     private final BackupRecordRepository recordRepository;
+    private final BackupDailyRollupRepository rollupRepository;
+    private final DashboardRollupService rollupService;
     private final BackupJobRepository jobRepository;
     private final BackupSourceRepository sourceRepository;
     private final BackupDestinationRepository destinationRepository;
     private final UserService userService;
+    private final DashboardCache cache;
+
+    /**
+     * Refaz o rollup do usuário a partir do histórico, para corrigir divergências, e devolve o dashboard já recalculado.
+     */
+    public DashboardDTO rebuildRollup(User user) {
+        rollupService.rebuild(user.getId());
+        cache.evict(user.getId());
+        return getDashboardData();
+    }
 
     public DashboardDTO getDashboardData() {
         User user = userService.getAuthenticatedUser();
+        return cache.get(user.getId(), () -> load(user));
+    }
 
+    private DashboardDTO load(User user) {
         DashboardStatsDTO stats = getDashboardStats(user);
         List<BackupStatusSummaryDTO> dailySummary = getDailyStatusSummary(user);
         List<StorageUsageSummaryDTO> storageSummary = getStorageBySource(user);
         List<BackupJob> upcomingJobs = getUpcomingJobs(user);
         List<BackupRecord> recentFailures = getRecentFailures(user);
 
-        return new DashboardDTO(stats, dailySummary, storageSummary, upcomingJobs, recentFailures);
+        return new DashboardDTO(stats, dailySummary, storageSummary, upcomingJobs, recentFailures, user.getId());
+    }
+
+    /**
+     * Recalcula só as seções indicadas e mantém as demais de {@code current}.
+     */
+    @Transactional(readOnly = true)
+    public DashboardDTO refresh(User user, DashboardDTO current, Set<DashboardSection> sections) {
+        return new DashboardDTO(
+                sections.contains(DashboardSection.STATS) ? getDashboardStats(user) : current.stats(),
+                sections.contains(DashboardSection.DAILY_STATUS) ? getDailyStatusSummary(user) : current.dailyStatusSummary(),
+                sections.contains(DashboardSection.STORAGE_BY_SOURCE) ? getStorageBySource(user) : current.storageBySource(),
+                sections.contains(DashboardSection.UPCOMING_JOBS) ? getUpcomingJobs(user) : current.upcomingJobs(),
+                sections.contains(DashboardSection.RECENT_FAILURES) ? getRecentFailures(user) : current.recentFailures(),
+                user.getId());
     }
 
     private DashboardStatsDTO getDashboardStats(User user) {
@@ -54,11 +87,10 @@ public class DashboardService {
         long totalSources = sourceRepository.countByUser(user);
         long totalDestinations = destinationRepository.countByUser(user);
 
-        Long totalStorage = recordRepository.sumTotalSizeBytesByUser(user);
-        long totalStorageUsed = (totalStorage != null) ? totalStorage : 0L;
+        long totalStorageUsed = rollupRepository.sumSuccessBytesByUserId(user.getId());
 
-        long successCount = recordRepository.countByStatusAndJobUser(BackupStatus.SUCCESS, user);
-        long failedCount = recordRepository.countByStatusAndJobUser(BackupStatus.FAILED, user);
+        long successCount = rollupRepository.sumCountByUserIdAndStatus(user.getId(), BackupStatus.SUCCESS);
+        long failedCount = rollupRepository.sumCountByUserIdAndStatus(user.getId(), BackupStatus.FAILED);
         long totalCompleted = successCount + failedCount;
 
         double successRate = (totalCompleted == 0) ? 100.0 : (successCount * 100.0) / totalCompleted;
@@ -67,8 +99,8 @@ public class DashboardService {
     }
 
     private List<BackupStatusSummaryDTO> getDailyStatusSummary(User user) {
-        LocalDateTime sevenDaysAgo = LocalDateTime.now().minusDays(7).with(LocalTime.MIN);
-        List<DailyStatusQueryResult> queryResults = recordRepository.findDailyStatusSummaryByUser(sevenDaysAgo, user);
+        LocalDate sevenDaysAgo = LocalDate.now().minusDays(7);
+        List<DailyStatusQueryResult> queryResults = rollupRepository.findDailyStatusSummary(user.getId(), sevenDaysAgo);
 
         Map<LocalDate, Map<BackupStatus, Long>> groupedData = queryResults.stream()
                 .collect(Collectors.groupingBy(
@@ -87,7 +119,7 @@ public class DashboardService {
     }
 
     private List<StorageUsageSummaryDTO> getStorageBySource(User user) {
-        List<StorageUsageQueryResult> queryResults = recordRepository.findStorageUsageBySourceByUser(user);
+        List<StorageUsageQueryResult> queryResults = rollupRepository.findStorageUsageBySource(user.getId());
 
         return queryResults.stream()
                 .map(r -> new StorageUsageSummaryDTO(r.sourceName(), r.totalBytes()))
@@ -105,6 +137,9 @@ public class DashboardService {
     }
 
     private List<BackupRecord> getRecentFailures(User user) {
-        return recordRepository.findTop5ByStatusAndJobUserOrderByTimestampDesc(BackupStatus.FAILED, user, PageRequest.of(0, 5));
+        List<BackupRecord> failures = recordRepository.findTop5ByStatusAndJobUserOrderByTimestampDesc(BackupStatus.FAILED, user, PageRequest.of(0, 5));
+        // O DTO fica no cache e é serializado depois, sem sessão aberta; os destinos vêm num único lote.
+        failures.forEach(record -> Hibernate.initialize(record.getJob().getDestinations()));
+        return failures;
     }
 }
\ No newline at end of file
@@ -0,0 +1,269 @@
+package br.gov.formosa.backup.dashboard.domain.service;
+
+import br.gov.formosa.backup.config.domain.event.BackupDestinationChangedEvent;
+import br.gov.formosa.backup.config.domain.event.BackupSourceChangedEvent;
+import br.gov.formosa.backup.dashboard.api.dto.DashboardDTO;
+import br.gov.formosa.backup.dashboard.domain.model.DashboardSection;
+import br.gov.formosa.backup.job.domain.event.BackupJobChangedEvent;
+import br.gov.formosa.backup.job.domain.event.BackupRecordsChangedEvent;
+import br.gov.formosa.backup.job.domain.model.ClusterSignal;
+import br.gov.formosa.backup.job.infra.repository.ClusterSignalRepository;
+import br.gov.formosa.backup.shared.infra.service.NodeIdentity;
+import br.gov.formosa.backup.user.domain.model.User;
+import br.gov.formosa.backup.user.infra.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mantém o {@link DashboardCache} atualizado pelos eventos de domínio e envia ao tópico do usuário só as seções
+ * que mudaram, para que as telas abertas não precisem consultar a API periodicamente. Eventos próximos são
+ * agrupados: cada usuário tem as seções recalculadas no máximo uma vez por intervalo.
+ * Mudanças feitas em outro nó (registros finalizados por workers, por exemplo) chegam por um {@link ClusterSignal}
+ * por usuário, incrementado uma vez por intervalo e conferido só para os usuários que estão no cache. As versões
+ * gravadas por este nó não geram recálculo aqui; com H2 não há outros nós e o sinal não é usado.
+ */
+@Service
+public class DashboardUpdatePublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardUpdatePublisher.class);
+    public static final String TOPIC_PREFIX = "/topic/dashboard/";
+    private static final String SIGNAL_PREFIX = "dashboard:";
+
+    private final DashboardService dashboardService;
+    private final DashboardCache cache;
+    private final UserRepository userRepository;
+    private final ClusterSignalRepository signalRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean clustered;
+    private final long debounceMs;
+    private final ScheduledExecutorService flusher;
+
+    // Protegidos por "this".
+    private final Map<UUID, Set<DashboardSection>> pending = new HashMap<>();
+    private final Set<UUID> pendingSignals = new HashSet<>();
+    private boolean flushScheduled;
+
+    // Última versão do sinal vista para cada usuário em cache. Acessado só pela thread do agendador.
+    private final Map<UUID, Long> knownVersions = new HashMap<>();
+    // Versões do sinal gravadas por este nó e ainda não conferidas.
+    private final Map<UUID, Set<Long>> ownVersions = new ConcurrentHashMap<>();
+
+    public DashboardUpdatePublisher(DashboardService dashboardService,
+                                    DashboardCache cache,
+                                    UserRepository userRepository,
+                                    ClusterSignalRepository signalRepository,
+                                    SimpMessagingTemplate messagingTemplate,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager,
+                                    NodeIdentity nodeIdentity,
+                                    @Value("${app.dashboard.push-debounce-ms:500}") long debounceMs) {
+        this.dashboardService = dashboardService;
+        this.cache = cache;
+        this.userRepository = userRepository;
+        this.signalRepository = signalRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.clustered = nodeIdentity.sharesDatabase();
+        this.debounceMs = Math.max(0, debounceMs);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("dashboard-push-");
+        threadFactory.setDaemon(true);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+    }
+
+    public static String topicFor(UUID userId) {
+        return TOPIC_PREFIX + userId;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecordsChanged(BackupRecordsChangedEvent event) {
+        event.userIds().forEach(userId -> changed(userId, DashboardSection.RECORDS));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJobChanged(BackupJobChangedEvent event) {
+        changed(event.userId(), DashboardSection.JOBS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSourceChanged(BackupSourceChangedEvent event) {
+        changed(event.userId(), DashboardSection.SOURCES);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDestinationChanged(BackupDestinationChangedEvent event) {
+        changed(event.userId(), DashboardSection.DESTINATIONS);
+    }
+
+    private void changed(UUID userId, Set<DashboardSection> sections) {
+        if (userId == null) {
+            return;
+        }
+        markDirty(userId, sections, clustered);
+    }
+
+    private void signalOtherNodes(UUID userId) {
+        String name = SIGNAL_PREFIX + userId;
+        try {
+            Long version = transactionTemplate.execute(tx -> {
+                if (signalRepository.increment(name) == 0) {
+                    return signalRepository.save(new ClusterSignal(name, 1)).getVersion();
+                }
+                return signalRepository.findById(name).map(ClusterSignal::getVersion).orElse(null);
+            });
+            if (version != null) {
+                ownVersions.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(version);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Falha ao sinalizar a mudança do dashboard do usuário {} aos outros nós: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * Confere o sinal dos usuários em cache; quem mudou em outro nó tem o dashboard inteiro recalculado.
+     * Se todas as versões novas foram gravadas por este nó, as mudanças já foram aplicadas e nada é recalculado.
+     */
+    @Scheduled(fixedDelayString = "${app.dashboard.cluster-sync-interval-ms:5000}")
+    public void syncWithCluster() {
+        if (!clustered) {
+            return;
+        }
+        Set<UUID> cached = cache.users();
+        knownVersions.keySet().retainAll(cached);
+        ownVersions.keySet().retainAll(cached);
+        if (cached.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, UUID> byName = new HashMap<>();
+            cached.forEach(userId -> byName.put(SIGNAL_PREFIX + userId, userId));
+            Map<UUID, Long> current = new HashMap<>();
+            for (ClusterSignal signal : signalRepository.findAllById(byName.keySet())) {
+                current.put(byName.get(signal.getName()), signal.getVersion());
+            }
+            for (UUID userId : cached) {
+                long version = current.getOrDefault(userId, 0L);
+                Long known = knownVersions.put(userId, version);
+                Set<Long> own = ownVersions.getOrDefault(userId, Set.of());
+                long ownSinceKnown = known == null ? 0 : own.stream().filter(v -> v > known && v <= version).count();
+                own.removeIf(v -> v <= version);
+                if (known != null && version - known > ownSinceKnown) {
+                    markDirty(userId, EnumSet.allOf(DashboardSection.class), false);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Falha ao conferir mudanças do dashboard em outros nós: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Agenda o recálculo das seções, se o usuário estiver no cache, e o sinal aos outros nós, ambos no próximo
+     * intervalo: eventos seguidos do mesmo usuário geram um recálculo e um incremento.
+     */
+    private void markDirty(UUID userId, Collection<DashboardSection> sections, boolean signal) {
+        cache.invalidated(userId);
+        // Sem ninguém olhando, a próxima leitura calcula tudo.
+        boolean watched = cache.peek(userId).isPresent();
+        if (!watched && !signal) {
+            return;
+        }
+        synchronized (this) {
+            if (watched) {
+                pending.computeIfAbsent(userId, id -> EnumSet.noneOf(DashboardSection.class)).addAll(sections);
+            }
+            if (signal) {
+                pendingSignals.add(userId);
+            }
+            if (flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        try {
+            flusher.schedule(this::flush, debounceMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Aplicação encerrando.
+        }
+    }
+
+    private void flush() {
+        Map<UUID, Set<DashboardSection>> batch;
+        Set<UUID> signals;
+        synchronized (this) {
+            batch = new HashMap<>(pending);
+            pending.clear();
+            signals = new HashSet<>(pendingSignals);
+            pendingSignals.clear();
+            flushScheduled = false;
+        }
+        signals.forEach(this::signalOtherNodes);
+        batch.forEach(this::refresh);
+    }
+
+    private void refresh(UUID userId, Set<DashboardSection> sections) {
+        Optional<DashboardDTO> current = cache.peek(userId);
+        if (current.isEmpty()) {
+            return;
+        }
+        try {
+            Optional<User> user = userRepository.findById(userId);
+            if (user.isEmpty()) {
+                cache.evict(userId);
+                return;
+            }
+            DashboardDTO updated = dashboardService.refresh(user.get(), current.get(), sections);
+            cache.replace(userId, updated);
+
+            // Compara pelo JSON: é o que o cliente recebe, e o equals das entidades tocaria associações LAZY já sem sessão.
+            Map<String, Object> delta = new LinkedHashMap<>();
+            for (DashboardSection section : sections) {
+                JsonNode value = objectMapper.valueToTree(section.valueOf(updated));
+                if (!value.equals(objectMapper.valueToTree(section.valueOf(current.get())))) {
+                    delta.put(section.getKey(), value);
+                }
+            }
+            if (!delta.isEmpty()) {
+                messagingTemplate.convertAndSend(topicFor(userId), delta);
+            }
+        } catch (RuntimeException e) {
+            // A próxima leitura recalcula do zero.
+            cache.evict(userId);
+            log.warn("Falha ao atualizar o dashboard do usuário {}: {}", userId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package br.gov.formosa.backup.dashboard.infra.repository;
+
+import br.gov.formosa.backup.dashboard.api.dto.DailyStatusQueryResult;
+import br.gov.formosa.backup.dashboard.api.dto.StorageUsageQueryResult;
+import br.gov.formosa.backup.dashboard.domain.model.BackupDailyRollup;
+import br.gov.formosa.backup.dashboard.domain.model.BackupDailyRollupId;
+import br.gov.formosa.backup.shared.enums.BackupStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface BackupDailyRollupRepository extends JpaRepository<BackupDailyRollup, BackupDailyRollupId> {
+
+    @Modifying
+    @Query("UPDATE BackupDailyRollup r SET r.recordCount = r.recordCount + :count, r.sizeBytes = r.sizeBytes + :bytes WHERE r.id = :id")
+    int increment(BackupDailyRollupId id, long count, long bytes);
+
+    @Modifying
+    @Query("DELETE FROM BackupDailyRollup r WHERE r.id = :id AND r.recordCount <= 0")
+    int deleteIfEmpty(BackupDailyRollupId id);
+
+    @Modifying
+    @Query("DELETE FROM BackupDailyRollup r WHERE r.id.userId = :userId")
+    int deleteByUserId(UUID userId);
+
+    @Query("SELECT COALESCE(SUM(r.recordCount), 0) FROM BackupDailyRollup r WHERE r.id.userId = :userId AND r.id.status = :status")
+    long sumCountByUserIdAndStatus(UUID userId, BackupStatus status);
+
+    @Query("SELECT COALESCE(SUM(r.sizeBytes), 0) FROM BackupDailyRollup r WHERE r.id.userId = :userId AND r.id.status = 'SUCCESS'")
+    long sumSuccessBytesByUserId(UUID userId);
+
+    @Query("SELECT new br.gov.formosa.backup.dashboard.api.dto.DailyStatusQueryResult(r.id.day, r.id.status, SUM(r.recordCount)) " +
+            "FROM BackupDailyRollup r WHERE r.id.userId = :userId AND r.id.day >= :since " +
+            "GROUP BY r.id.day, r.id.status ORDER BY r.id.day ASC")
+    List<DailyStatusQueryResult> findDailyStatusSummary(UUID userId, LocalDate since);
+
+    @Query("SELECT new br.gov.formosa.backup.dashboard.api.dto.StorageUsageQueryResult(s.name, SUM(r.sizeBytes)) " +
+            "FROM BackupDailyRollup r JOIN BackupSource s ON s.id = r.id.sourceId " +
+            "WHERE r.id.userId = :userId AND r.id.status = 'SUCCESS' " +
+            "GROUP BY s.name ORDER BY SUM(r.sizeBytes) DESC")
+    List<StorageUsageQueryResult> findStorageUsageBySource(UUID userId);
+}
@@ -1,15 +1,15 @@
 package br.gov.formosa.backup.job.api.controller;
 
-import br.gov.formosa.backup.job.domain.model.BackupRecord;
+import br.gov.formosa.backup.job.api.dto.BackupHistoryPageDTO;
 import br.gov.formosa.backup.user.domain.model.User;
 import br.gov.formosa.backup.job.domain.service.BackupService;
 import br.gov.formosa.backup.user.domain.service.UserService;
+import br.gov.formosa.backup.shared.enums.BackupStatus;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @RestController
@@ -21,9 +21,15 @@ public class BackupController {
     private final UserService userService;
 
     @GetMapping("/history")
-    public Page<BackupRecord> getBackupHistory(@PageableDefault(size = 10, sort = "timestamp,desc") Pageable pageable) {
+    public BackupHistoryPageDTO getBackupHistory(@RequestParam(required = false) BackupStatus status,
+                                                 @RequestParam(required = false) UUID sourceId,
+                                                 @RequestParam(required = false) UUID destinationId,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "20") int limit) {
         User user = userService.getAuthenticatedUser();
-        return backupService.getHistory(user, pageable);
+        return backupService.getHistory(user, status, sourceId, destinationId, from, to, cursor, limit);
     }
 
     @PostMapping("/restore/{recordId}")
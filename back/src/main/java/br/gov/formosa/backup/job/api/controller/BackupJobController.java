@@ -1,10 +1,17 @@
 package br.gov.formosa.backup.job.api.controller;
 
 import br.gov.formosa.backup.job.api.dto.BackupJobDTO;
+import br.gov.formosa.backup.job.api.dto.BackupRunDTO;
+import br.gov.formosa.backup.job.api.dto.JobLogPageDTO;
+import br.gov.formosa.backup.job.api.mapper.BackupRunMapper;
 import br.gov.formosa.backup.job.domain.model.BackupJob;
+import br.gov.formosa.backup.job.domain.model.BackupRun;
 import br.gov.formosa.backup.user.domain.model.User;
 import br.gov.formosa.backup.job.domain.service.BackupJobService;
-import br.gov.formosa.backup.job.domain.service.BackupService;
+import br.gov.formosa.backup.job.domain.service.JobExecutionEngine;
+import br.gov.formosa.backup.job.domain.service.JobLogStore.LogSlice;
+import br.gov.formosa.backup.shared.infra.service.JobLogStreamService;
+import br.gov.formosa.backup.shared.enums.RunTrigger;
 import br.gov.formosa.backup.user.domain.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -19,7 +26,9 @@ import java.util.UUID;
 public class BackupJobController {
 
     private final BackupJobService jobService;
-    private final BackupService backupService;
+    private final JobExecutionEngine executionEngine;
+    private final BackupRunMapper runMapper;
+    private final JobLogStreamService logStreamService;
     private final UserService userService;
 
     @PostMapping
@@ -56,8 +65,26 @@ public class BackupJobController {
 
     @PostMapping("/{id}/execute")
     @ResponseStatus(HttpStatus.ACCEPTED)
-    public void triggerManualJob(@PathVariable UUID id) {
+    public BackupRunDTO triggerManualJob(@PathVariable UUID id) {
         User user = userService.getAuthenticatedUser();
-        backupService.executeJob(id, user);
+        BackupJob job = jobService.findById(id, user);
+        return runMapper.toDTO(executionEngine.enqueue(job, RunTrigger.MANUAL));
+    }
+
+    @GetMapping("/runs/{runId}")
+    public BackupRunDTO findRun(@PathVariable UUID runId) {
+        User user = userService.getAuthenticatedUser();
+        return runMapper.toDTO(executionEngine.findRun(runId, user));
+    }
+
+    @GetMapping("/runs/{runId}/logs")
+    public JobLogPageDTO findRunLogs(@PathVariable UUID runId,
+                                     @RequestParam(defaultValue = "0") long offset,
+                                     @RequestParam(defaultValue = "500") int limit) {
+        User user = userService.getAuthenticatedUser();
+        BackupRun run = executionEngine.findRun(runId, user);
+        LogSlice slice = logStreamService.replay(runId, Math.max(0, offset), Math.min(Math.max(1, limit), 5000));
+        return new JobLogPageDTO(runId, slice.start(), slice.end(), slice.lines(),
+                logStreamService.isLive(runId), JobLogStreamService.topicFor(run.getJob().getId()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package br.gov.formosa.backup.job.api.dto;
+
+import br.gov.formosa.backup.shared.enums.BackupStatus;
+import br.gov.formosa.backup.shared.enums.CompressionCodec;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Linha do histórico: só o que a listagem mostra, sem carregar job, fonte e destinos como entidades.
+public record BackupHistoryItemDTO(
+        UUID id,
+        UUID jobId,
+        String jobName,
+        UUID sourceId,
+        String sourceName,
+        UUID destinationId,
+        String destinationName,
+        UUID runId,
+        String filename,
+        LocalDateTime timestamp,
+        Long sizeBytes,
+        Long rawSizeBytes,
+        CompressionCodec compressionCodec,
+        BackupStatus status,
+        String logSummary
+) {}
@@ -0,0 +1,12 @@
+package br.gov.formosa.backup.job.api.dto;
+
+import java.util.List;
+
+/**
+ * Página do histórico, do mais recente para o mais antigo. {@code nextCursor} é passado como {@code cursor}
+ * para buscar a página seguinte; nulo quando não há mais registros.
+ */
+public record BackupHistoryPageDTO(
+        List<BackupHistoryItemDTO> items,
+        String nextCursor
+) {}
@@ -1,11 +1,15 @@
 package br.gov.formosa.backup.job.api.dto;
 
+import br.gov.formosa.backup.shared.enums.CompressionCodec;
 import br.gov.formosa.backup.shared.enums.NotificationPolicy;
 import br.gov.formosa.backup.shared.enums.ScheduleType;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.time.DayOfWeek;
 import java.time.LocalTime;
 import java.util.Set;
 import java.util.UUID;
@@ -23,5 +27,18 @@ public record BackupJobDTO(
 
         String notificationRecipients,
 
-        UUID emailConfigId
+        UUID emailConfigId,
+
+        Boolean streamingEnabled,
+
+        CompressionCodec compressionCodec,
+
+        // 0 volta ao dump simples (um processo); nulo mantém o valor gravado na atualização.
+        @Min(0) Integer parallelDumpJobs,
+
+        DayOfWeek dayOfWeek,
+
+        @Size(max = 120) String cronExpression,
+
+        @Min(-10) @Max(10) Integer priority
 ) {}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package br.gov.formosa.backup.job.api.dto;
+
+import br.gov.formosa.backup.shared.enums.RunStatus;
+import br.gov.formosa.backup.shared.enums.RunTrigger;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record BackupRunDTO(
+        UUID id,
+        UUID jobId,
+        String jobName,
+        RunStatus status,
+        RunTrigger trigger,
+        LocalDateTime queuedAt,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        String errorMessage
+) {}
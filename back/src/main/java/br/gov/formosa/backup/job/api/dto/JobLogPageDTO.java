@@ -0,0 +1,17 @@
+package br.gov.formosa.backup.job.api.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Trecho do log de uma execução a partir de {@code offset}. Enquanto {@code live} for verdadeiro,
+ * o restante chega pelo {@code topic}; frames com cabeçalho log-next-offset <= nextOffset já foram lidos aqui.
+ */
+public record JobLogPageDTO(
+        UUID runId,
+        long offset,
+        long nextOffset,
+        List<String> lines,
+        boolean live,
+        String topic
+) {}
@@ -0,0 +1,12 @@
+package br.gov.formosa.backup.job.api.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record NotificationDigestGroup(
+        UUID emailConfigId,
+        String recipients,
+        long count,
+        LocalDateTime firstAt,
+        LocalDateTime lastAt
+) {}
@@ -18,6 +18,8 @@ public abstract class BackupJobMapper {
     @Mapping(target = "source", source = "sourceId")
     @Mapping(target = "destinations", source = "destinationIds")
     @Mapping(target = "emailConfig", source = "emailConfigId")
+    @Mapping(target = "active", source = "isActive")
+    @Mapping(target = "compressionCodec", source = "compressionCodec", defaultValue = "NONE")
     public abstract BackupJob toEntity(BackupJobDTO dto);
 
     protected BackupSource mapSource(UUID sourceId) {
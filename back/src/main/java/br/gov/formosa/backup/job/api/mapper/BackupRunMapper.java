@@ -0,0 +1,14 @@
+package br.gov.formosa.backup.job.api.mapper;
+
+import br.gov.formosa.backup.job.api.dto.BackupRunDTO;
+import br.gov.formosa.backup.job.domain.model.BackupRun;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface BackupRunMapper {
+
+    @Mapping(target = "jobId", source = "job.id")
+    @Mapping(target = "jobName", source = "job.name")
+    BackupRunDTO toDTO(BackupRun run);
+}
@@ -0,0 +1,8 @@
+package br.gov.formosa.backup.job.domain.event;
+
+import java.util.UUID;
+
+/**
+ * Publicado quando um job é criado, alterado ou excluído, para que o agendamento seja refeito só para ele.
+ */
+public record BackupJobChangedEvent(UUID jobId, UUID userId) {}
@@ -0,0 +1,9 @@
+package br.gov.formosa.backup.job.domain.event;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Publicado quando registros de backup chegam a um status final ou são excluídos, com os donos afetados.
+ */
+public record BackupRecordsChangedEvent(Set<UUID> userIds) {}
@@ -4,12 +4,14 @@ import br.gov.formosa.backup.config.domain.model.BackupDestination;
 import br.gov.formosa.backup.config.domain.model.BackupSource;
 import br.gov.formosa.backup.config.domain.model.EmailConfig;
 import br.gov.formosa.backup.user.domain.model.User;
+import br.gov.formosa.backup.shared.enums.CompressionCodec;
 import br.gov.formosa.backup.shared.enums.NotificationPolicy;
 import br.gov.formosa.backup.shared.enums.ScheduleType;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
+import java.time.DayOfWeek;
 import java.time.LocalTime;
 import java.util.Set;
 import java.util.UUID;
@@ -27,11 +29,11 @@ public class BackupJob {
     @Column(nullable = false)
     private String name;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "source_id", nullable = false)
     private BackupSource source;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany
     @JoinTable(
             name = "job_destinations",
             joinColumns = @JoinColumn(name = "job_id"),
@@ -46,12 +48,36 @@ public class BackupJob {
     @Column(nullable = false)
     private LocalTime backupTime;
 
+    // Usado apenas em agendamentos WEEKLY.
+    @Enumerated(EnumType.STRING)
+    @Column(name = "day_of_week", length = 10)
+    private DayOfWeek dayOfWeek;
+
+    // Usado apenas em agendamentos CRON; aceita 5 ou 6 campos (com segundos).
+    @Column(name = "cron_expression", length = 120)
+    private String cronExpression;
+
     @Column(nullable = false)
     private int retentionDays;
 
     @Column(nullable = false)
     private boolean isActive;
 
+    @Column(nullable = false)
+    private boolean streamingEnabled = false;
+
+    // Na fila, runs de jobs com prioridade maior são admitidos antes; empate pela ordem de chegada.
+    @Column(nullable = false)
+    private int priority = 0;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private CompressionCodec compressionCodec = CompressionCodec.NONE;
+
+    // Quando definido em fontes PostgreSQL, usa pg_dump -Fd -j N (e pg_restore -j N na restauração).
+    @Column
+    private Integer parallelDumpJobs;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private NotificationPolicy notificationPolicy = NotificationPolicy.NEVER;
@@ -1,7 +1,10 @@
 package br.gov.formosa.backup.job.domain.model;
 
 import br.gov.formosa.backup.shared.enums.BackupStatus;
+import br.gov.formosa.backup.shared.enums.CompressionCodec;
+import br.gov.formosa.backup.shared.enums.DumpFormat;
 import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,14 +17,22 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "backup_record")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Table(name = "backup_record", indexes = {
+        @Index(name = "idx_backup_record_job_timestamp", columnList = "job_id, timestamp"),
+        @Index(name = "idx_backup_record_status_timestamp", columnList = "status, timestamp"),
+        // Cursor do histórico: (timestamp, id) < (:ts, :id) em ordem decrescente.
+        @Index(name = "idx_backup_record_timestamp_id", columnList = "timestamp, id")
+})
 public class BackupRecord {
 
+    public static final int LOG_SUMMARY_MAX_LENGTH = 1000;
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "job_id")
     private BackupJob job;
 
@@ -35,9 +46,25 @@ public class BackupRecord {
     @Column(name = "timestamp")
     private LocalDateTime timestamp;
 
+    // Tamanho armazenado no destino (após compressão); raw_size_bytes guarda o tamanho original do dump.
     @Column(name = "size_bytes")
     private Long sizeBytes;
 
+    @Column(name = "raw_size_bytes")
+    private Long rawSizeBytes;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "compression_codec", length = 10)
+    private CompressionCodec compressionCodec;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dump_format", length = 20)
+    private DumpFormat dumpFormat;
+
+    // Execução que gerou o registro; o log completo do dump fica em job_log_segment.
+    @Column(name = "run_id")
+    private UUID runId;
+
     @Column(name = "destination_id")
     private UUID destinationId;
 
@@ -45,6 +72,6 @@ public class BackupRecord {
     @Column(name = "status", length = 20)
     private BackupStatus status;
 
-    @Column(name = "log_summary", columnDefinition = "TEXT")
+    @Column(name = "log_summary", length = LOG_SUMMARY_MAX_LENGTH)
     private String logSummary;
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package br.gov.formosa.backup.job.domain.model;
+
+import br.gov.formosa.backup.shared.enums.RunStatus;
+import br.gov.formosa.backup.shared.enums.RunTrigger;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "backup_run", indexes = {
+        @Index(name = "idx_backup_run_status_queued", columnList = "status, queued_at"),
+        @Index(name = "idx_backup_run_status_lease", columnList = "status, lease_expires_at")
+}, uniqueConstraints = {
+        // Um único run por horário agendado, mesmo que vários nós disparem o mesmo job.
+        @UniqueConstraint(name = "uk_backup_run_job_slot", columnNames = {"job_id", "scheduled_for"})
+})
+public class BackupRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "job_id", nullable = false)
+    private BackupJob job;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private RunStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "trigger_type", nullable = false, length = 20)
+    private RunTrigger trigger;
+
+    @Column(name = "queued_at", nullable = false)
+    private LocalDateTime queuedAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    // Horário agendado que originou o run; nulo em execuções manuais.
+    @Column(name = "scheduled_for")
+    private LocalDateTime scheduledFor;
+
+    // Com jitter, o run agendado só pode ser reivindicado a partir deste instante.
+    @Column(name = "not_before")
+    private LocalDateTime notBefore;
+
+    // Nó que executa o run e até quando o lease vale sem renovação; depois disso outro nó pode assumir.
+    @Column(name = "owner_node", length = 100)
+    private String ownerNode;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    @Builder.Default
+    @Column(name = "attempts", nullable = false)
+    private int attempts = 0;
+}
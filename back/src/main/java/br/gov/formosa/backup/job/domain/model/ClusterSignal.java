@@ -0,0 +1,28 @@
+package br.gov.formosa.backup.job.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Contador de mudanças compartilhado entre os nós. Quem altera o estado incrementa a versão na mesma transação;
+ * os demais nós comparam a versão (uma leitura por chave) e só recarregam quando ela muda.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "cluster_signal")
+public class ClusterSignal {
+
+    @Id
+    @Column(name = "name", length = 100)
+    private String name;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+}
@@ -0,0 +1,61 @@
+package br.gov.formosa.backup.job.domain.model;
+
+import br.gov.formosa.backup.shared.enums.UploadState;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Estado do upload de um run para um destino. Destinos UPLOADED não são reenviados na retomada e o uploadId
+ * permite continuar um multipart aberto; as partes já aceitas são consultadas no próprio destino.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "run_destination_checkpoint", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_run_destination_checkpoint", columnNames = {"run_id", "destination_id"})
+})
+public class DestinationCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "run_id", nullable = false)
+    private UUID runId;
+
+    @Column(name = "destination_id", nullable = false)
+    private UUID destinationId;
+
+    // Registro IN_PROGRESS criado pela primeira tentativa e concluído pela que terminar o upload.
+    @Column(name = "record_id")
+    private UUID recordId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state", nullable = false, length = 20)
+    private UploadState state;
+
+    @Column(name = "upload_id", length = 1024)
+    private String uploadId;
+
+    // Tamanho das partes do multipart em uploadId; a retomada usa este valor, não a configuração atual.
+    @Column(name = "part_size_bytes")
+    private Long partSizeBytes;
+
+    @Builder.Default
+    @Column(name = "completed_parts", nullable = false)
+    private int completedParts = 0;
+
+    @Column(name = "remote_path", length = 1000)
+    private String remotePath;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
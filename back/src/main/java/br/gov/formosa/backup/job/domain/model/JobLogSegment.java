@@ -0,0 +1,47 @@
+package br.gov.formosa.backup.job.domain.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Bloco imutável do log de uma execução; as linhas [first_line, end_line) ficam gravadas em gzip.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "job_log_segment",
+        uniqueConstraints = @UniqueConstraint(name = "uk_job_log_segment_run_seq", columnNames = {"run_id", "seq"}),
+        indexes = @Index(name = "idx_job_log_segment_run_end", columnList = "run_id, end_line"))
+public class JobLogSegment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "run_id", nullable = false)
+    private UUID runId;
+
+    @Column(name = "seq", nullable = false)
+    private int seq;
+
+    @Column(name = "first_line", nullable = false)
+    private long firstLine;
+
+    @Column(name = "end_line", nullable = false)
+    private long endLine;
+
+    @Column(name = "raw_bytes", nullable = false)
+    private int rawBytes;
+
+    @Lob
+    @Column(name = "data", nullable = false)
+    private byte[] data;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
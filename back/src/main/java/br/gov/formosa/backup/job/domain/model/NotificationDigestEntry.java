@@ -0,0 +1,60 @@
+package br.gov.formosa.backup.job.domain.model;
+
+import br.gov.formosa.backup.shared.enums.BackupStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Resultado de um registro à espera do próximo resumo; o resumo agrupa por configuração de e-mail e destinatários.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "notification_digest_entry",
+        indexes = @Index(name = "idx_notification_digest_group", columnList = "email_config_id, recipients, created_at"))
+public class NotificationDigestEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "email_config_id", nullable = false)
+    private UUID emailConfigId;
+
+    // Endereços normalizados (minúsculos, ordenados, separados por vírgula), para que a mesma lista agrupe junto.
+    @Column(name = "recipients", nullable = false, length = 1000)
+    private String recipients;
+
+    @Column(name = "record_id")
+    private UUID recordId;
+
+    @Column(name = "job_name", nullable = false)
+    private String jobName;
+
+    @Column(name = "source_name")
+    private String sourceName;
+
+    @Column(name = "destination_name")
+    private String destinationName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private BackupStatus status;
+
+    @Column(name = "timestamp")
+    private LocalDateTime timestamp;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
+    @Column(name = "log_summary", length = BackupRecord.LOG_SUMMARY_MAX_LENGTH)
+    private String logSummary;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
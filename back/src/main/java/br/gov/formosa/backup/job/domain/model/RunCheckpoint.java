@@ -0,0 +1,58 @@
+package br.gov.formosa.backup.job.domain.model;
+
+import br.gov.formosa.backup.shared.enums.DumpFormat;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Dump concluído de um run, guardado no spool do nó que o gerou. Uma nova tentativa no mesmo host reaproveita
+ * o spool (conferindo tamanho e checksum) em vez de repetir o dump.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "run_checkpoint")
+public class RunCheckpoint {
+
+    @Id
+    @Column(name = "run_id")
+    private UUID runId;
+
+    @Column(name = "host", nullable = false, length = 255)
+    private String host;
+
+    // Arquivo do dump ou, em DIRECTORY_TAR, o diretório gerado pelo pg_dump -Fd.
+    @Column(name = "spool_path", nullable = false, length = 1000)
+    private String spoolPath;
+
+    @Column(name = "spool_size_bytes", nullable = false)
+    private long spoolSizeBytes;
+
+    @Column(name = "raw_size_bytes", nullable = false)
+    private long rawSizeBytes;
+
+    // SHA-256 do arquivo; nulo para diretórios, conferidos só pelo tamanho total.
+    @Column(name = "checksum", length = 64)
+    private String checksum;
+
+    @Column(name = "filename", nullable = false, length = 500)
+    private String filename;
+
+    @Column(name = "remote_path", nullable = false, length = 1000)
+    private String remotePath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dump_format", nullable = false, length = 20)
+    private DumpFormat dumpFormat;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
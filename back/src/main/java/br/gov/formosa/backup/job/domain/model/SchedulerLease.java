@@ -0,0 +1,32 @@
+package br.gov.formosa.backup.job.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lease nomeado para tarefas que devem rodar em um único nó do cluster (ex.: limpeza por retenção).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "scheduler_lease")
+public class SchedulerLease {
+
+    @Id
+    @Column(name = "name", length = 100)
+    private String name;
+
+    @Column(name = "owner_node", nullable = false, length = 100)
+    private String ownerNode;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,195 @@
+package br.gov.formosa.backup.job.domain.service;
+
+import br.gov.formosa.backup.config.domain.model.BackupDestination;
+import br.gov.formosa.backup.config.domain.model.BackupSource;
+import br.gov.formosa.backup.job.domain.model.BackupJob;
+import br.gov.formosa.backup.job.domain.model.BackupRecord;
+import br.gov.formosa.backup.job.domain.model.BackupRun;
+import br.gov.formosa.backup.job.domain.model.RunCheckpoint;
+import br.gov.formosa.backup.job.infra.repository.BackupRecordRepository;
+import br.gov.formosa.backup.job.infra.repository.RunCheckpointRepository;
+import br.gov.formosa.backup.shared.enums.BackupStatus;
+import br.gov.formosa.backup.shared.enums.CompressionCodec;
+import br.gov.formosa.backup.shared.enums.DatabaseType;
+import br.gov.formosa.backup.shared.enums.RunTrigger;
+import br.gov.formosa.backup.shared.infra.service.NodeIdentity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decide quais runs da fila podem começar sem disputar os mesmos recursos: dumps simultâneos por fonte e por
+ * host de banco, runs simultâneos por destino (o upload acompanha o dump no modo streaming, então o run ocupa
+ * o destino do início ao fim) e bytes em disco temporário neste nó. Os limites por fonte, host e destino valem
+ * para o cluster, contando os runs com lease válido; o de spool é local, porque cada nó tem o próprio disco.
+ * Runs recusados continuam na fila e são reavaliados a cada término ou varredura.
+ */
+@Service
+public class AdmissionController {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionController.class);
+
+    private final BackupRecordRepository recordRepository;
+    private final RunCheckpointRepository checkpointRepository;
+    private final NodeIdentity nodeIdentity;
+    private final int maxRunsPerSource;
+    private final int maxDumpsPerHost;
+    private final int maxRunsPerDestination;
+    private final long spoolBudgetBytes;
+    private final long jitterMs;
+
+    // Estimativa de spool dos runs em execução neste nó.
+    private final Map<UUID, Long> spoolReservations = new ConcurrentHashMap<>();
+
+    public AdmissionController(BackupRecordRepository recordRepository,
+                               RunCheckpointRepository checkpointRepository,
+                               NodeIdentity nodeIdentity,
+                               @Value("${app.execution.max-runs-per-source:1}") int maxRunsPerSource,
+                               @Value("${app.admission.max-dumps-per-host:2}") int maxDumpsPerHost,
+                               @Value("${app.admission.max-runs-per-destination:3}") int maxRunsPerDestination,
+                               @Value("${app.admission.spool-budget-bytes:0}") long spoolBudgetBytes,
+                               @Value("${app.admission.jitter-ms:0}") long jitterMs) {
+        this.recordRepository = recordRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.nodeIdentity = nodeIdentity;
+        this.maxRunsPerSource = Math.max(1, maxRunsPerSource);
+        this.maxDumpsPerHost = Math.max(1, maxDumpsPerHost);
+        this.maxRunsPerDestination = Math.max(1, maxRunsPerDestination);
+        this.spoolBudgetBytes = Math.max(0, spoolBudgetBytes);
+        this.jitterMs = Math.max(0, jitterMs);
+    }
+
+    /**
+     * Runs agendados recebem um atraso aleatório para que jobs com o mesmo horário não comecem juntos.
+     * Execuções manuais não esperam.
+     */
+    public LocalDateTime notBeforeFor(RunTrigger trigger, LocalDateTime queuedAt) {
+        if (trigger != RunTrigger.SCHEDULED || jitterMs == 0) {
+            return null;
+        }
+        return queuedAt.plusNanos(ThreadLocalRandom.current().nextLong(jitterMs + 1) * 1_000_000);
+    }
+
+    /**
+     * Abre uma rodada de admissão a partir dos runs vivos no cluster. Cada admissão da rodada já conta para as seguintes.
+     */
+    public Round openRound(Collection<BackupRun> liveRuns) {
+        Round round = new Round();
+        for (BackupRun run : liveRuns) {
+            round.occupy(run.getJob());
+        }
+        spoolReservations.values().forEach(bytes -> round.spoolInUse += bytes);
+        return round;
+    }
+
+    public void reserveSpool(UUID runId, long bytes) {
+        if (bytes > 0) {
+            spoolReservations.put(runId, bytes);
+        }
+    }
+
+    public void releaseSpool(UUID runId) {
+        spoolReservations.remove(runId);
+    }
+
+    /**
+     * Bytes que o dump deve ocupar no spool. Uma nova tentativa com checkpoint neste host já tem o spool em disco.
+     * Senão vale o último backup bem-sucedido do job: o spool em arquivo guarda o dump comprimido pelo codec do job,
+     * então o tamanho enviado só serve se o codec for o mesmo; diretórios (pg_dump -Fd) e dumps sem compressão
+     * ficam em disco com o tamanho bruto. Jobs em streaming não usam spool; jobs sem histórico contam como zero.
+     */
+    private long estimateSpool(BackupRun run) {
+        BackupJob job = run.getJob();
+        if (spoolBudgetBytes == 0 || (job.isStreamingEnabled() && !isDirectoryDump(job))) {
+            return 0;
+        }
+        return checkpointRepository.findById(run.getId())
+                .filter(checkpoint -> checkpoint.getHost().equals(nodeIdentity.getHostname()))
+                .map(RunCheckpoint::getSpoolSizeBytes)
+                .orElseGet(() -> recordRepository.findFirstByJobIdAndStatusOrderByTimestampDesc(job.getId(), BackupStatus.SUCCESS)
+                        .map(record -> spoolSizeOf(job, record))
+                        .orElse(0L));
+    }
+
+    private static long spoolSizeOf(BackupJob job, BackupRecord record) {
+        CompressionCodec codec = job.getCompressionCodec() == null ? CompressionCodec.NONE : job.getCompressionCodec();
+        boolean sameCompressedFile = !isDirectoryDump(job) && codec != CompressionCodec.NONE && codec == record.getCompressionCodec();
+        Long bytes = sameCompressedFile || record.getRawSizeBytes() == null ? record.getSizeBytes() : record.getRawSizeBytes();
+        return bytes == null ? 0 : bytes;
+    }
+
+    private static boolean isDirectoryDump(BackupJob job) {
+        return job.getSource().getDatabaseType() == DatabaseType.POSTGRES
+                && job.getParallelDumpJobs() != null && job.getParallelDumpJobs() > 0;
+    }
+
+    // Fontes de arquivo (sem host) não concorrem por um servidor de banco.
+    private static String hostKey(BackupSource source) {
+        return source.getDbHost() == null || source.getDbHost().isBlank() ? null : source.getDbHost().trim().toLowerCase(Locale.ROOT);
+    }
+
+    public final class Round {
+
+        private final Map<UUID, Integer> bySource = new HashMap<>();
+        private final Map<String, Integer> byHost = new HashMap<>();
+        private final Map<UUID, Integer> byDestination = new HashMap<>();
+        private long spoolInUse;
+
+        private Round() {
+        }
+
+        /**
+         * Admite o run se houver folga em todos os limites e devolve os bytes de spool estimados; -1 se recusado.
+         * Com o nó sem nenhum spool em uso o run é admitido mesmo acima do orçamento, senão nunca rodaria.
+         */
+        public long admit(BackupRun run) {
+            BackupJob job = run.getJob();
+            BackupSource source = job.getSource();
+            if (bySource.getOrDefault(source.getId(), 0) >= maxRunsPerSource) {
+                return reject(run, "fonte " + source.getName());
+            }
+            String host = hostKey(source);
+            if (host != null && byHost.getOrDefault(host, 0) >= maxDumpsPerHost) {
+                return reject(run, "host " + host);
+            }
+            for (BackupDestination destination : job.getDestinations()) {
+                if (byDestination.getOrDefault(destination.getId(), 0) >= maxRunsPerDestination) {
+                    return reject(run, "destino " + destination.getName());
+                }
+            }
+            long spool = estimateSpool(run);
+            if (spool > 0 && spoolInUse > 0 && spoolInUse + spool > spoolBudgetBytes) {
+                return reject(run, "spool (" + spoolInUse + " + " + spool + " bytes)");
+            }
+            occupy(job);
+            spoolInUse += spool;
+            return spool;
+        }
+
+        private void occupy(BackupJob job) {
+            bySource.merge(job.getSource().getId(), 1, Integer::sum);
+            String host = hostKey(job.getSource());
+            if (host != null) {
+                byHost.merge(host, 1, Integer::sum);
+            }
+            for (BackupDestination destination : job.getDestinations()) {
+                byDestination.merge(destination.getId(), 1, Integer::sum);
+            }
+        }
+
+        private long reject(BackupRun run, String resource) {
+            log.debug("Run {} aguardando na fila: limite de {} atingido.", run.getId(), resource);
+            return -1;
+        }
+    }
+}
@@ -6,36 +6,64 @@ import br.gov.formosa.backup.job.api.mapper.BackupJobMapper;
 import br.gov.formosa.backup.job.domain.model.BackupJob;
 import br.gov.formosa.backup.user.domain.model.User;
 import br.gov.formosa.backup.job.infra.repository.BackupJobRepository;
+import br.gov.formosa.backup.job.domain.event.BackupJobChangedEvent;
+import br.gov.formosa.backup.job.domain.model.ClusterSignal;
+import br.gov.formosa.backup.job.infra.repository.ClusterSignalRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class BackupJobService {
 
+    public static final String SCHEDULE_SIGNAL = "job-schedule";
+
     private final BackupJobRepository repository;
     private final BackupJobMapper mapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ClusterSignalRepository signalRepository;
 
     @Transactional
     public BackupJob save(BackupJobDTO dto, User user) {
+        validateSchedule(dto);
         BackupJob job = mapper.toEntity(dto);
         job.setUser(user);
-        return repository.save(job);
+        clearDisabledParallelDump(job);
+        BackupJob saved = repository.save(job);
+        publishChange(saved.getId(), user);
+        return saved;
     }
 
+    /**
+     * Substitui o job pelo DTO. Opções de execução que o DTO não traz (nulas) mantêm o valor gravado, para que
+     * clientes que não as conhecem não as desliguem ao salvar.
+     */
     @Transactional
     public BackupJob update(UUID id, BackupJobDTO dto, User user) {
-        if (!repository.existsByIdAndUser(id, user)) {
-            throw new GlobalBackupException("Job de backup não encontrado: " + id, HttpStatus.NOT_FOUND);
-        }
+        BackupJob current = findById(id, user);
+        validateSchedule(dto);
         BackupJob job = mapper.toEntity(dto);
         job.setId(id);
         job.setUser(user);
-        return repository.save(job);
+        if (dto.streamingEnabled() == null) {
+            job.setStreamingEnabled(current.isStreamingEnabled());
+        }
+        if (dto.compressionCodec() == null) {
+            job.setCompressionCodec(current.getCompressionCodec());
+        }
+        if (dto.parallelDumpJobs() == null) {
+            job.setParallelDumpJobs(current.getParallelDumpJobs());
+        }
+        clearDisabledParallelDump(job);
+        BackupJob saved = repository.save(job);
+        publishChange(id, user);
+        return saved;
     }
 
     public BackupJob findById(UUID id, User user) {
@@ -48,6 +76,18 @@ public class BackupJobService {
                 .orElseThrow(() -> new GlobalBackupException("Job de backup não encontrado: " + id, HttpStatus.NOT_FOUND));
     }
 
+    /**
+     * Carrega junto tudo o que a execução acessa (fonte, destinos e config de e-mail), que roda fora de transação.
+     */
+    public BackupJob findForExecution(UUID id) {
+        return repository.findWithDetailsById(id)
+                .orElseThrow(() -> new GlobalBackupException("Job de backup não encontrado: " + id, HttpStatus.NOT_FOUND));
+    }
+
+    public Optional<BackupJob> findOptionalById(UUID id) {
+        return repository.findById(id);
+    }
+
     public List<BackupJob> findAll(User user) {
         return repository.findByUser(user);
     }
@@ -70,5 +110,24 @@ public class BackupJobService {
             throw new GlobalBackupException("Job de backup não encontrado: " + id, HttpStatus.NOT_FOUND);
         }
         repository.deleteByIdAndUser(id, user);
+        publishChange(id, user);
+    }
+
+    private void publishChange(UUID jobId, User user) {
+        // Avisa os outros nós (pela versão do sinal) e este nó (pelo evento, já com o job gravado).
+        if (signalRepository.increment(SCHEDULE_SIGNAL) == 0) {
+            signalRepository.save(new ClusterSignal(SCHEDULE_SIGNAL, 1));
+        }
+        eventPublisher.publishEvent(new BackupJobChangedEvent(jobId, user.getId()));
+    }
+
+    private static void clearDisabledParallelDump(BackupJob job) {
+        if (job.getParallelDumpJobs() != null && job.getParallelDumpJobs() == 0) {
+            job.setParallelDumpJobs(null);
+        }
+    }
+
+    private void validateSchedule(BackupJobDTO dto) {
+        JobSchedule.expressionFor(dto.scheduleType(), dto.backupTime(), dto.dayOfWeek(), dto.cronExpression());
     }
 }
\ No newline at end of file
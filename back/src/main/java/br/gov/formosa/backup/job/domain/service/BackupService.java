@@ -2,102 +2,360 @@ package br.gov.formosa.backup.job.domain.service;
 
 import br.gov.formosa.backup.shared.exception.GlobalBackupException;
 import br.gov.formosa.backup.config.domain.model.BackupDestination;
+import br.gov.formosa.backup.dashboard.domain.service.DashboardRollupService;
+import br.gov.formosa.backup.job.api.dto.BackupHistoryItemDTO;
+import br.gov.formosa.backup.job.api.dto.BackupHistoryPageDTO;
 import br.gov.formosa.backup.job.domain.model.BackupJob;
 import br.gov.formosa.backup.job.domain.model.BackupRecord;
+import br.gov.formosa.backup.job.domain.model.DestinationCheckpoint;
+import br.gov.formosa.backup.job.domain.model.RunCheckpoint;
 import br.gov.formosa.backup.config.domain.model.BackupSource;
 import br.gov.formosa.backup.user.domain.model.User;
 import br.gov.formosa.backup.shared.enums.BackupStatus;
 import br.gov.formosa.backup.job.infra.repository.BackupRecordRepository;
 import br.gov.formosa.backup.config.domain.service.BackupDestinationService;
 import br.gov.formosa.backup.shared.infra.service.NotificationService;
+import br.gov.formosa.backup.shared.enums.CompressionCodec;
+import br.gov.formosa.backup.shared.enums.DatabaseType;
+import br.gov.formosa.backup.shared.enums.DumpFormat;
+import br.gov.formosa.backup.shared.enums.UploadState;
+import br.gov.formosa.backup.shared.infra.service.ArchiveService;
+import br.gov.formosa.backup.shared.infra.service.CompressionService;
+import br.gov.formosa.backup.shared.infra.service.FanOutUploadService;
+import br.gov.formosa.backup.shared.infra.service.FanOutUploadService.DestinationResult;
+import br.gov.formosa.backup.shared.infra.service.FanOutUploadService.FanOutUpload;
+import br.gov.formosa.backup.shared.infra.service.JobLogStreamService;
+import br.gov.formosa.backup.shared.infra.service.JobLogStreamService.LogChannel;
 import br.gov.formosa.backup.shared.infra.service.StorageManagerService;
+import br.gov.formosa.backup.shared.infra.storage.UploadProgress;
 import br.gov.formosa.backup.user.domain.service.UserService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.InputStreamReader;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
 public class BackupService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final BackupJobService jobService;
     private final BackupRecordRepository recordRepository;
     private final StorageManagerService storageManager;
+    private final FanOutUploadService fanOutUploadService;
+    private final CompressionService compressionService;
+    private final ArchiveService archiveService;
     private final BackupDestinationService destinationService;
     private final NotificationService notificationService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final JobLogStreamService logStreamService;
     private final UserService userService;
+    private final RunCheckpointService checkpointService;
+    private final DashboardRollupService rollupService;
     private final String TEMP_DIR = System.getProperty("java.io.tmpdir");
 
-    @Transactional
-    public void executeJob(UUID jobId, User user) {
-        BackupJob job = jobService.findById(jobId, user);
-        executeJobInternal(job);
-    }
-
-    @Transactional
-    public void executeJob(UUID jobId) {
-        BackupJob job = jobService.findById(jobId);
-        executeJobInternal(job);
+    /**
+     * Sem transação: o dump e os uploads podem levar horas. Cada registro é gravado na sua própria transação
+     * curta (save do repositório) assim que o destino termina, e início/fim do run ficam com o JobExecutionEngine.
+     */
+    public void executeJob(UUID jobId, UUID runId) {
+        BackupJob job = jobService.findForExecution(jobId);
+        executeJobInternal(job, runId);
     }
 
-    private void executeJobInternal(BackupJob job) {
+    /**
+     * Dumps em spool e em diretório gravam pontos de retomada ({@link RunCheckpointService}): uma nova tentativa
+     * do run reaproveita o dump e envia só os destinos pendentes. O modo streaming não tem o que retomar e refaz o dump.
+     */
+    private void executeJobInternal(BackupJob job, UUID runId) {
         if (job.getDestinations() == null || job.getDestinations().isEmpty()) {
             throw new GlobalBackupException("O Job " + job.getName() + " não possui destinos configurados.", HttpStatus.BAD_REQUEST);
         }
 
+        Optional<RunCheckpoint> resumable = checkpointService.findResumable(runId);
+        if (resumable.isEmpty()) {
+            checkpointService.clear(runId, "Tentativa interrompida; o backup foi refeito por uma nova tentativa.");
+        }
+
+        try (LogChannel log = logStreamService.open(job.getId(), runId)) {
+            if (resumable.isPresent()) {
+                log.append("Retomando execução a partir do dump já concluído: " + resumable.get().getFilename());
+                uploadCheckpointedDump(job, resumable.get(), log);
+            } else if (isParallelPostgresDump(job)) {
+                executeDirectoryDumpJob(job, log);
+            } else if (job.isStreamingEnabled()) {
+                executeStreamingJob(job, log);
+            } else {
+                executeSpooledJob(job, log);
+            }
+        }
+    }
+
+    private void executeSpooledJob(BackupJob job, LogChannel log) {
         BackupSource source = job.getSource();
-        File dumpFile = null;
+        CompressionCodec codec = job.getCompressionCodec();
+        RunCheckpoint checkpoint;
 
         try {
-            dumpFile = executeDatabaseDump(source, job.getId());
+            SpooledDump dump = executeDatabaseDump(source, codec, checkpointService.spoolDirFor(log.getRunId()), log);
+            String filename = dump.file().getName();
+            checkpoint = checkpointService.dumpCompleted(log.getRunId(), dump.file().toPath(), DumpFormat.PLAIN,
+                    dump.rawSizeBytes(), dump.checksum(), filename, storageManager.remotePathFor(source, filename));
+        } catch (Exception e) {
+            throw failDump(job, log.getRunId(), e);
+        }
 
-            for (BackupDestination destination : job.getDestinations()) {
-                BackupRecord record = createRecord(job, destination, dumpFile);
-                try {
-                    String remotePath = storageManager.uploadFile(dumpFile, destination, source);
+        uploadCheckpointedDump(job, checkpoint, log);
+    }
 
-                    record.setRemotePath(remotePath);
-                    record.setLogSummary("Backup finalizado com sucesso. Caminho: " + remotePath);
-                    record.setStatus(BackupStatus.SUCCESS);
+    /**
+     * Envia o dump do checkpoint aos destinos que ainda não o receberam. Se o run for interrompido no meio
+     * (desligamento do nó), spool, registros e uploads multipart abertos ficam para a próxima tentativa.
+     */
+    private void uploadCheckpointedDump(BackupJob job, RunCheckpoint checkpoint, LogChannel log) {
+        UUID runId = log.getRunId();
+        List<BackupDestination> destinations = List.copyOf(job.getDestinations());
+        List<DestinationCheckpoint> states = checkpointService.destinations(runId, destinations, destination -> {
+            BackupRecord record = createRecord(job, runId, destination, null);
+            record.setFilename(checkpoint.getFilename());
+            record.setCompressionCodec(job.getCompressionCodec());
+            record.setDumpFormat(checkpoint.getDumpFormat());
+            return recordRepository.save(record);
+        });
+
+        List<BackupDestination> pending = new ArrayList<>();
+        List<DestinationCheckpoint> pendingStates = new ArrayList<>();
+        for (int i = 0; i < destinations.size(); i++) {
+            if (states.get(i).getState() == UploadState.UPLOADED) {
+                log.append("Destino " + destinations.get(i).getName() + " já recebeu o backup em uma tentativa anterior.");
+                continue;
+            }
+            pending.add(destinations.get(i));
+            pendingStates.add(states.get(i));
+        }
 
-                } catch (Exception e) {
-                    record.setLogSummary("FALHA CRÍTICA NO UPLOAD: " + e.getMessage());
-                    record.setStatus(BackupStatus.FAILED);
-                }
-                recordRepository.save(record);
-                notificationService.sendBackupNotification(job, record);
+        List<DestinationResult> results;
+        long sizeBytes = checkpoint.getSpoolSizeBytes();
+        long rawSizeBytes = checkpoint.getRawSizeBytes();
+        if (pending.isEmpty()) {
+            results = List.of();
+        } else if (checkpoint.getDumpFormat() == DumpFormat.DIRECTORY_TAR) {
+            // O tar comprimido não fica em disco: é gerado de novo a cada tentativa e enviado em stream.
+            FanOutUpload fanOut = fanOutUploadService.open(pending, checkpoint.getRemotePath());
+            try {
+                OutputStream compressed = compressionService.compress(fanOut.sink(), job.getCompressionCodec());
+                rawSizeBytes = archiveService.writeDirectoryAsTar(Path.of(checkpoint.getSpoolPath()), compressed);
+                compressed.close();
+                fanOut.complete();
+            } catch (Exception e) {
+                // Qualquer falha (inclusive do pool de compressão) libera as threads de upload presas no pipe.
+                fanOut.abort(e);
+            }
+            results = fanOut.awaitResults();
+            sizeBytes = fanOut.getBytesTransferred();
+        } else {
+            Map<BackupDestination, UploadProgress> progress = new HashMap<>();
+            for (int i = 0; i < pending.size(); i++) {
+                progress.put(pending.get(i), checkpointService.progressFor(pendingStates.get(i)));
+            }
+            results = fanOutUploadService.uploadSpooledFile(new File(checkpoint.getSpoolPath()), pending,
+                    checkpoint.getRemotePath(), progress::get);
+        }
+
+        if (Thread.currentThread().isInterrupted() || results.stream().anyMatch(BackupService::isInterruption)) {
+            throw new GlobalBackupException("Execução interrompida durante o upload; será retomada na próxima tentativa.", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        List<BackupRecord> records = new ArrayList<>();
+        for (int i = 0; i < pending.size(); i++) {
+            DestinationCheckpoint state = pendingStates.get(i);
+            if (results.get(i).isSuccess()) {
+                checkpointService.markUploaded(state, results.get(i).remotePath());
+            } else {
+                checkpointService.markFailed(state);
             }
+            records.add(recordRepository.findById(state.getRecordId()).orElseThrow());
+        }
+        finishDestinationRecords(job, records, results, sizeBytes, rawSizeBytes, null);
+        checkpointService.clear(runId, "Execução encerrada sem concluir o upload.");
+    }
+
+    private static boolean isInterruption(DestinationResult result) {
+        return result.error() instanceof InterruptedException || result.error() instanceof InterruptedIOException;
+    }
+
+    private void executeStreamingJob(BackupJob job, LogChannel log) {
+        BackupSource source = job.getSource();
+        CompressionCodec codec = job.getCompressionCodec();
+        String filename = buildDumpFilename(source, codec);
 
+        Process process;
+        try {
+            process = startDumpProcess(source, log, null);
         } catch (Exception e) {
-            BackupRecord failRecord = createRecord(job, null, null);
-            failRecord.setLogSummary("FALHA CRÍTICA NO DUMP: " + e.getMessage());
-            failRecord.setStatus(BackupStatus.FAILED);
-            recordRepository.save(failRecord);
-            notificationService.sendBackupNotification(job, failRecord);
+            throw failDump(job, log.getRunId(), e);
+        }
 
-            throw new GlobalBackupException("Falha ao executar dump para o Job: " + job.getName(), HttpStatus.INTERNAL_SERVER_ERROR, e);
+        List<BackupRecord> records = createDestinationRecords(job, log.getRunId(), filename, codec);
+        FanOutUpload fanOut = fanOutUploadService.open(filename, job.getDestinations(), source);
+
+        Exception dumpFailure = null;
+        long rawBytes = 0;
+        try (InputStream dumpOutput = process.getInputStream()) {
+            OutputStream compressed = compressionService.compress(fanOut.sink(), codec);
+            rawBytes = dumpOutput.transferTo(compressed);
+            compressed.close();
+
+            int exitCode = process.waitFor();
+            log.append("PROCESSO FINALIZADO (Código de Saída: " + exitCode + ")");
+            if (exitCode != 0) {
+                dumpFailure = new GlobalBackupException("Dump falhou. Código de saída: " + exitCode + ". Verifique o log para detalhes.", HttpStatus.INTERNAL_SERVER_ERROR);
+            } else if (rawBytes == 0) {
+                dumpFailure = new GlobalBackupException("Dump executado, mas a saída está vazia.", HttpStatus.INTERNAL_SERVER_ERROR);
+            } else {
+                fanOut.complete();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+            dumpFailure = e;
+        } catch (Exception e) {
+            process.destroyForcibly();
+            dumpFailure = e;
+        }
 
-        } finally {
-            if (dumpFile != null && dumpFile.exists()) {
-                dumpFile.delete();
+        if (dumpFailure != null) {
+            fanOut.abort(dumpFailure);
+        }
+        finishDestinationRecords(job, records, fanOut.awaitResults(), fanOut.getBytesTransferred(), rawBytes, dumpFailure);
+
+        if (dumpFailure != null) {
+            throw new GlobalBackupException("Falha ao executar dump para o Job: " + job.getName(), HttpStatus.INTERNAL_SERVER_ERROR, dumpFailure);
+        }
+        log.append("Dump em stream concluído com sucesso. Arquivo: " + filename);
+    }
+
+    private boolean isParallelPostgresDump(BackupJob job) {
+        return job.getSource().getDatabaseType() == DatabaseType.POSTGRES
+                && job.getParallelDumpJobs() != null && job.getParallelDumpJobs() > 0;
+    }
+
+    // O diretório do pg_dump -Fd fica no spool do run; a retomada refaz só o tar e o envio.
+    private void executeDirectoryDumpJob(BackupJob job, LogChannel log) {
+        BackupSource source = job.getSource();
+        String filename = buildDumpFilename(source, ".tar", job.getCompressionCodec());
+        RunCheckpoint checkpoint;
+
+        try {
+            Path stagingDir = checkpointService.spoolDirFor(log.getRunId());
+            Path dumpDir = stagingDir.resolve("dump");
+            archiveService.deleteRecursively(dumpDir);
+            runDirectoryDump(source, job, dumpDir, stagingDir, log);
+            checkpoint = checkpointService.dumpCompleted(log.getRunId(), dumpDir, DumpFormat.DIRECTORY_TAR, 0, null,
+                    filename, storageManager.remotePathFor(source, filename));
+        } catch (Exception e) {
+            throw failDump(job, log.getRunId(), e);
+        }
+
+        uploadCheckpointedDump(job, checkpoint, log);
+        log.append("Dump paralelo concluído e enviado. Arquivo: " + filename);
+    }
+
+    private void runDirectoryDump(BackupSource source, BackupJob job, Path dumpDir, Path stagingDir, LogChannel log) throws Exception {
+        List<String> directoryArgs = new ArrayList<>(Arrays.asList(
+                "-Fd",
+                "-j", String.valueOf(job.getParallelDumpJobs()),
+                "-f", dumpDir.toString()
+        ));
+        if (job.getCompressionCodec() != null && job.getCompressionCodec() != CompressionCodec.NONE) {
+            // A compressão fica a cargo do estágio paralelo da aplicação; evita comprimir duas vezes.
+            directoryArgs.addAll(Arrays.asList("-Z", "0"));
+        }
+
+        Process process = startDumpProcess(source, log, stagingDir.resolve("pg_dump.out").toFile(), directoryArgs);
+
+        int exitCode = process.waitFor();
+        log.append("PROCESSO FINALIZADO (Código de Saída: " + exitCode + ")");
+
+        if (exitCode != 0) {
+            throw new GlobalBackupException(
+                    "Dump falhou. Código de saída: " + exitCode + ". Verifique o log para detalhes.",
+                    HttpStatus.INTERNAL_SERVER_ERROR
+            );
+        }
+        if (!Files.isDirectory(dumpDir)) {
+            throw new GlobalBackupException("Dump executado, mas o diretório de saída não foi gerado.", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private GlobalBackupException failDump(BackupJob job, UUID runId, Exception e) {
+        BackupRecord failRecord = createRecord(job, runId, null, null);
+        failRecord.setLogSummary(summarize("FALHA CRÍTICA NO DUMP: " + e.getMessage()));
+        failRecord.setStatus(BackupStatus.FAILED);
+        recordRepository.save(failRecord);
+        rollupService.recordsFinished(List.of(failRecord.getId()));
+        notificationService.sendBackupNotification(job, failRecord);
+
+        return new GlobalBackupException("Falha ao executar dump para o Job: " + job.getName(), HttpStatus.INTERNAL_SERVER_ERROR, e);
+    }
+
+    private List<BackupRecord> createDestinationRecords(BackupJob job, UUID runId, String filename, CompressionCodec codec) {
+        List<BackupRecord> records = new ArrayList<>();
+        for (BackupDestination destination : job.getDestinations()) {
+            BackupRecord record = createRecord(job, runId, destination, null);
+            record.setFilename(filename);
+            record.setCompressionCodec(codec);
+            record.setDumpFormat(DumpFormat.PLAIN);
+            records.add(record);
+        }
+        return records;
+    }
+
+    private void finishDestinationRecords(BackupJob job, List<BackupRecord> records, List<DestinationResult> results,
+                                          long sizeBytes, long rawSizeBytes, Exception dumpFailure) {
+        for (int i = 0; i < records.size(); i++) {
+            BackupRecord record = records.get(i);
+            DestinationResult result = results.get(i);
+
+            if (result.isSuccess()) {
+                record.setRemotePath(result.remotePath());
+                record.setSizeBytes(sizeBytes);
+                record.setRawSizeBytes(rawSizeBytes);
+                record.setLogSummary(summarize("Backup finalizado com sucesso. Caminho: " + result.remotePath()));
+                record.setStatus(BackupStatus.SUCCESS);
+            } else if (dumpFailure != null) {
+                record.setLogSummary(summarize("FALHA CRÍTICA NO DUMP: " + dumpFailure.getMessage()));
+                record.setStatus(BackupStatus.FAILED);
+            } else {
+                record.setLogSummary(summarize("FALHA CRÍTICA NO UPLOAD: " + result.error().getMessage()));
+                record.setStatus(BackupStatus.FAILED);
             }
+            recordRepository.save(record);
+            notificationService.sendBackupNotification(job, record);
         }
+        rollupService.recordsFinished(records.stream().map(BackupRecord::getId).toList());
+    }
+
+    // O log completo fica nos segmentos da execução (run_id); o registro guarda apenas o resumo.
+    private static String summarize(String summary) {
+        return summary.length() > BackupRecord.LOG_SUMMARY_MAX_LENGTH
+                ? summary.substring(0, BackupRecord.LOG_SUMMARY_MAX_LENGTH)
+                : summary;
     }
 
-    private BackupRecord createRecord(BackupJob job, BackupDestination destination, File file) {
+    private BackupRecord createRecord(BackupJob job, UUID runId, BackupDestination destination, File file) {
         BackupRecord record = BackupRecord.builder()
                 .job(job)
+                .runId(runId)
                 .timestamp(LocalDateTime.now())
                 .destinationId(destination != null ? destination.getId() : null)
                 .status(BackupStatus.IN_PROGRESS)
@@ -109,35 +367,25 @@ public class BackupService {
         return recordRepository.save(record);
     }
 
-    private File executeDatabaseDump(BackupSource source, UUID jobId) throws Exception {
-        String baseName = source.getName().replaceAll("[^a-zA-Z0-9.-]", "_");
-        String filename = baseName + "_" + LocalDateTime.now().toString().replaceAll(":", "-") + ".sql";
-        File outputFile = new File(TEMP_DIR, filename);
-
-        String topic = "/topic/logs/job/" + jobId;
-
-        List<String> command = new ArrayList<>();
-        Map<String, String> environment = new java.util.HashMap<>();
-
-        buildDumpCommand(source, command, environment);
-
-        ProcessBuilder pb = new ProcessBuilder(command);
-        pb.environment().putAll(environment);
-        pb.redirectOutput(outputFile);
-
-        messagingTemplate.convertAndSend(topic, "INICIANDO PROCESSO DE DUMP...");
-        messagingTemplate.convertAndSend(topic, "Comando: " + String.join(" ", command));
-
-        Process process = pb.start();
-
-        new Thread(() -> new BufferedReader(new InputStreamReader(process.getInputStream())).lines()
-                .forEach(line -> messagingTemplate.convertAndSend(topic, line))).start();
-
-        new Thread(() -> new BufferedReader(new InputStreamReader(process.getErrorStream())).lines()
-                .forEach(line -> messagingTemplate.convertAndSend(topic, "[ERRO] " + line))).start();
+    private SpooledDump executeDatabaseDump(BackupSource source, CompressionCodec codec, Path spoolDir, LogChannel log) throws Exception {
+        File outputFile = spoolDir.resolve(buildDumpFilename(source, codec)).toFile();
+        Process process = startDumpProcess(source, log, null);
+
+        // O SHA-256 do checkpoint é calculado enquanto o spool é gravado, sem reler o arquivo.
+        MessageDigest digest = RunCheckpointService.newSha256();
+        long rawSizeBytes;
+        try (InputStream dumpOutput = process.getInputStream();
+             OutputStream spool = compressionService.compress(
+                     new BufferedOutputStream(new DigestOutputStream(new FileOutputStream(outputFile), digest)), codec)) {
+            rawSizeBytes = dumpOutput.transferTo(spool);
+        } catch (IOException e) {
+            process.destroyForcibly();
+            outputFile.delete();
+            throw e;
+        }
 
         int exitCode = process.waitFor();
-        messagingTemplate.convertAndSend(topic, "PROCESSO FINALIZADO (Código de Saída: " + exitCode + ")");
+        log.append("PROCESSO FINALIZADO (Código de Saída: " + exitCode + ")");
 
         if (exitCode != 0) {
             outputFile.delete();
@@ -147,15 +395,53 @@ public class BackupService {
             );
         }
 
-        if (!outputFile.exists() || outputFile.length() == 0) {
+        if (!outputFile.exists() || rawSizeBytes == 0) {
+            outputFile.delete();
             throw new GlobalBackupException(
                     "Dump executado, mas o arquivo de saída está vazio.",
                     HttpStatus.INTERNAL_SERVER_ERROR
             );
         }
 
-        messagingTemplate.convertAndSend(topic, "Dump concluído com sucesso. Arquivo: " + outputFile.getName());
-        return outputFile;
+        log.append("Dump concluído com sucesso. Arquivo: " + outputFile.getName());
+        return new SpooledDump(outputFile, rawSizeBytes, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    private record SpooledDump(File file, long rawSizeBytes, String checksum) {}
+
+    private String buildDumpFilename(BackupSource source, CompressionCodec codec) {
+        return buildDumpFilename(source, ".sql", codec);
+    }
+
+    private String buildDumpFilename(BackupSource source, String formatExtension, CompressionCodec codec) {
+        String baseName = source.getName().replaceAll("[^a-zA-Z0-9.-]", "_");
+        String extension = codec != null ? codec.getExtension() : "";
+        return baseName + "_" + LocalDateTime.now().toString().replaceAll(":", "-") + formatExtension + extension;
+    }
+
+    private Process startDumpProcess(BackupSource source, LogChannel log, File outputFile) throws IOException {
+        return startDumpProcess(source, log, outputFile, List.of());
+    }
+
+    private Process startDumpProcess(BackupSource source, LogChannel log, File outputFile, List<String> extraArgs) throws IOException {
+        List<String> command = new ArrayList<>();
+        Map<String, String> environment = new java.util.HashMap<>();
+
+        buildDumpCommand(source, command, environment);
+        command.addAll(1, extraArgs);
+
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.environment().putAll(environment);
+        if (outputFile != null) {
+            pb.redirectOutput(outputFile);
+        }
+
+        log.append("INICIANDO PROCESSO DE DUMP...");
+        log.append("Comando: " + String.join(" ", command));
+
+        Process process = pb.start();
+        log.attach(process.getErrorStream(), "[ERRO] ");
+        return process;
     }
 
     private void buildDumpCommand(BackupSource source, List<String> command, Map<String, String> environment) {
@@ -270,11 +556,44 @@ public class BackupService {
         throw new UnsupportedOperationException("O Backup H2 deve ser feito via JDBC (BACKUP TO 'file.zip') e não via ProcessBuilder com comandos de shell.");
     }
 
-    public Page<BackupRecord> getHistory(User user, Pageable pageable) {
-        return recordRepository.findAllByUserOrderByTimestampDesc(user, pageable);
+    /**
+     * Histórico paginado por cursor: cada página continua depois do último (timestamp, id) da anterior, então o
+     * custo não cresce com a profundidade e não há contagem total. Lê uma linha a mais para saber se há próxima.
+     */
+    public BackupHistoryPageDTO getHistory(User user, BackupStatus status, UUID sourceId, UUID destinationId,
+                                           LocalDateTime from, LocalDateTime to, String cursor, int limit) {
+        int size = Math.min(Math.max(limit, 1), MAX_HISTORY_PAGE_SIZE);
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        List<BackupHistoryItemDTO> items = recordRepository.findHistory(user.getId(), status, sourceId, destinationId, from, to,
+                after != null ? after.timestamp() : null, after != null ? after.id() : null, size + 1);
+        if (items.size() <= size) {
+            return new BackupHistoryPageDTO(items, null);
+        }
+        List<BackupHistoryItemDTO> page = items.subList(0, size);
+        BackupHistoryItemDTO last = page.get(size - 1);
+        return new BackupHistoryPageDTO(List.copyOf(page), new HistoryCursor(last.timestamp(), last.id()).encode());
+    }
+
+    private record HistoryCursor(LocalDateTime timestamp, UUID id) {
+
+        String encode() {
+            String raw = timestamp + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static HistoryCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+                return new HistoryCursor(LocalDateTime.parse(parts[0]), UUID.fromString(parts[1]));
+            } catch (RuntimeException e) {
+                throw new GlobalBackupException("Cursor de histórico inválido.", HttpStatus.BAD_REQUEST);
+            }
+        }
     }
 
-    @Transactional
     public void restoreBackup(UUID recordId, User user) {
         BackupRecord record = recordRepository.findByIdAndUser(recordId, user)
                 .orElseThrow(() -> new GlobalBackupException("Registro de backup não encontrado ou não pertence a você.", HttpStatus.NOT_FOUND));
@@ -291,8 +610,17 @@ public class BackupService {
 
         File downloadedFile = null;
         try {
-            downloadedFile = storageManager.downloadFile(record, destination);
-            executeDatabaseRestore(source, downloadedFile);
+            if (storageManager.supportsStreamingDownload(destination)) {
+                // S3/GCS: faixas baixadas em paralelo alimentam a restauração direto, sem arquivo temporário.
+                try (InputStream backupStream = storageManager.openDownloadStream(record, destination)) {
+                    executeRestore(record, source, backupStream, null);
+                }
+            } else {
+                downloadedFile = storageManager.downloadFile(record, destination);
+                try (InputStream backupStream = new BufferedInputStream(new FileInputStream(downloadedFile))) {
+                    executeRestore(record, source, backupStream, downloadedFile);
+                }
+            }
         } catch (GlobalBackupException e) {
             throw e;
         } catch (Exception e) {
@@ -304,7 +632,16 @@ public class BackupService {
         }
     }
 
-    private void executeDatabaseRestore(BackupSource source, File dumpFile) throws Exception {
+    private void executeRestore(BackupRecord record, BackupSource source, InputStream backupStream, File backupFile) throws Exception {
+        if (record.getDumpFormat() == DumpFormat.DIRECTORY_TAR) {
+            executeDirectoryRestore(source, backupStream, record.getCompressionCodec(), record.getJob().getParallelDumpJobs());
+        } else {
+            executeDatabaseRestore(source, backupStream, backupFile, record.getCompressionCodec());
+        }
+    }
+
+    // Com arquivo local e sem compressão, a ferramenta lê o arquivo direto; nos demais casos o stream alimenta o stdin.
+    private void executeDatabaseRestore(BackupSource source, InputStream backupStream, File dumpFile, CompressionCodec codec) throws Exception {
         List<String> command = new ArrayList<>();
         Map<String, String> environment = new java.util.HashMap<>();
 
@@ -312,22 +649,77 @@ public class BackupService {
 
         command.add(0, restoreTool);
 
+        boolean compressed = codec != null && codec != CompressionCodec.NONE;
+        boolean redirectFile = dumpFile != null && !compressed;
+
         ProcessBuilder pb = new ProcessBuilder(command);
         pb.environment().putAll(environment);
-        pb.redirectInput(dumpFile);
+        pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        if (redirectFile) {
+            pb.redirectInput(dumpFile);
+        }
 
         Process process = pb.start();
+        CompletableFuture<String> errorLog = CompletableFuture.supplyAsync(() -> readProcessError(process));
+
+        if (!redirectFile) {
+            try (InputStream dumpStream = compressionService.decompress(backupStream, codec);
+                 OutputStream processInput = process.getOutputStream()) {
+                dumpStream.transferTo(processInput);
+            } catch (IOException e) {
+                process.destroyForcibly();
+                throw e;
+            }
+        }
+
         int exitCode = process.waitFor();
 
         if (exitCode != 0) {
-            String errorLog = readProcessError(process);
             throw new GlobalBackupException(
-                    "Restauração do banco de dados falhou. Log: " + errorLog,
+                    "Restauração do banco de dados falhou. Log: " + errorLog.join(),
                     HttpStatus.INTERNAL_SERVER_ERROR
             );
         }
     }
 
+    private void executeDirectoryRestore(BackupSource source, InputStream archiveStream, CompressionCodec codec, Integer parallelJobs) throws Exception {
+        if (source.getDatabaseType() != DatabaseType.POSTGRES) {
+            throw new GlobalBackupException("Backups em formato diretório só podem ser restaurados em fontes PostgreSQL.", HttpStatus.BAD_REQUEST);
+        }
+
+        Path stagingDir = Files.createTempDirectory(Path.of(TEMP_DIR), "pgrestore-");
+        try {
+            Path dumpDir = stagingDir.resolve("dump");
+            try (InputStream archive = compressionService.decompress(archiveStream, codec)) {
+                archiveService.extractTar(archive, dumpDir);
+            }
+
+            List<String> command = new ArrayList<>();
+            Map<String, String> environment = new java.util.HashMap<>();
+            command.add(source.getDbDumpToolPath().toLowerCase().replace("pg_dump", "pg_restore"));
+            command.addAll(Arrays.asList("-j", String.valueOf(parallelJobs != null && parallelJobs > 0 ? parallelJobs : 1)));
+            buildPostgresRestoreCommand(source, command, environment, source.getDbHost(), source.getDbPort());
+            command.add(dumpDir.toString());
+
+            ProcessBuilder pb = new ProcessBuilder(command);
+            pb.environment().putAll(environment);
+            pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+
+            Process process = pb.start();
+            CompletableFuture<String> errorLog = CompletableFuture.supplyAsync(() -> readProcessError(process));
+            int exitCode = process.waitFor();
+
+            if (exitCode != 0) {
+                throw new GlobalBackupException(
+                        "Restauração do banco de dados (pg_restore) falhou. Log: " + errorLog.join(),
+                        HttpStatus.INTERNAL_SERVER_ERROR
+                );
+            }
+        } finally {
+            archiveService.deleteRecursively(stagingDir);
+        }
+    }
+
     private String buildRestoreCommand(BackupSource source, List<String> command, Map<String, String> environment) {
         String host = source.getDbHost();
         Integer port = source.getDbPort();
@@ -0,0 +1,310 @@
+package br.gov.formosa.backup.job.domain.service;
+
+import br.gov.formosa.backup.job.domain.model.BackupJob;
+import br.gov.formosa.backup.job.domain.model.BackupRun;
+import br.gov.formosa.backup.job.infra.repository.BackupRunRepository;
+import br.gov.formosa.backup.shared.enums.RunStatus;
+import br.gov.formosa.backup.shared.enums.RunTrigger;
+import br.gov.formosa.backup.shared.exception.GlobalBackupException;
+import br.gov.formosa.backup.shared.infra.service.ErrorLogService;
+import br.gov.formosa.backup.shared.infra.service.NodeIdentity;
+import br.gov.formosa.backup.user.domain.model.User;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class JobExecutionEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(JobExecutionEngine.class);
+    private static final List<RunStatus> ACTIVE_STATUSES = List.of(RunStatus.QUEUED, RunStatus.RUNNING);
+    // Runs recusados pela admissão não ocupam capacidade; a varredura olha além deles.
+    private static final int MIN_CLAIM_SCAN = 32;
+
+    private final BackupRunRepository runRepository;
+    private final BackupService backupService;
+    private final ErrorLogService errorLogService;
+    private final AdmissionController admission;
+    private final RunCheckpointService checkpointService;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+    private final boolean worker;
+    private final boolean anyZone;
+    private final Set<String> zones;
+    private final int maxConcurrentRuns;
+    private final long leaseDurationMs;
+    private final int maxAttempts;
+    private final long leaseRenewIntervalMs;
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService timer;
+
+    // Runs executando neste nó e a tentativa de cada um; o lease só é renovado para eles.
+    private final Map<UUID, Integer> ownedRuns = new ConcurrentHashMap<>();
+    private int runningTotal;
+    // Durante o desligamento os runs interrompidos não são encerrados: ficam para a próxima tentativa retomar.
+    private volatile boolean stopping;
+
+    public JobExecutionEngine(BackupRunRepository runRepository,
+                              BackupService backupService,
+                              ErrorLogService errorLogService,
+                              AdmissionController admission,
+                              RunCheckpointService checkpointService,
+                              NodeIdentity nodeIdentity,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.execution.max-concurrent-runs:4}") int maxConcurrentRuns,
+                              @Value("${app.execution.lease-duration-ms:60000}") long leaseDurationMs,
+                              @Value("${app.execution.max-attempts:3}") int maxAttempts,
+                              @Value("${app.execution.lease-renew-interval-ms:15000}") long leaseRenewIntervalMs) {
+        this.runRepository = runRepository;
+        this.backupService = backupService;
+        this.errorLogService = errorLogService;
+        this.admission = admission;
+        this.checkpointService = checkpointService;
+        this.nodeId = nodeIdentity.getNodeId();
+        this.worker = nodeIdentity.isWorker();
+        this.anyZone = nodeIdentity.servesAnyZone();
+        // IN () vazio não é aceito por todos os bancos; "" nunca é zona (BackupSource normaliza para nulo).
+        this.zones = nodeIdentity.getZones().isEmpty() ? Set.of("") : nodeIdentity.getZones();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxConcurrentRuns = Math.max(1, maxConcurrentRuns);
+        this.leaseDurationMs = Math.max(1000, leaseDurationMs);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.leaseRenewIntervalMs = Math.max(100, Math.min(leaseRenewIntervalMs, this.leaseDurationMs / 2));
+        this.workers = new ThreadPoolExecutor(this.maxConcurrentRuns, this.maxConcurrentRuns, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("backup-run-"));
+        // Thread própria para renovar leases e acordar a fila no fim do jitter: não pode esperar por tarefas
+        // longas no agendador compartilhado do Spring.
+        CustomizableThreadFactory timerFactory = new CustomizableThreadFactory("run-timer-");
+        timerFactory.setDaemon(true);
+        this.timer = Executors.newSingleThreadScheduledExecutor(timerFactory);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        timer.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Runs RUNNING de um nó que parou são retomados quando o lease vencer. Com app.node.id fixo, os que este
+     * mesmo nó deixou antes de reiniciar são liberados na hora, já que nenhuma thread daqui os executa mais.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!worker) {
+            log.info("Nó {} é apenas coordenador; os runs da fila são executados pelos workers.", nodeId);
+            return;
+        }
+        Integer orphaned = transactionTemplate.execute(status -> runRepository.expireLeasesOf(nodeId));
+        if (orphaned != null && orphaned > 0) {
+            log.info("{} execução(ões) interrompidas no último desligamento deste nó serão retomadas.", orphaned);
+        }
+        log.info("Motor de execução iniciado no nó {} (zonas: {}).", nodeId, anyZone ? "todas" : zones);
+        timer.scheduleWithFixedDelay(this::renewLeases, leaseRenewIntervalMs, leaseRenewIntervalMs, TimeUnit.MILLISECONDS);
+        dispatch();
+    }
+
+    public BackupRun enqueue(BackupJob job, RunTrigger trigger) {
+        return enqueue(job, trigger, null);
+    }
+
+    /**
+     * Com {@code scheduledFor}, a restrição única (job, horário) garante um só run mesmo que vários nós
+     * disparem o mesmo horário; o nó que perde a corrida recebe o run já existente.
+     */
+    public BackupRun enqueue(BackupJob job, RunTrigger trigger, LocalDateTime scheduledFor) {
+        LocalDateTime queuedAt = LocalDateTime.now();
+        LocalDateTime notBefore = admission.notBeforeFor(trigger, queuedAt);
+        BackupRun run;
+        try {
+            run = transactionTemplate.execute(status -> runRepository.findFirstByJobAndStatusIn(job, ACTIVE_STATUSES)
+                    .or(() -> scheduledFor != null ? runRepository.findByJobAndScheduledFor(job, scheduledFor) : Optional.empty())
+                    .orElseGet(() -> runRepository.saveAndFlush(BackupRun.builder()
+                            .job(job)
+                            .status(RunStatus.QUEUED)
+                            .trigger(trigger)
+                            .queuedAt(queuedAt)
+                            .scheduledFor(scheduledFor)
+                            .notBefore(notBefore)
+                            .build())));
+        } catch (DataIntegrityViolationException e) {
+            // Outro nó gravou o mesmo horário entre a consulta e o INSERT; o run dele vale, mesmo que já tenha terminado.
+            run = transactionTemplate.execute(status -> (scheduledFor != null
+                    ? runRepository.findByJobAndScheduledFor(job, scheduledFor)
+                    : Optional.<BackupRun>empty())
+                    .or(() -> runRepository.findFirstByJobAndStatusIn(job, ACTIVE_STATUSES))
+                    .orElse(null));
+            if (run == null) {
+                throw new GlobalBackupException("Outra execução do job " + job.getName() + " foi criada ao mesmo tempo; tente novamente.",
+                        HttpStatus.CONFLICT, e);
+            }
+        }
+        if (notBefore != null && worker) {
+            long delayMs = Math.max(0, Duration.between(LocalDateTime.now(), notBefore).toMillis());
+            timer.schedule(this::dispatch, delayMs, TimeUnit.MILLISECONDS);
+        }
+        dispatch();
+        return run;
+    }
+
+    public BackupRun findRun(UUID runId, User user) {
+        return runRepository.findByIdAndUser(runId, user)
+                .orElseThrow(() -> new GlobalBackupException("Execução não encontrada: " + runId, HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Reivindica runs na fila (ou abandonados por outro nó) até a capacidade livre deste nó,
+     * na ordem de prioridade e respeitando o {@link AdmissionController}.
+     */
+    @Scheduled(fixedDelayString = "${app.execution.dispatch-interval-ms:10000}")
+    public synchronized void dispatch() {
+        if (!worker) {
+            return;
+        }
+        int capacity = maxConcurrentRuns - runningTotal;
+        if (capacity <= 0) {
+            return;
+        }
+
+        List<UUID> abandoned = new ArrayList<>();
+        List<ClaimedRun> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            AdmissionController.Round round = admission.openRound(runRepository.findLiveRuns(now));
+
+            List<ClaimedRun> started = new ArrayList<>();
+            PageRequest scan = PageRequest.of(0, Math.max(capacity * 4, MIN_CLAIM_SCAN));
+            for (BackupRun run : runRepository.findClaimable(now, anyZone, zones, scan)) {
+                if (started.size() >= capacity) {
+                    break;
+                }
+                boolean takeover = run.getStatus() == RunStatus.RUNNING;
+                if (takeover && run.getAttempts() >= maxAttempts) {
+                    run.setStatus(RunStatus.FAILED);
+                    run.setFinishedAt(now);
+                    run.setErrorMessage("Execução abandonada pelo nó " + run.getOwnerNode() + " após " + run.getAttempts() + " tentativa(s).");
+                    abandoned.add(run.getId());
+                    continue;
+                }
+                // Um run abandonado ainda aparece como vivo até vencer; aqui ele já venceu e não conta.
+                long spoolBytes = round.admit(run);
+                if (spoolBytes < 0) {
+                    continue;
+                }
+                if (takeover) {
+                    log.warn("Assumindo execução {} abandonada pelo nó {}.", run.getId(), run.getOwnerNode());
+                }
+                run.setStatus(RunStatus.RUNNING);
+                run.setStartedAt(now);
+                run.setOwnerNode(nodeId);
+                run.setLeaseExpiresAt(now.plus(Duration.ofMillis(leaseDurationMs)));
+                run.setAttempts(run.getAttempts() + 1);
+                started.add(new ClaimedRun(run.getId(), run.getJob().getId(), run.getAttempts(), spoolBytes));
+            }
+            return started;
+        });
+
+        // Fora da transação da reivindicação, para que o rollup do dashboard veja os registros já como falha.
+        abandoned.forEach(runId -> checkpointService.failInProgress(runId, "Execução abandonada após " + maxAttempts + " tentativa(s)."));
+
+        for (ClaimedRun run : claimed) {
+            ownedRuns.put(run.runId(), run.attempt());
+            admission.reserveSpool(run.runId(), run.spoolBytes());
+            runningTotal++;
+            workers.execute(() -> execute(run));
+        }
+    }
+
+    private void renewLeases() {
+        if (ownedRuns.isEmpty()) {
+            return;
+        }
+        Set<UUID> runIds = Set.copyOf(ownedRuns.keySet());
+        try {
+            Integer renewed = transactionTemplate.execute(status -> runRepository.renewLeases(runIds, nodeId,
+                    LocalDateTime.now().plus(Duration.ofMillis(leaseDurationMs))));
+            if (renewed != null && renewed < runIds.size()) {
+                log.warn("{} execução(ões) deste nó tiveram o lease assumido por outro nó.", runIds.size() - renewed);
+            }
+        } catch (Exception e) {
+            log.error("Falha ao renovar leases das execuções: {}", e.getMessage(), e);
+        }
+    }
+
+    private void execute(ClaimedRun claimed) {
+        RunStatus finalStatus = RunStatus.SUCCESS;
+        String errorMessage = null;
+        try {
+            backupService.executeJob(claimed.jobId(), claimed.runId());
+        } catch (Exception e) {
+            finalStatus = RunStatus.FAILED;
+            errorMessage = e.getMessage();
+            errorLogService.logScheduledError("Execução " + claimed.runId() + " do Job " + claimed.jobId(), e);
+        } finally {
+            if (stopping) {
+                log.info("Execução {} interrompida pelo desligamento do nó; será retomada.", claimed.runId());
+                release(claimed.runId());
+            } else {
+                finishRun(claimed, finalStatus, errorMessage);
+                release(claimed.runId());
+                dispatch();
+            }
+        }
+    }
+
+    // Só grava o resultado se o run ainda pertence a esta tentativa; se outro nó assumiu, o resultado é dele.
+    private void finishRun(ClaimedRun claimed, RunStatus status, String errorMessage) {
+        try {
+            Boolean finished = transactionTemplate.execute(tx -> runRepository.findById(claimed.runId())
+                    .filter(run -> nodeId.equals(run.getOwnerNode()) && run.getAttempts() == claimed.attempt())
+                    .map(run -> {
+                        run.setStatus(status);
+                        run.setFinishedAt(LocalDateTime.now());
+                        run.setLeaseExpiresAt(null);
+                        if (errorMessage != null) {
+                            run.setErrorMessage(errorMessage.length() > 1000 ? errorMessage.substring(0, 1000) : errorMessage);
+                        }
+                        return true;
+                    })
+                    .orElse(false));
+            if (Boolean.TRUE.equals(finished)) {
+                checkpointService.clear(claimed.runId(), "Execução encerrada sem concluir o upload.");
+            } else {
+                log.warn("Execução {} foi assumida por outro nó; resultado local descartado.", claimed.runId());
+            }
+        } catch (Exception e) {
+            log.error("Falha ao registrar término da execução {}: {}", claimed.runId(), e.getMessage(), e);
+        }
+    }
+
+    private synchronized void release(UUID runId) {
+        ownedRuns.remove(runId);
+        admission.releaseSpool(runId);
+        runningTotal--;
+    }
+
+    private record ClaimedRun(UUID runId, UUID jobId, int attempt, long spoolBytes) {}
+}
@@ -0,0 +1,108 @@
+package br.gov.formosa.backup.job.domain.service;
+
+import br.gov.formosa.backup.job.domain.model.JobLogSegment;
+import br.gov.formosa.backup.job.infra.repository.JobLogSegmentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+@RequiredArgsConstructor
+public class JobLogStore {
+
+    private final JobLogSegmentRepository segmentRepository;
+
+    public void appendSegment(UUID runId, int seq, long firstLine, List<String> lines) {
+        byte[] raw = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+        segmentRepository.save(JobLogSegment.builder()
+                .runId(runId)
+                .seq(seq)
+                .firstLine(firstLine)
+                .endLine(firstLine + lines.size())
+                .rawBytes(raw.length)
+                .data(gzip(raw))
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Próximo seq e próximo offset livres da execução; diferentes de zero quando outra tentativa já gravou log.
+     */
+    public LogPosition nextPosition(UUID runId) {
+        return segmentRepository.findFirstByRunIdOrderBySeqDesc(runId)
+                .map(last -> new LogPosition(last.getSeq() + 1, last.getEndLine()))
+                .orElse(new LogPosition(0, 0));
+    }
+
+    /**
+     * Lê até {@code limit} linhas a partir de {@code offset}. Se um segmento não chegou a ser gravado,
+     * a leitura pula a lacuna e o início real fica em {@link LogSlice#start()}.
+     */
+    public LogSlice read(UUID runId, long offset, int limit) {
+        List<String> result = new ArrayList<>();
+        long start = offset;
+        long position = offset;
+
+        while (result.size() < limit) {
+            List<JobLogSegment> segments = segmentRepository.findTop20ByRunIdAndEndLineGreaterThanOrderByFirstLineAsc(runId, position);
+            if (segments.isEmpty()) {
+                break;
+            }
+            for (JobLogSegment segment : segments) {
+                if (segment.getFirstLine() > position) {
+                    if (!result.isEmpty()) {
+                        return new LogSlice(start, result);
+                    }
+                    start = position = segment.getFirstLine();
+                }
+                String[] lines = new String(gunzip(segment.getData()), StandardCharsets.UTF_8).split("\n", -1);
+                for (int i = (int) (position - segment.getFirstLine()); i < lines.length && result.size() < limit; i++) {
+                    result.add(lines[i]);
+                    position++;
+                }
+                if (result.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return new LogSlice(start, result);
+    }
+
+    public record LogPosition(int seq, long offset) {}
+
+    public record LogSlice(long start, List<String> lines) {
+
+        public long end() {
+            return start + lines.size();
+        }
+    }
+
+    private byte[] gzip(byte[] raw) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private byte[] gunzip(byte[] data) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return gzip.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package br.gov.formosa.backup.job.domain.service;
+
+import br.gov.formosa.backup.shared.enums.ScheduleType;
+import br.gov.formosa.backup.shared.exception.GlobalBackupException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Optional;
+
+/**
+ * Traduz o agendamento de um job para uma {@link CronExpression}: DAILY e WEEKLY viram expressões fixas
+ * a partir do horário (e do dia, no semanal); CRON usa a expressão informada.
+ */
+public final class JobSchedule {
+
+    private JobSchedule() {
+    }
+
+    public static Optional<CronExpression> expressionFor(ScheduleType type, LocalTime time, DayOfWeek dayOfWeek, String cron) {
+        if (type == null) {
+            return Optional.empty();
+        }
+        return switch (type) {
+            case MANUAL -> Optional.empty();
+            case DAILY -> Optional.of(CronExpression.parse(timeFields(time) + " * * *"));
+            case WEEKLY -> {
+                if (dayOfWeek == null) {
+                    throw new GlobalBackupException("Informe o dia da semana para agendamentos semanais.", HttpStatus.BAD_REQUEST);
+                }
+                yield Optional.of(CronExpression.parse(timeFields(time) + " * * " + dayOfWeek.name().substring(0, 3)));
+            }
+            case CRON -> Optional.of(parseCron(cron));
+        };
+    }
+
+    private static String timeFields(LocalTime time) {
+        if (time == null) {
+            throw new GlobalBackupException("Informe o horário do agendamento.", HttpStatus.BAD_REQUEST);
+        }
+        return time.getSecond() + " " + time.getMinute() + " " + time.getHour();
+    }
+
+    // Expressões de 5 campos (padrão Unix) recebem o campo de segundos do Spring.
+    private static CronExpression parseCron(String cron) {
+        if (cron == null || cron.isBlank()) {
+            throw new GlobalBackupException("Informe a expressão cron do agendamento.", HttpStatus.BAD_REQUEST);
+        }
+        String expression = cron.trim();
+        if (!expression.startsWith("@") && expression.split("\\s+").length == 5) {
+            expression = "0 " + expression;
+        }
+        try {
+            return CronExpression.parse(expression);
+        } catch (IllegalArgumentException e) {
+            throw new GlobalBackupException("Expressão cron inválida: " + e.getMessage(), HttpStatus.BAD_REQUEST, e);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package br.gov.formosa.backup.job.domain.service;
+
+import br.gov.formosa.backup.job.domain.event.BackupJobChangedEvent;
+import br.gov.formosa.backup.job.domain.model.BackupJob;
+import br.gov.formosa.backup.job.domain.model.ClusterSignal;
+import br.gov.formosa.backup.job.infra.repository.ClusterSignalRepository;
+import br.gov.formosa.backup.shared.enums.RunTrigger;
+import br.gov.formosa.backup.shared.infra.service.ErrorLogService;
+import br.gov.formosa.backup.shared.infra.service.NodeIdentity;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispara os jobs agendados no horário exato. Cada job ativo tem um único disparo pendente no
+ * ScheduledThreadPoolExecutor (uma fila de prioridade ordenada pelo próximo instante), calculado a partir do
+ * agendamento. A fila é montada uma vez na inicialização e depois só muda quando um job é alterado.
+ * Em cluster todos os nós disparam; o run do horário é criado uma única vez (ver JobExecutionEngine#enqueue).
+ * Alterações feitas em outro nó chegam pelo {@link ClusterSignal} do agendamento. Nós só worker não disparam.
+ */
+@Service
+public class JobTriggerScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(JobTriggerScheduler.class);
+    // Esperas longas são divididas para que ajustes no relógio do sistema não acumulem atraso.
+    private static final long MAX_ARM_MS = TimeUnit.HOURS.toMillis(1);
+
+    private final BackupJobService jobService;
+    private final JobExecutionEngine executionEngine;
+    private final ErrorLogService errorLogService;
+    private final ClusterSignalRepository signalRepository;
+    private final boolean coordinator;
+    private final ScheduledThreadPoolExecutor timer;
+    private volatile long knownVersion = -1;
+
+    // Protegido por "this".
+    private final Map<UUID, Trigger> triggers = new HashMap<>();
+
+    public JobTriggerScheduler(BackupJobService jobService, JobExecutionEngine executionEngine, ErrorLogService errorLogService,
+                               ClusterSignalRepository signalRepository, NodeIdentity nodeIdentity) {
+        this.jobService = jobService;
+        this.executionEngine = executionEngine;
+        this.errorLogService = errorLogService;
+        this.signalRepository = signalRepository;
+        this.coordinator = nodeIdentity.isCoordinator();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("job-trigger-");
+        threadFactory.setDaemon(true);
+        this.timer = new ScheduledThreadPoolExecutor(1, threadFactory);
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleAll() {
+        if (!coordinator) {
+            return;
+        }
+        knownVersion = currentVersion();
+        Set<UUID> active = new HashSet<>();
+        for (BackupJob job : jobService.findAllActiveJobsForScheduler()) {
+            active.add(job.getId());
+            reschedule(job);
+        }
+        synchronized (this) {
+            Set.copyOf(triggers.keySet()).stream().filter(id -> !active.contains(id)).forEach(this::cancel);
+        }
+        log.info("{} job(s) agendado(s).", triggers.size());
+    }
+
+    /**
+     * Jobs alterados em outro nó: a versão do sinal muda e a fila é remontada. Sem mudanças, é só uma leitura por chave.
+     */
+    @Scheduled(fixedDelayString = "${app.scheduler.sync-interval-ms:30000}", initialDelayString = "${app.scheduler.sync-interval-ms:30000}")
+    public void syncWithCluster() {
+        if (coordinator && currentVersion() != knownVersion) {
+            scheduleAll();
+        }
+    }
+
+    private long currentVersion() {
+        return signalRepository.findById(BackupJobService.SCHEDULE_SIGNAL).map(ClusterSignal::getVersion).orElse(0L);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJobChanged(BackupJobChangedEvent event) {
+        if (!coordinator) {
+            return;
+        }
+        Optional<BackupJob> job = jobService.findOptionalById(event.jobId());
+        if (job.isPresent()) {
+            reschedule(job.get());
+        } else {
+            cancel(event.jobId());
+        }
+    }
+
+    private void reschedule(BackupJob job) {
+        if (!job.isActive()) {
+            cancel(job.getId());
+            return;
+        }
+        try {
+            Optional<CronExpression> expression = JobSchedule.expressionFor(job.getScheduleType(), job.getBackupTime(),
+                    job.getDayOfWeek(), job.getCronExpression());
+            if (expression.isPresent()) {
+                arm(job.getId(), expression.get(), ZonedDateTime.now());
+            } else {
+                cancel(job.getId());
+            }
+        } catch (RuntimeException e) {
+            cancel(job.getId());
+            errorLogService.logScheduledError("Agendamento do Job " + job.getName(), e);
+        }
+    }
+
+    private synchronized void cancel(UUID jobId) {
+        Trigger previous = triggers.remove(jobId);
+        if (previous != null) {
+            previous.future.cancel(false);
+        }
+    }
+
+    private synchronized void arm(UUID jobId, CronExpression expression, ZonedDateTime after) {
+        ZonedDateTime next = expression.next(after);
+        if (next == null) {
+            cancel(jobId);
+            return;
+        }
+        Trigger trigger = new Trigger(jobId, expression, next);
+        Trigger previous = triggers.put(jobId, trigger);
+        if (previous != null) {
+            previous.future.cancel(false);
+        }
+        schedule(trigger);
+    }
+
+    private void schedule(Trigger trigger) {
+        long delay = Duration.between(ZonedDateTime.now(), trigger.fireAt).toMillis();
+        trigger.future = timer.schedule(() -> onTimer(trigger), Math.max(0, Math.min(delay, MAX_ARM_MS)), TimeUnit.MILLISECONDS);
+    }
+
+    private void onTimer(Trigger trigger) {
+        synchronized (this) {
+            if (triggers.get(trigger.jobId) != trigger) {
+                return;
+            }
+            if (ZonedDateTime.now().isBefore(trigger.fireAt)) {
+                schedule(trigger);
+                return;
+            }
+            // O próximo disparo parte do horário previsto, não do atual, para não pular execuções.
+            arm(trigger.jobId, trigger.expression, trigger.fireAt);
+        }
+        fire(trigger.jobId, trigger.fireAt.toLocalDateTime());
+    }
+
+    private void fire(UUID jobId, LocalDateTime slot) {
+        BackupJob job = jobService.findOptionalById(jobId).orElse(null);
+        if (job == null || !job.isActive()) {
+            return;
+        }
+        try {
+            executionEngine.enqueue(job, RunTrigger.SCHEDULED, slot);
+        } catch (Exception e) {
+            errorLogService.logScheduledError("Job " + job.getName(), e);
+        }
+    }
+
+    private static final class Trigger {
+        private final UUID jobId;
+        private final CronExpression expression;
+        private final ZonedDateTime fireAt;
+        private ScheduledFuture<?> future;
+
+        private Trigger(UUID jobId, CronExpression expression, ZonedDateTime fireAt) {
+            this.jobId = jobId;
+            this.expression = expression;
+            this.fireAt = fireAt;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package br.gov.formosa.backup.job.domain.service;
+
+import br.gov.formosa.backup.job.domain.model.BackupRun;
+import br.gov.formosa.backup.job.domain.service.JobLogStore.LogSlice;
+import br.gov.formosa.backup.job.infra.repository.BackupRunRepository;
+import br.gov.formosa.backup.shared.infra.service.JobLogStreamService;
+import br.gov.formosa.backup.shared.infra.service.NodeIdentity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * No coordenador, repassa ao WebSocket local o log das execuções que rodam em workers. O worker grava o log
+ * em segmentos (job_log_segment) e publica só no próprio broker; aqui os segmentos novos são lidos a cada
+ * intervalo e publicados no tópico do job, com os mesmos cabeçalhos de offset. O atraso é o intervalo de
+ * gravação dos segmentos mais o desta varredura.
+ */
+@Service
+public class RemoteRunLogRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(RemoteRunLogRelay.class);
+
+    private final BackupRunRepository runRepository;
+    private final JobLogStore logStore;
+    private final JobLogStreamService logStreamService;
+    private final NodeIdentity nodeIdentity;
+    private final int maxLinesPerRun;
+
+    // Acessado só pela thread do agendador.
+    private final Map<UUID, Tail> tails = new HashMap<>();
+
+    public RemoteRunLogRelay(BackupRunRepository runRepository,
+                             JobLogStore logStore,
+                             JobLogStreamService logStreamService,
+                             NodeIdentity nodeIdentity,
+                             @Value("${app.cluster.log-relay-max-lines:2000}") int maxLinesPerRun) {
+        this.runRepository = runRepository;
+        this.logStore = logStore;
+        this.logStreamService = logStreamService;
+        this.nodeIdentity = nodeIdentity;
+        this.maxLinesPerRun = Math.max(1, maxLinesPerRun);
+    }
+
+    @Scheduled(fixedDelayString = "${app.cluster.log-relay-interval-ms:2000}")
+    public void relay() {
+        if (!nodeIdentity.isCoordinator()) {
+            return;
+        }
+        try {
+            Set<UUID> running = new HashSet<>();
+            for (BackupRun run : runRepository.findRunningOnOtherNodes(nodeIdentity.getNodeId())) {
+                running.add(run.getId());
+                // Quem abre o log agora lê o histórico pela API; o repasse começa no fim do que já foi gravado.
+                Tail tail = tails.computeIfAbsent(run.getId(),
+                        id -> new Tail(run.getJob().getId(), logStore.nextPosition(id).offset()));
+                forward(run.getId(), tail);
+            }
+
+            // O último segmento é gravado logo depois que o run termina; mais uma rodada antes de esquecê-lo.
+            Iterator<Map.Entry<UUID, Tail>> finished = tails.entrySet().iterator();
+            while (finished.hasNext()) {
+                Map.Entry<UUID, Tail> entry = finished.next();
+                if (running.contains(entry.getKey())) {
+                    continue;
+                }
+                forward(entry.getKey(), entry.getValue());
+                if (entry.getValue().ending) {
+                    finished.remove();
+                } else {
+                    entry.getValue().ending = true;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Falha ao repassar logs de execuções remotas: {}", e.getMessage());
+        }
+    }
+
+    private void forward(UUID runId, Tail tail) {
+        LogSlice slice = logStore.read(runId, tail.offset, maxLinesPerRun);
+        if (slice.lines().isEmpty()) {
+            return;
+        }
+        logStreamService.relay(tail.jobId, runId, slice);
+        tail.offset = slice.start() + slice.lines().size();
+    }
+
+    private static final class Tail {
+        private final UUID jobId;
+        private long offset;
+        private boolean ending;
+
+        private Tail(UUID jobId, long offset) {
+            this.jobId = jobId;
+            this.offset = offset;
+        }
+    }
+}
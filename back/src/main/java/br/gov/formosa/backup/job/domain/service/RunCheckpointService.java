@@ -0,0 +1,257 @@
+package br.gov.formosa.backup.job.domain.service;
+
+import br.gov.formosa.backup.config.domain.model.BackupDestination;
+import br.gov.formosa.backup.dashboard.domain.service.DashboardRollupService;
+import br.gov.formosa.backup.job.domain.model.BackupRecord;
+import br.gov.formosa.backup.job.domain.model.DestinationCheckpoint;
+import br.gov.formosa.backup.job.domain.model.RunCheckpoint;
+import br.gov.formosa.backup.job.infra.repository.BackupRecordRepository;
+import br.gov.formosa.backup.job.infra.repository.DestinationCheckpointRepository;
+import br.gov.formosa.backup.job.infra.repository.RunCheckpointRepository;
+import br.gov.formosa.backup.shared.enums.BackupStatus;
+import br.gov.formosa.backup.shared.enums.DumpFormat;
+import br.gov.formosa.backup.shared.enums.UploadState;
+import br.gov.formosa.backup.shared.infra.service.ArchiveService;
+import br.gov.formosa.backup.shared.infra.service.NodeIdentity;
+import br.gov.formosa.backup.shared.infra.storage.UploadProgress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pontos de retomada de um run: o dump concluído no spool deste host e o estado do upload para cada destino.
+ * Uma nova tentativa do mesmo run (depois de um reinício ou de outro nó assumir) continua do último ponto
+ * gravado; se o spool não puder ser reaproveitado, o que a tentativa anterior deixou é descartado.
+ */
+@Service
+public class RunCheckpointService {
+
+    private static final Logger log = LoggerFactory.getLogger(RunCheckpointService.class);
+
+    private final RunCheckpointRepository checkpointRepository;
+    private final DestinationCheckpointRepository destinationRepository;
+    private final BackupRecordRepository recordRepository;
+    private final ArchiveService archiveService;
+    private final DashboardRollupService rollupService;
+    private final String hostname;
+    private final Path spoolRoot;
+
+    public RunCheckpointService(RunCheckpointRepository checkpointRepository,
+                                DestinationCheckpointRepository destinationRepository,
+                                BackupRecordRepository recordRepository,
+                                ArchiveService archiveService,
+                                DashboardRollupService rollupService,
+                                NodeIdentity nodeIdentity,
+                                @Value("${app.backup.spool-dir:}") String spoolDir) {
+        this.checkpointRepository = checkpointRepository;
+        this.destinationRepository = destinationRepository;
+        this.recordRepository = recordRepository;
+        this.archiveService = archiveService;
+        this.rollupService = rollupService;
+        this.hostname = nodeIdentity.getHostname();
+        this.spoolRoot = spoolDir.isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "backup-spool")
+                : Path.of(spoolDir);
+    }
+
+    public Path getSpoolRoot() {
+        return spoolRoot;
+    }
+
+    // Um diretório por run, para que a recuperação saiba a quem pertence cada arquivo.
+    public Path spoolDirFor(UUID runId) throws IOException {
+        return Files.createDirectories(spoolRoot.resolve(runId.toString()));
+    }
+
+    /**
+     * Dump deixado por uma tentativa anterior que ainda pode ser enviado daqui: mesmo host, mesmo tamanho e,
+     * para arquivos, mesmo SHA-256.
+     */
+    public Optional<RunCheckpoint> findResumable(UUID runId) {
+        return checkpointRepository.findById(runId).filter(this::isIntact);
+    }
+
+    private boolean isIntact(RunCheckpoint checkpoint) {
+        if (!hostname.equals(checkpoint.getHost())) {
+            log.info("Dump do run {} está no spool de {}; será refeito neste host.", checkpoint.getRunId(), checkpoint.getHost());
+            return false;
+        }
+        Path spool = Path.of(checkpoint.getSpoolPath());
+        try {
+            if (checkpoint.getDumpFormat() == DumpFormat.DIRECTORY_TAR) {
+                return Files.isDirectory(spool) && archiveService.sizeOf(spool) == checkpoint.getSpoolSizeBytes();
+            }
+            return Files.isRegularFile(spool)
+                    && Files.size(spool) == checkpoint.getSpoolSizeBytes()
+                    && sha256(spool).equals(checkpoint.getChecksum());
+        } catch (IOException e) {
+            log.warn("Spool do run {} ilegível: {}", checkpoint.getRunId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Grava o checkpoint do dump concluído. O {@code checksum} é o SHA-256 calculado enquanto o spool era gravado
+     * (nulo para diretórios); o arquivo só é relido para conferência quando uma nova tentativa o reaproveita.
+     */
+    public RunCheckpoint dumpCompleted(UUID runId, Path spool, DumpFormat format, long rawSizeBytes, String checksum,
+                                       String filename, String remotePath) throws IOException {
+        boolean directory = format == DumpFormat.DIRECTORY_TAR;
+        return checkpointRepository.save(RunCheckpoint.builder()
+                .runId(runId)
+                .host(hostname)
+                .spoolPath(spool.toAbsolutePath().toString())
+                .spoolSizeBytes(directory ? archiveService.sizeOf(spool) : Files.size(spool))
+                .rawSizeBytes(rawSizeBytes)
+                .checksum(checksum)
+                .filename(filename)
+                .remotePath(remotePath)
+                .dumpFormat(format)
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Estado de upload de cada destino, na ordem de destinations. Destinos novos no run (ou cujo registro
+     * sumiu) ganham um registro pelo {@code newRecord}.
+     */
+    public List<DestinationCheckpoint> destinations(UUID runId, Collection<BackupDestination> destinations,
+                                                    Function<BackupDestination, BackupRecord> newRecord) {
+        Map<UUID, DestinationCheckpoint> existing = destinationRepository.findByRunId(runId).stream()
+                .collect(Collectors.toMap(DestinationCheckpoint::getDestinationId, Function.identity()));
+        List<DestinationCheckpoint> states = new ArrayList<>();
+        for (BackupDestination destination : destinations) {
+            DestinationCheckpoint state = existing.get(destination.getId());
+            if (state != null && state.getRecordId() != null && recordRepository.existsById(state.getRecordId())) {
+                states.add(state);
+                continue;
+            }
+            if (state == null) {
+                state = DestinationCheckpoint.builder()
+                        .runId(runId)
+                        .destinationId(destination.getId())
+                        .state(UploadState.PENDING)
+                        .build();
+            }
+            state.setRecordId(newRecord.apply(destination).getId());
+            state.setUpdatedAt(LocalDateTime.now());
+            states.add(destinationRepository.save(state));
+        }
+        return states;
+    }
+
+    /**
+     * Guarda o uploadId assim que o multipart é aberto e o número de partes aceitas a cada parte, para que a
+     * próxima tentativa continue o mesmo upload.
+     */
+    public UploadProgress progressFor(DestinationCheckpoint state) {
+        return new UploadProgress() {
+            @Override
+            public String uploadId() {
+                return state.getUploadId();
+            }
+
+            @Override
+            public long partSizeBytes() {
+                return state.getPartSizeBytes() == null ? 0 : state.getPartSizeBytes();
+            }
+
+            @Override
+            public void started(String uploadId, long partSizeBytes) {
+                state.setUploadId(uploadId);
+                state.setPartSizeBytes(partSizeBytes);
+                state.setState(UploadState.UPLOADING);
+                state.setCompletedParts(0);
+                state.setUpdatedAt(LocalDateTime.now());
+                destinationRepository.save(state);
+            }
+
+            @Override
+            public void partCompleted(int completedParts, int totalParts) {
+                destinationRepository.updateCompletedParts(state.getId(), completedParts);
+            }
+        };
+    }
+
+    public void markUploaded(DestinationCheckpoint state, String remotePath) {
+        save(state, UploadState.UPLOADED, remotePath);
+    }
+
+    public void markFailed(DestinationCheckpoint state) {
+        save(state, UploadState.FAILED, null);
+    }
+
+    private void save(DestinationCheckpoint state, UploadState uploadState, String remotePath) {
+        destinationRepository.findById(state.getId()).ifPresent(current -> {
+            current.setState(uploadState);
+            current.setRemotePath(remotePath);
+            current.setUpdatedAt(LocalDateTime.now());
+            destinationRepository.save(current);
+        });
+    }
+
+    /**
+     * Encerra os pontos de retomada do run: registros ainda em andamento viram falha com {@code reason}
+     * e o spool local é apagado. Chamado no fim do run e quando uma tentativa não pode retomar a anterior.
+     */
+    public void clear(UUID runId, String reason) {
+        failInProgress(runId, reason);
+        destinationRepository.deleteByRunId(runId);
+        checkpointRepository.deleteById(runId);
+        archiveService.deleteRecursively(spoolRoot.resolve(runId.toString()));
+    }
+
+    // Registros que uma tentativa deixou em andamento e que não serão mais concluídos.
+    public void failInProgress(UUID runId, String reason) {
+        List<BackupRecord> records = recordRepository.findByRunIdAndStatus(runId, BackupStatus.IN_PROGRESS);
+        if (records.isEmpty()) {
+            return;
+        }
+        String summary = reason.length() > BackupRecord.LOG_SUMMARY_MAX_LENGTH ? reason.substring(0, BackupRecord.LOG_SUMMARY_MAX_LENGTH) : reason;
+        records.forEach(record -> {
+            record.setStatus(BackupStatus.FAILED);
+            record.setLogSummary(summary);
+        });
+        recordRepository.saveAll(records);
+        rollupService.recordsFinished(records.stream().map(BackupRecord::getId).toList());
+        log.info("{} registro(s) em andamento do run {} marcados como falha: {}", records.size(), runId, reason);
+    }
+
+    public static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static String sha256(Path file) throws IOException {
+        MessageDigest digest = newSha256();
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream input = Files.newInputStream(file)) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,151 @@
+package br.gov.formosa.backup.job.domain.service;
+
+import br.gov.formosa.backup.job.domain.model.RunCheckpoint;
+import br.gov.formosa.backup.job.infra.repository.BackupRunRepository;
+import br.gov.formosa.backup.job.infra.repository.DestinationCheckpointRepository;
+import br.gov.formosa.backup.job.infra.repository.RunCheckpointRepository;
+import br.gov.formosa.backup.shared.infra.service.ArchiveService;
+import br.gov.formosa.backup.shared.infra.service.NodeIdentity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Reconcilia o disco temporário deste worker com as execuções: spools de runs que já terminaram (ou que
+ * outro nó refez) e restos de dumps/restaurações interrompidos são apagados; checkpoints de runs encerrados
+ * saem do banco. Os runs ainda ativos não são tocados; quem os retoma é o {@link JobExecutionEngine}.
+ */
+@Service
+public class RunRecoveryService {
+
+    private static final Logger log = LoggerFactory.getLogger(RunRecoveryService.class);
+    private static final List<String> TEMP_PREFIXES = List.of("pgdump-", "pgrestore-");
+
+    private final BackupRunRepository runRepository;
+    private final RunCheckpointRepository checkpointRepository;
+    private final DestinationCheckpointRepository destinationRepository;
+    private final RunCheckpointService checkpointService;
+    private final ArchiveService archiveService;
+    private final boolean worker;
+    private final Duration orphanMinAge;
+    private final Path tempDir = Path.of(System.getProperty("java.io.tmpdir"));
+
+    public RunRecoveryService(BackupRunRepository runRepository,
+                              RunCheckpointRepository checkpointRepository,
+                              DestinationCheckpointRepository destinationRepository,
+                              RunCheckpointService checkpointService,
+                              ArchiveService archiveService,
+                              NodeIdentity nodeIdentity,
+                              @Value("${app.recovery.orphan-min-age-hours:24}") long orphanMinAgeHours) {
+        this.runRepository = runRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.destinationRepository = destinationRepository;
+        this.checkpointService = checkpointService;
+        this.archiveService = archiveService;
+        this.worker = nodeIdentity.isWorker();
+        this.orphanMinAge = Duration.ofHours(Math.max(1, orphanMinAgeHours));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        reconcile();
+    }
+
+    @Scheduled(cron = "${app.recovery.cron:0 30 * * * *}")
+    public void reconcile() {
+        if (!worker) {
+            return;
+        }
+        try {
+            Set<UUID> activeRuns = new HashSet<>(runRepository.findActiveIds());
+            int spools = deleteInactiveSpools(activeRuns);
+            int temps = deleteOldTempEntries();
+
+            List<RunCheckpoint> finished = checkpointRepository.findOfFinishedRuns();
+            checkpointRepository.deleteAll(finished);
+            int states = destinationRepository.deleteOfFinishedRuns();
+
+            if (spools + temps + finished.size() + states > 0) {
+                log.info("Recuperação: {} spool(s), {} temporário(s) órfão(s) e {} checkpoint(s) de runs encerrados removidos.",
+                        spools, temps, finished.size() + states);
+            }
+        } catch (Exception e) {
+            log.error("Falha na reconciliação de execuções interrompidas: {}", e.getMessage(), e);
+        }
+    }
+
+    // O spool só é lido pelo run dono; se o run não está mais na fila nem executando, ninguém vai retomá-lo.
+    private int deleteInactiveSpools(Set<UUID> activeRuns) throws IOException {
+        Path spoolRoot = checkpointService.getSpoolRoot();
+        if (!Files.isDirectory(spoolRoot)) {
+            return 0;
+        }
+        int deleted = 0;
+        try (Stream<Path> entries = Files.list(spoolRoot)) {
+            for (Path entry : entries.toList()) {
+                UUID runId = parseRunId(entry);
+                if (runId == null || activeRuns.contains(runId)) {
+                    continue;
+                }
+                archiveService.deleteRecursively(entry);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    // Diretórios de dump/restauração e downloads deixados por processos anteriores, com folga para os em uso.
+    private int deleteOldTempEntries() throws IOException {
+        Instant cutoff = Instant.now().minus(orphanMinAge);
+        int deleted = 0;
+        try (Stream<Path> entries = Files.list(tempDir)) {
+            for (Path entry : entries.toList()) {
+                String name = entry.getFileName().toString();
+                if (name.equals("backup-temp")) {
+                    deleted += deleteOlderThan(entry, cutoff);
+                } else if (TEMP_PREFIXES.stream().anyMatch(name::startsWith)
+                        && Files.getLastModifiedTime(entry).toInstant().isBefore(cutoff)) {
+                    archiveService.deleteRecursively(entry);
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private int deleteOlderThan(Path directory, Instant cutoff) throws IOException {
+        int deleted = 0;
+        try (Stream<Path> entries = Files.list(directory)) {
+            for (Path entry : entries.toList()) {
+                if (Files.getLastModifiedTime(entry).toInstant().isBefore(cutoff)) {
+                    archiveService.deleteRecursively(entry);
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private static UUID parseRunId(Path entry) {
+        try {
+            return UUID.fromString(entry.getFileName().toString());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package br.gov.formosa.backup.job.domain.service;
+
+import br.gov.formosa.backup.job.domain.model.SchedulerLease;
+import br.gov.formosa.backup.job.infra.repository.SchedulerLeaseRepository;
+import br.gov.formosa.backup.shared.infra.service.NodeIdentity;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Eleição de líder por tarefa: quem detém o lease não expirado executa; os demais nós pulam a rodada.
+ * O dono renova o lease a cada execução; se ele cair, outro nó assume quando o lease expirar.
+ */
+@Service
+public class SchedulerLeaseService {
+
+    private final SchedulerLeaseRepository repository;
+    private final NodeIdentity nodeIdentity;
+    private final TransactionTemplate transactionTemplate;
+
+    public SchedulerLeaseService(SchedulerLeaseRepository repository, NodeIdentity nodeIdentity, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.nodeIdentity = nodeIdentity;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public boolean tryAcquire(String name, Duration ttl) {
+        String nodeId = nodeIdentity.getNodeId();
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                SchedulerLease lease = repository.findByNameForUpdate(name).orElse(null);
+                if (lease == null) {
+                    repository.saveAndFlush(new SchedulerLease(name, nodeId, now.plus(ttl)));
+                    return true;
+                }
+                if (!lease.getOwnerNode().equals(nodeId) && lease.getExpiresAt().isAfter(now)) {
+                    return false;
+                }
+                lease.setOwnerNode(nodeId);
+                lease.setExpiresAt(now.plus(ttl));
+                return true;
+            }));
+        } catch (DataIntegrityViolationException e) {
+            // Outro nó criou o lease ao mesmo tempo.
+            return false;
+        }
+    }
+}
@@ -2,79 +2,77 @@ package br.gov.formosa.backup.job.domain.service;
 
 import br.gov.formosa.backup.shared.exception.GlobalBackupException;
 import br.gov.formosa.backup.config.domain.model.BackupDestination;
+import br.gov.formosa.backup.dashboard.domain.service.DashboardRollupService;
 import br.gov.formosa.backup.job.domain.model.BackupJob;
 import br.gov.formosa.backup.job.domain.model.BackupRecord;
 import br.gov.formosa.backup.shared.enums.BackupStatus;
 import br.gov.formosa.backup.job.infra.repository.BackupRecordRepository;
 import br.gov.formosa.backup.config.domain.service.BackupDestinationService;
 import br.gov.formosa.backup.shared.infra.service.ErrorLogService;
+import br.gov.formosa.backup.shared.infra.service.NodeIdentity;
 import br.gov.formosa.backup.shared.infra.service.StorageManagerService;
 import br.gov.formosa.backup.user.domain.service.UserService;
-import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.DayOfWeek;
-import java.time.LocalDate;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 public class SchedulerService {
 
-    private final BackupService backupService;
+    private static final String CLEANUP_LEASE = "retention-cleanup";
+    // Dois intervalos da limpeza: o líder renova a cada rodada e só perde o lease se parar de rodar.
+    private static final Duration CLEANUP_LEASE_TTL = Duration.ofMinutes(10);
+
     private final BackupJobService jobService;
     private final BackupRecordRepository recordRepository;
     private final StorageManagerService storageManager;
     private final BackupDestinationService destinationService;
     private final ErrorLogService errorLogService;
     private final UserService userService;
+    private final SchedulerLeaseService leaseService;
+    private final NodeIdentity nodeIdentity;
+    private final DashboardRollupService rollupService;
+    private final TransactionTemplate transactionTemplate;
 
-    @Scheduled(fixedRate = 900000)
-    @Transactional
-    public void triggerDueJobs() {
-        LocalTime now = LocalTime.now();
-        LocalDate today = LocalDate.now();
-        DayOfWeek todayOfWeek = today.getDayOfWeek();
-
-        List<BackupJob> jobs = jobService.findAllActiveJobsForScheduler();
-
-        for (BackupJob job : jobs) {
-            if (isTimeDue(job.getBackupTime(), now)) {
-
-                boolean shouldRun = false;
-                switch (job.getScheduleType()) {
-                    case DAILY:
-                        shouldRun = true;
-                        break;
-                    case WEEKLY:
-                        shouldRun = true;
-                        break;
-                    case MANUAL:
-                        break;
-                }
-
-                if (shouldRun) {
-                    try {
-                        backupService.executeJob(job.getId());
-                    } catch (Exception e) {
-                        errorLogService.logScheduledError("Job " + job.getName(), e);
-                    }
-                }
-            }
-        }
-    }
-
-    private boolean isTimeDue(LocalTime jobTime, LocalTime now) {
-        return !now.isBefore(jobTime) && now.isBefore(jobTime.plusMinutes(15));
+    public SchedulerService(BackupJobService jobService,
+                            BackupRecordRepository recordRepository,
+                            StorageManagerService storageManager,
+                            BackupDestinationService destinationService,
+                            ErrorLogService errorLogService,
+                            UserService userService,
+                            SchedulerLeaseService leaseService,
+                            NodeIdentity nodeIdentity,
+                            DashboardRollupService rollupService,
+                            PlatformTransactionManager transactionManager) {
+        this.jobService = jobService;
+        this.recordRepository = recordRepository;
+        this.storageManager = storageManager;
+        this.destinationService = destinationService;
+        this.errorLogService = errorLogService;
+        this.userService = userService;
+        this.leaseService = leaseService;
+        this.nodeIdentity = nodeIdentity;
+        this.rollupService = rollupService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Scheduled(fixedRate = 300000)
-    @Transactional
     public void executeCleanupTask() {
+        if (!nodeIdentity.isCoordinator() || !leaseService.tryAcquire(CLEANUP_LEASE, CLEANUP_LEASE_TTL)) {
+            return;
+        }
         try {
             List<BackupJob> jobs = jobService.findAllForScheduler();
             for (BackupJob job : jobs) {
@@ -87,23 +85,58 @@ public class SchedulerService {
         }
     }
 
-    @Transactional
+    /**
+     * Agrupa os registros vencidos por destino e exclui os arquivos de cada destino em lote.
+     * Só saem do banco os registros cujo arquivo foi excluído; os demais ficam para a próxima limpeza.
+     * As exclusões remotas rodam sem transação aberta; a remoção dos registros é um único DELETE no fim,
+     * na mesma transação que tira os registros do rollup do dashboard.
+     */
     public void cleanupOldBackups(BackupJob job) {
         int retentionDays = job.getRetentionDays();
         LocalDateTime cutOffDate = LocalDateTime.now().minusDays(retentionDays);
 
         List<BackupRecord> recordsToDelete = recordRepository.findByJobAndTimestampBeforeAndStatus(job, cutOffDate, BackupStatus.SUCCESS);
+        if (recordsToDelete.isEmpty()) {
+            return;
+        }
 
-        for (BackupRecord record : recordsToDelete) {
+        Map<UUID, List<BackupRecord>> byDestination = recordsToDelete.stream()
+                .filter(record -> record.getDestinationId() != null && record.getRemotePath() != null)
+                .collect(Collectors.groupingBy(BackupRecord::getDestinationId));
+        Map<UUID, BackupDestination> destinations = destinationService.findAllById(byDestination.keySet(), job.getUser()).stream()
+                .collect(Collectors.toMap(BackupDestination::getId, Function.identity()));
+
+        Set<UUID> kept = new HashSet<>();
+        byDestination.forEach((destinationId, records) -> {
+            BackupDestination destination = destinations.get(destinationId);
+            if (destination == null) {
+                records.forEach(record -> kept.add(record.getId()));
+                errorLogService.logScheduledError("Limpeza do Job " + job.getName(),
+                        new GlobalBackupException("Destino de backup não encontrado com ID: " + destinationId, HttpStatus.NOT_FOUND));
+                return;
+            }
             try {
-                BackupDestination destination = destinationService.findById(record.getDestinationId().toString(), job.getUser());
-                storageManager.deleteFile(record, destination);
-                recordRepository.delete(record);
-            } catch (GlobalBackupException e) {
-                errorLogService.logScheduledError("Limpeza do Backup " + record.getFilename() + " (Job: " + job.getName() + ")", e);
+                List<BackupRecord> failed = storageManager.deleteFiles(records, destination);
+                if (!failed.isEmpty()) {
+                    failed.forEach(record -> kept.add(record.getId()));
+                    errorLogService.logScheduledError("Limpeza do Job " + job.getName() + " (Destino: " + destination.getName() + ")",
+                            new GlobalBackupException(failed.size() + " arquivo(s) não puderam ser excluídos, ex.: " + failed.get(0).getFilename(), HttpStatus.INTERNAL_SERVER_ERROR));
+                }
             } catch (Exception e) {
-                errorLogService.logScheduledError("Limpeza do Backup " + record.getFilename() + " (Erro Genérico)", e);
+                records.forEach(record -> kept.add(record.getId()));
+                errorLogService.logScheduledError("Limpeza do Job " + job.getName() + " (Destino: " + destination.getName() + ")", e);
             }
+        });
+
+        List<UUID> deletedIds = recordsToDelete.stream()
+                .map(BackupRecord::getId)
+                .filter(id -> !kept.contains(id))
+                .toList();
+        if (!deletedIds.isEmpty()) {
+            transactionTemplate.executeWithoutResult(tx -> {
+                rollupService.recordsDeleted(deletedIds);
+                recordRepository.deleteAllByIdInBatch(deletedIds);
+            });
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,19 @@
+package br.gov.formosa.backup.job.infra.repository;
+
+import br.gov.formosa.backup.job.api.dto.BackupHistoryItemDTO;
+import br.gov.formosa.backup.shared.enums.BackupStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface BackupHistoryRepository {
+
+    /**
+     * Histórico do usuário em ordem (timestamp, id) decrescente, a partir do cursor (exclusivo). Filtros nulos
+     * ficam fora da consulta; {@code to} é exclusivo.
+     */
+    List<BackupHistoryItemDTO> findHistory(UUID userId, BackupStatus status, UUID sourceId, UUID destinationId,
+                                           LocalDateTime from, LocalDateTime to,
+                                           LocalDateTime cursorTimestamp, UUID cursorId, int limit);
+}
@@ -0,0 +1,61 @@
+package br.gov.formosa.backup.job.infra.repository;
+
+import br.gov.formosa.backup.job.api.dto.BackupHistoryItemDTO;
+import br.gov.formosa.backup.shared.enums.BackupStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Monta o HQL só com os filtros informados, para que o plano use o índice do filtro presente em vez de um
+ * "(:p IS NULL OR ...)" que o banco não consegue descartar. A Criteria API não tem comparação de row value, que é
+ * o que deixa o cursor (timestamp, id) virar uma faixa do índice idx_backup_record_timestamp_id.
+ */
+public class BackupHistoryRepositoryImpl implements BackupHistoryRepository {
+
+    private static final String SELECT = "SELECT new br.gov.formosa.backup.job.api.dto.BackupHistoryItemDTO(" +
+            "r.id, j.id, j.name, s.id, s.name, r.destinationId, d.name, r.runId, r.filename, r.timestamp, " +
+            "r.sizeBytes, r.rawSizeBytes, r.compressionCodec, r.status, r.logSummary) " +
+            "FROM BackupRecord r JOIN r.job j JOIN j.source s LEFT JOIN BackupDestination d ON d.id = r.destinationId " +
+            "WHERE j.user.id = :userId";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BackupHistoryItemDTO> findHistory(UUID userId, BackupStatus status, UUID sourceId, UUID destinationId,
+                                                  LocalDateTime from, LocalDateTime to,
+                                                  LocalDateTime cursorTimestamp, UUID cursorId, int limit) {
+        StringBuilder hql = new StringBuilder(SELECT);
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("userId", userId);
+        filter(hql, parameters, status, " AND r.status = :status", "status");
+        filter(hql, parameters, sourceId, " AND s.id = :sourceId", "sourceId");
+        filter(hql, parameters, destinationId, " AND r.destinationId = :destinationId", "destinationId");
+        filter(hql, parameters, from, " AND r.timestamp >= :from", "from");
+        filter(hql, parameters, to, " AND r.timestamp < :to", "to");
+        if (cursorTimestamp != null && cursorId != null) {
+            hql.append(" AND (r.timestamp, r.id) < (:cursorTimestamp, :cursorId)");
+            parameters.put("cursorTimestamp", cursorTimestamp);
+            parameters.put("cursorId", cursorId);
+        }
+        hql.append(" ORDER BY r.timestamp DESC, r.id DESC");
+
+        TypedQuery<BackupHistoryItemDTO> query = entityManager.createQuery(hql.toString(), BackupHistoryItemDTO.class);
+        parameters.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    private static void filter(StringBuilder hql, Map<String, Object> parameters, Object value, String clause, String name) {
+        if (value != null) {
+            hql.append(clause);
+            parameters.put(name, value);
+        }
+    }
+}
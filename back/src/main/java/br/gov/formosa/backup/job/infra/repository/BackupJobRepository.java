@@ -2,6 +2,7 @@ package br.gov.formosa.backup.job.infra.repository;
 
 import br.gov.formosa.backup.job.domain.model.BackupJob;
 import br.gov.formosa.backup.user.domain.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -12,16 +13,26 @@ import java.util.UUID;
 @Repository
 public interface BackupJobRepository extends JpaRepository<BackupJob, UUID> {
 
+    // Todas as associações do job são LAZY; cada consulta que devolve jobs para a API declara o que o JSON lê.
+    @EntityGraph(attributePaths = {"source", "destinations", "emailConfig"})
     List<BackupJob> findByUser(User user);
+
+    @EntityGraph(attributePaths = {"source", "destinations", "emailConfig"})
     Optional<BackupJob> findByIdAndUser(UUID id, User user);
+
     boolean existsByIdAndUser(UUID id, User user);
     void deleteByIdAndUser(UUID id, User user);
 
+    @EntityGraph(attributePaths = {"source", "destinations", "emailConfig"})
     @Query("SELECT j FROM BackupJob j WHERE j.isActive = true AND j.scheduleType <> 'MANUAL' AND j.user = :user")
     List<BackupJob> findAllActiveScheduledJobsByUser(User user);
 
+    // O agendador só lê os campos de agendamento.
     @Query("SELECT j FROM BackupJob j WHERE j.isActive = true AND j.scheduleType <> 'MANUAL'")
     List<BackupJob> findAllActiveScheduledJobs();
 
+    @EntityGraph(attributePaths = {"source", "destinations", "emailConfig"})
+    Optional<BackupJob> findWithDetailsById(UUID id);
+
     long countByUser(User user);
 }
\ No newline at end of file
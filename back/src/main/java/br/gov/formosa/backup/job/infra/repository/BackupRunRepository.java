@@ -0,0 +1,66 @@
+package br.gov.formosa.backup.job.infra.repository;
+
+import br.gov.formosa.backup.job.domain.model.BackupJob;
+import br.gov.formosa.backup.job.domain.model.BackupRun;
+import br.gov.formosa.backup.shared.enums.RunStatus;
+import br.gov.formosa.backup.user.domain.model.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BackupRunRepository extends JpaRepository<BackupRun, UUID> {
+
+    /**
+     * Runs na fila ou com lease vencido, bloqueados para este nó. Linhas já bloqueadas por outro nó
+     * são puladas (SKIP LOCKED, timeout -2), então cada run é reivindicado por um único nó.
+     * Só entram fontes sem zona ou de uma das {@code zones}, a menos que {@code anyZone}.
+     * A ordem é a de admissão: prioridade do job e depois chegada.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r FROM BackupRun r WHERE ((r.status = 'QUEUED' AND (r.notBefore IS NULL OR r.notBefore <= :now)) " +
+            "OR (r.status = 'RUNNING' AND (r.leaseExpiresAt IS NULL OR r.leaseExpiresAt < :now))) " +
+            "AND (:anyZone = TRUE OR r.job.source.zone IS NULL OR r.job.source.zone IN :zones) " +
+            "ORDER BY r.job.priority DESC, r.queuedAt ASC")
+    List<BackupRun> findClaimable(LocalDateTime now, boolean anyZone, Collection<String> zones, Pageable pageable);
+
+    @Query("SELECT r FROM BackupRun r JOIN FETCH r.job WHERE r.status = 'RUNNING' AND r.ownerNode <> :node")
+    List<BackupRun> findRunningOnOtherNodes(String node);
+
+    @Query("SELECT r FROM BackupRun r JOIN FETCH r.job j JOIN FETCH j.source LEFT JOIN FETCH j.destinations " +
+            "WHERE r.status = 'RUNNING' AND r.leaseExpiresAt >= :now")
+    List<BackupRun> findLiveRuns(LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE BackupRun r SET r.leaseExpiresAt = :until WHERE r.id IN :ids AND r.ownerNode = :node AND r.status = 'RUNNING'")
+    int renewLeases(Collection<UUID> ids, String node, LocalDateTime until);
+
+    @Modifying
+    @Query("UPDATE BackupRun r SET r.leaseExpiresAt = NULL WHERE r.ownerNode = :node AND r.status = 'RUNNING'")
+    int expireLeasesOf(String node);
+
+    @Query("SELECT r.id FROM BackupRun r WHERE r.status IN ('QUEUED', 'RUNNING')")
+    List<UUID> findActiveIds();
+
+    boolean existsByStatusIn(Collection<RunStatus> statuses);
+
+    Optional<BackupRun> findFirstByJobAndStatusIn(BackupJob job, Collection<RunStatus> statuses);
+
+    Optional<BackupRun> findByJobAndScheduledFor(BackupJob job, LocalDateTime scheduledFor);
+
+    @Query("SELECT r FROM BackupRun r JOIN FETCH r.job j WHERE r.id = :id AND j.user = :user")
+    Optional<BackupRun> findByIdAndUser(UUID id, User user);
+}
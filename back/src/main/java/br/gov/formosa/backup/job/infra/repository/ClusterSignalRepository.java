@@ -0,0 +1,15 @@
+package br.gov.formosa.backup.job.infra.repository;
+
+import br.gov.formosa.backup.job.domain.model.ClusterSignal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ClusterSignalRepository extends JpaRepository<ClusterSignal, String> {
+
+    @Modifying
+    @Query("UPDATE ClusterSignal s SET s.version = s.version + 1 WHERE s.name = :name")
+    int increment(String name);
+}
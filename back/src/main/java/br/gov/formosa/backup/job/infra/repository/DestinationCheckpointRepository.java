@@ -0,0 +1,37 @@
+package br.gov.formosa.backup.job.infra.repository;
+
+import br.gov.formosa.backup.job.domain.model.DestinationCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface DestinationCheckpointRepository extends JpaRepository<DestinationCheckpoint, UUID> {
+
+    List<DestinationCheckpoint> findByRunId(UUID runId);
+
+    Optional<DestinationCheckpoint> findByRunIdAndDestinationId(UUID runId, UUID destinationId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE DestinationCheckpoint c SET c.completedParts = :parts, c.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE c.id = :id AND c.completedParts < :parts")
+    int updateCompletedParts(UUID id, int parts);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM DestinationCheckpoint c WHERE c.runId = :runId")
+    void deleteByRunId(UUID runId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM DestinationCheckpoint c WHERE NOT EXISTS " +
+            "(SELECT r FROM BackupRun r WHERE r.id = c.runId AND r.status IN ('QUEUED', 'RUNNING'))")
+    int deleteOfFinishedRuns();
+}
@@ -0,0 +1,17 @@
+package br.gov.formosa.backup.job.infra.repository;
+
+import br.gov.formosa.backup.job.domain.model.JobLogSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface JobLogSegmentRepository extends JpaRepository<JobLogSegment, UUID> {
+
+    List<JobLogSegment> findTop20ByRunIdAndEndLineGreaterThanOrderByFirstLineAsc(UUID runId, long offset);
+
+    Optional<JobLogSegment> findFirstByRunIdOrderBySeqDesc(UUID runId);
+}
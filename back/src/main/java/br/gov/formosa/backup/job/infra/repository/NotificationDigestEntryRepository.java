@@ -0,0 +1,31 @@
+package br.gov.formosa.backup.job.infra.repository;
+
+import br.gov.formosa.backup.job.api.dto.NotificationDigestGroup;
+import br.gov.formosa.backup.job.domain.model.NotificationDigestEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface NotificationDigestEntryRepository extends JpaRepository<NotificationDigestEntry, UUID> {
+
+    @Query("SELECT new br.gov.formosa.backup.job.api.dto.NotificationDigestGroup(e.emailConfigId, e.recipients, COUNT(e), MIN(e.createdAt), MAX(e.createdAt)) " +
+            "FROM NotificationDigestEntry e GROUP BY e.emailConfigId, e.recipients")
+    List<NotificationDigestGroup> findGroups();
+
+    @Query("SELECT e FROM NotificationDigestEntry e WHERE e.emailConfigId = :emailConfigId AND e.recipients = :recipients " +
+            "ORDER BY e.createdAt ASC, e.id ASC")
+    List<NotificationDigestEntry> findGroup(UUID emailConfigId, String recipients, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM NotificationDigestEntry e WHERE e.id IN :ids")
+    int deleteByIdIn(Collection<UUID> ids);
+}
@@ -0,0 +1,17 @@
+package br.gov.formosa.backup.job.infra.repository;
+
+import br.gov.formosa.backup.job.domain.model.RunCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RunCheckpointRepository extends JpaRepository<RunCheckpoint, UUID> {
+
+    @Query("SELECT c FROM RunCheckpoint c WHERE NOT EXISTS " +
+            "(SELECT r FROM BackupRun r WHERE r.id = c.runId AND r.status IN ('QUEUED', 'RUNNING'))")
+    List<RunCheckpoint> findOfFinishedRuns();
+}
@@ -0,0 +1,44 @@
+package br.gov.formosa.backup.shared.config;
+
+import br.gov.formosa.backup.shared.enums.NodeRole;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Recusa a subida de nós COORDINATOR/WORKER em configurações que não funcionam com o banco compartilhado.
+ * O H2 não é compartilhado entre nós (o arquivo fica bloqueado por um processo) e não pula linhas bloqueadas
+ * na reivindicação dos runs; um ddl-auto que recria o schema apagaria a fila e os checkpoints dos outros nós.
+ * Roda antes da criação dos beans, então nenhum nó chega a tocar o schema com uma configuração inválida.
+ */
+public class ClusterDatabaseCheck implements EnvironmentPostProcessor {
+
+    private static final Set<String> SCHEMA_RECREATING_MODES = Set.of("create", "create-drop", "drop");
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        NodeRole role = environment.getProperty("app.node.role", NodeRole.class, NodeRole.ALL);
+        String url = environment.getProperty("spring.datasource.url", "").toLowerCase(Locale.ROOT);
+        boolean h2 = url.startsWith("jdbc:h2:");
+
+        if (h2 && (url.startsWith("jdbc:h2:tcp:") || url.contains("auto_server=true"))) {
+            throw new IllegalStateException("H2 compartilhado entre nós não é suportado (sem SKIP LOCKED na fila de runs). "
+                    + "Use PostgreSQL (perfil cluster) para mais de um nó.");
+        }
+        if (role == NodeRole.ALL) {
+            return;
+        }
+        if (h2) {
+            throw new IllegalStateException("app.node.role=" + role + " exige um banco compartilhado; o H2 só atende um nó com app.node.role=ALL. "
+                    + "Use PostgreSQL (perfil cluster).");
+        }
+        String ddlAuto = environment.getProperty("spring.jpa.hibernate.ddl-auto", "").trim().toLowerCase(Locale.ROOT);
+        if (SCHEMA_RECREATING_MODES.contains(ddlAuto)) {
+            throw new IllegalStateException("spring.jpa.hibernate.ddl-auto=" + ddlAuto + " recria o schema compartilhado pelos outros nós. "
+                    + "Use update, validate ou none com app.node.role=" + role + ".");
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package br.gov.formosa.backup.shared.enums;
+
+public enum DumpFormat {
+    PLAIN,
+    DIRECTORY_TAR
+}
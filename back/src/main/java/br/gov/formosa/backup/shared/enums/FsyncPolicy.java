@@ -0,0 +1,7 @@
+package br.gov.formosa.backup.shared.enums;
+
+public enum FsyncPolicy {
+    NONE,
+    FILE,
+    DIRECTORY
+}
@@ -3,5 +3,6 @@ package br.gov.formosa.backup.shared.enums;
 public enum NotificationPolicy {
     NEVER,
     ON_FAILURE,
-    ALWAYS
-}
\ No newline at end of file
+    ALWAYS,
+    DIGEST
+}
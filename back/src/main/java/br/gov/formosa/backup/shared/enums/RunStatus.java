@@ -0,0 +1,8 @@
+package br.gov.formosa.backup.shared.enums;
+
+public enum RunStatus {
+    QUEUED,
+    RUNNING,
+    SUCCESS,
+    FAILED
+}
@@ -0,0 +1,6 @@
+package br.gov.formosa.backup.shared.enums;
+
+public enum RunTrigger {
+    MANUAL,
+    SCHEDULED
+}
@@ -3,5 +3,6 @@ package br.gov.formosa.backup.shared.enums;
 public enum ScheduleType {
     MANUAL,
     DAILY,
-    WEEKLY
+    WEEKLY,
+    CRON
 }
\ No newline at end of file
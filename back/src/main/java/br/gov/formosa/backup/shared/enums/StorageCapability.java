@@ -0,0 +1,9 @@
+package br.gov.formosa.backup.shared.enums;
+
+public enum StorageCapability {
+    FILE_UPLOAD,
+    MULTIPART_UPLOAD,
+    RANGED_READ,
+    SERVER_SIDE_COPY,
+    BATCH_DELETE
+}
@@ -0,0 +1,86 @@
+package br.gov.formosa.backup.shared.infra.service;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class ArchiveService {
+
+    // Empacota o diretório em tar diretamente no stream de saída, sem gerar um .tar intermediário em disco.
+    public long writeDirectoryAsTar(Path directory, OutputStream target) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+
+        TarArchiveOutputStream tar = new TarArchiveOutputStream(target);
+        tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+        tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+
+        for (Path file : files) {
+            String entryName = directory.relativize(file).toString().replace('\\', '/');
+            TarArchiveEntry entry = new TarArchiveEntry(file.toFile(), entryName);
+            tar.putArchiveEntry(entry);
+            Files.copy(file, tar);
+            tar.closeArchiveEntry();
+        }
+        tar.finish();
+        return tar.getBytesWritten();
+    }
+
+    public void extractTar(InputStream source, Path targetDirectory) throws IOException {
+        Path root = targetDirectory.toAbsolutePath().normalize();
+        Files.createDirectories(root);
+
+        TarArchiveInputStream tar = new TarArchiveInputStream(source);
+        TarArchiveEntry entry;
+        while ((entry = tar.getNextEntry()) != null) {
+            Path destination = root.resolve(entry.getName()).normalize();
+            if (!destination.startsWith(root)) {
+                throw new IOException("Entrada de arquivo tar fora do diretório de destino: " + entry.getName());
+            }
+            if (entry.isDirectory()) {
+                Files.createDirectories(destination);
+            } else {
+                Files.createDirectories(destination.getParent());
+                Files.copy(tar, destination);
+            }
+        }
+    }
+
+    // Soma dos arquivos do diretório; identifica um dump em diretório que ficou pela metade.
+    public long sizeOf(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(Files::isRegularFile).toList();
+        }
+        long total = 0;
+        for (Path file : files) {
+            total += Files.size(file);
+        }
+        return total;
+    }
+
+    public void deleteRecursively(Path directory) {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(directory)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            // Limpeza de diretório temporário: falhas não devem interromper o backup.
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package br.gov.formosa.backup.shared.infra.service;
+
+import br.gov.formosa.backup.config.domain.model.BackupDestination;
+import br.gov.formosa.backup.shared.enums.BackupType;
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+/**
+ * Mantém um cliente S3/GCS (e o TransferManager associado) por destino. A entrada é recriada quando a
+ * impressão digital das credenciais muda, então uma edição do destino nunca reaproveita um cliente antigo.
+ * Quem usa o cliente o segura por um {@link ClientLease} durante a operação: o cliente substituído (ou de um
+ * destino excluído) só é encerrado quando o último lease em uso for fechado, sem derrubar transferências.
+ */
+@Service
+public class CloudStorageClientCache {
+
+    private static final String GCS_ENDPOINT = "https://storage.googleapis.com";
+
+    private final Map<UUID, CachedClient> clients = new ConcurrentHashMap<>();
+    private final long partSize;
+    private final int concurrency;
+
+    public CloudStorageClientCache(@Value("${app.storage.multipart.part-size-bytes:16777216}") long partSize,
+                                   @Value("${app.storage.transfer.concurrency:4}") int concurrency) {
+        this.partSize = partSize;
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clients.values().forEach(CachedClient::shutdown);
+        clients.clear();
+    }
+
+    /**
+     * Cliente atual do destino, reservado até o lease ser fechado.
+     */
+    public ClientLease acquire(BackupDestination destination) {
+        while (true) {
+            CachedClient cached = lookup(destination);
+            if (cached.retain()) {
+                return new ClientLease(cached);
+            }
+            // Substituído entre a consulta e a reserva; a próxima consulta encontra o novo.
+        }
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void evict(UUID destinationId) {
+        CachedClient removed = clients.remove(destinationId);
+        if (removed != null) {
+            removed.retire();
+        }
+    }
+
+    /**
+     * Cliente avulso para testar credenciais que ainda não foram salvas; o chamador deve encerrá-lo.
+     */
+    public AmazonS3 buildStandalone(BackupType type, String accessKey, String secretKey, String region) {
+        return buildClient(type, accessKey, secretKey, region);
+    }
+
+    private CachedClient lookup(BackupDestination destination) {
+        String fingerprint = fingerprint(destination);
+        CachedClient cached = clients.get(destination.getId());
+        if (cached != null && cached.fingerprint().equals(fingerprint)) {
+            return cached;
+        }
+
+        CachedClient[] replaced = new CachedClient[1];
+        CachedClient current = clients.compute(destination.getId(), (id, existing) -> {
+            if (existing != null && existing.fingerprint().equals(fingerprint)) {
+                return existing;
+            }
+            replaced[0] = existing;
+            return create(destination, fingerprint);
+        });
+        if (replaced[0] != null) {
+            replaced[0].retire();
+        }
+        return current;
+    }
+
+    private CachedClient create(BackupDestination destination, String fingerprint) {
+        AmazonS3 client = buildClient(destination.getType(), destination.getAccessKey(), destination.getSecretKey(), destination.getRegion());
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("s3-transfer-");
+        threadFactory.setDaemon(true);
+        TransferManager transferManager = TransferManagerBuilder.standard()
+                .withS3Client(client)
+                .withExecutorFactory(() -> Executors.newFixedThreadPool(concurrency, threadFactory))
+                .withMinimumUploadPartSize(partSize)
+                .withMultipartUploadThreshold(partSize)
+                .withShutDownThreadPools(true)
+                .build();
+        return new CachedClient(fingerprint, client, transferManager);
+    }
+
+    private AmazonS3 buildClient(BackupType type, String accessKey, String secretKey, String region) {
+        AWSCredentials credentials = new BasicAWSCredentials(accessKey, secretKey);
+        ClientConfiguration clientConfig = new ClientConfiguration()
+                .withMaxConnections(Math.max(ClientConfiguration.DEFAULT_MAX_CONNECTIONS, concurrency * 2));
+
+        AmazonS3ClientBuilder builder = AmazonS3ClientBuilder.standard()
+                .withCredentials(new AWSStaticCredentialsProvider(credentials));
+
+        if (type == BackupType.GOOGLE_CLOUD_STORAGE) {
+            clientConfig.setSignerOverride("AWSS3V4SignerType");
+            builder.withEndpointConfiguration(new EndpointConfiguration(GCS_ENDPOINT, "auto"));
+        } else {
+            builder.withRegion(region);
+        }
+        return builder.withClientConfiguration(clientConfig).build();
+    }
+
+    private String fingerprint(BackupDestination destination) {
+        String material = destination.getType() + "|" + Objects.toString(destination.getRegion(), "") + "|"
+                + Objects.toString(destination.getAccessKey(), "") + "|" + Objects.toString(destination.getSecretKey(), "");
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(material.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static final class ClientLease implements AutoCloseable {
+
+        private final CachedClient cached;
+        private boolean closed;
+
+        private ClientLease(CachedClient cached) {
+            this.cached = cached;
+        }
+
+        public AmazonS3 client() {
+            return cached.client();
+        }
+
+        public TransferManager transferManager() {
+            return cached.transferManager();
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                cached.release();
+            }
+        }
+    }
+
+    private static final class CachedClient {
+
+        private final String fingerprint;
+        private final AmazonS3 client;
+        private final TransferManager transferManager;
+
+        // Protegidos por "this".
+        private int users;
+        private boolean retired;
+        private boolean shutDown;
+
+        private CachedClient(String fingerprint, AmazonS3 client, TransferManager transferManager) {
+            this.fingerprint = fingerprint;
+            this.client = client;
+            this.transferManager = transferManager;
+        }
+
+        String fingerprint() {
+            return fingerprint;
+        }
+
+        AmazonS3 client() {
+            return client;
+        }
+
+        TransferManager transferManager() {
+            return transferManager;
+        }
+
+        synchronized boolean retain() {
+            if (retired) {
+                return false;
+            }
+            users++;
+            return true;
+        }
+
+        synchronized void release() {
+            users--;
+            if (retired && users == 0) {
+                shutdown();
+            }
+        }
+
+        // Fora do cache: encerra já se ninguém usa, senão quando o último lease fechar.
+        synchronized void retire() {
+            retired = true;
+            if (users == 0) {
+                shutdown();
+            }
+        }
+
+        synchronized void shutdown() {
+            retired = true;
+            if (!shutDown) {
+                shutDown = true;
+                transferManager.shutdownNow(true);
+            }
+        }
+    }
+}
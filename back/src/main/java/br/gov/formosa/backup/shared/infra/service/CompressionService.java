@@ -0,0 +1,93 @@
+package br.gov.formosa.backup.shared.infra.service;
+
+import br.gov.formosa.backup.shared.enums.CompressionCodec;
+import br.gov.formosa.backup.shared.infra.stream.ParallelBlockCompressorOutputStream;
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdInputStream;
+import jakarta.annotation.PreDestroy;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class CompressionService {
+
+    private static final int ZSTD_LEVEL = 3;
+
+    private final int threads;
+    private final int blockSize;
+    private final ExecutorService compressionPool;
+
+    public CompressionService(@Value("${app.backup.compression.threads:0}") int threads,
+                              @Value("${app.backup.compression.block-size-bytes:4194304}") int blockSize) {
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.blockSize = blockSize;
+        this.compressionPool = Executors.newFixedThreadPool(this.threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        compressionPool.shutdownNow();
+    }
+
+    public OutputStream compress(OutputStream target, CompressionCodec codec) {
+        if (codec == null || codec == CompressionCodec.NONE) {
+            return target;
+        }
+        return new ParallelBlockCompressorOutputStream(target, data -> compressBlock(data, codec), compressionPool, blockSize, threads * 2);
+    }
+
+    public InputStream decompress(InputStream source, CompressionCodec codec) throws IOException {
+        if (codec == null) {
+            return source;
+        }
+        switch (codec) {
+            case GZIP:
+                return new GZIPInputStream(source, 65536);
+            case ZSTD:
+                return new ZstdInputStream(source).setContinuous(false);
+            case LZ4:
+                return new LZ4FrameInputStream(source);
+            default:
+                return source;
+        }
+    }
+
+    private byte[] compressBlock(byte[] data, CompressionCodec codec) {
+        try {
+            switch (codec) {
+                case GZIP: {
+                    ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4);
+                    try (GZIPOutputStream gzip = new GZIPOutputStream(buffer, 65536)) {
+                        gzip.write(data);
+                    }
+                    return buffer.toByteArray();
+                }
+                case ZSTD:
+                    return Zstd.compress(data, ZSTD_LEVEL);
+                case LZ4: {
+                    ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 2);
+                    try (LZ4FrameOutputStream lz4 = new LZ4FrameOutputStream(buffer, LZ4FrameOutputStream.BLOCKSIZE.SIZE_4MB)) {
+                        lz4.write(data);
+                    }
+                    return buffer.toByteArray();
+                }
+                default:
+                    return data;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package br.gov.formosa.backup.shared.infra.service;
+
+import br.gov.formosa.backup.config.domain.model.BackupDestination;
+import br.gov.formosa.backup.config.domain.model.BackupSource;
+import br.gov.formosa.backup.shared.infra.storage.UploadProgress;
+import br.gov.formosa.backup.shared.infra.stream.BoundedPipe;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Envia uma única leitura do dump a vários destinos, cada um em sua thread de upload. As threads vêm de um pool
+ * limitado a {@code max-concurrent-runs × max-destinations-per-run}, sem fila: um upload só espera pelo seu
+ * pipe, nunca por uma thread, então um destino a mais do que o pool comporta falha na hora em vez de travar
+ * o run que alimenta os demais.
+ */
+@Service
+public class FanOutUploadService {
+
+    private final StorageManagerService storageManager;
+    private final ThreadPoolExecutor uploadExecutor;
+    private final int chunkSize;
+    private final int queueChunks;
+
+    public FanOutUploadService(StorageManagerService storageManager,
+                               @Value("${app.execution.max-concurrent-runs:4}") int maxConcurrentRuns,
+                               @Value("${app.backup.upload.max-destinations-per-run:8}") int maxDestinationsPerRun,
+                               @Value("${app.backup.stream.chunk-size-bytes:262144}") int chunkSize,
+                               @Value("${app.backup.stream.buffer-chunks:32}") int queueChunks) {
+        this.storageManager = storageManager;
+        this.chunkSize = chunkSize;
+        this.queueChunks = queueChunks;
+        int threads = Math.max(1, maxConcurrentRuns) * Math.max(1, maxDestinationsPerRun);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("upload-");
+        threadFactory.setDaemon(true);
+        this.uploadExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory);
+        this.uploadExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdownNow();
+    }
+
+    public FanOutUpload open(String filename, Collection<BackupDestination> destinations, BackupSource source) {
+        return open(destinations, storageManager.remotePathFor(source, filename));
+    }
+
+    public FanOutUpload open(Collection<BackupDestination> destinations, String remotePath) {
+        List<Branch> branches = new ArrayList<>();
+        for (BackupDestination destination : destinations) {
+            BoundedPipe pipe = new BoundedPipe(queueChunks);
+            Future<String> upload = submit(() -> {
+                try (InputStream dataStream = pipe.source()) {
+                    return storageManager.uploadStream(dataStream, remotePath, destination);
+                }
+            });
+            branches.add(new Branch(destination, pipe, upload));
+        }
+        return new FanOutUpload(branches);
+    }
+
+    /**
+     * Envia um dump já gravado em disco. Destinos que aceitam arquivo (disco local e multipart) o recebem direto,
+     * em paralelo, com o progresso de cada um em {@code progressFor}; os demais compartilham uma única leitura do
+     * arquivo pelo pipe. Os resultados seguem a ordem de destinations.
+     */
+    public List<DestinationResult> uploadSpooledFile(File file, Collection<BackupDestination> destinations, String remotePath,
+                                                     Function<BackupDestination, UploadProgress> progressFor) {
+        Map<BackupDestination, Future<String>> direct = new LinkedHashMap<>();
+        List<BackupDestination> streamed = new ArrayList<>();
+        for (BackupDestination destination : destinations) {
+            if (storageManager.uploadsFromFile(destination)) {
+                direct.put(destination, submit(() ->
+                        storageManager.uploadFile(file, destination, remotePath, progressFor.apply(destination))));
+            } else {
+                streamed.add(destination);
+            }
+        }
+
+        List<DestinationResult> streamedResults = List.of();
+        if (!streamed.isEmpty()) {
+            FanOutUpload fanOut = open(streamed, remotePath);
+            try (InputStream dumpStream = new FileInputStream(file)) {
+                fanOut.transfer(dumpStream);
+                fanOut.complete();
+            } catch (Exception e) {
+                fanOut.abort(e);
+            }
+            streamedResults = fanOut.awaitResults();
+        }
+
+        Iterator<DestinationResult> streamedIterator = streamedResults.iterator();
+        List<DestinationResult> results = new ArrayList<>();
+        for (BackupDestination destination : destinations) {
+            Future<String> upload = direct.get(destination);
+            if (upload == null) {
+                results.add(streamedIterator.next());
+                continue;
+            }
+            try {
+                results.add(new DestinationResult(destination, upload.get(), null));
+            } catch (ExecutionException e) {
+                results.add(new DestinationResult(destination, null, e.getCause()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                upload.cancel(true);
+                results.add(new DestinationResult(destination, null, e));
+            }
+        }
+        return results;
+    }
+
+    private Future<String> submit(Callable<String> upload) {
+        try {
+            return uploadExecutor.submit(upload);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new IOException(
+                    "Limite de uploads simultâneos atingido (" + uploadExecutor.getMaximumPoolSize() + "); destino não enviado.", e));
+        }
+    }
+
+    public record DestinationResult(BackupDestination destination, String remotePath, Throwable error) {
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    private record Branch(BackupDestination destination, BoundedPipe pipe, Future<String> upload) {}
+
+    public class FanOutUpload {
+
+        private final List<Branch> branches;
+        private final OutputStream sink = new FanOutSink();
+        private long bytesTransferred;
+
+        private FanOutUpload(List<Branch> branches) {
+            this.branches = branches;
+        }
+
+        public long getBytesTransferred() {
+            return bytesTransferred;
+        }
+
+        // Fechar o sink apenas entrega o último bloco parcial; as filas só são encerradas em complete().
+        public OutputStream sink() {
+            return sink;
+        }
+
+        public long transfer(InputStream origin) throws IOException {
+            origin.transferTo(sink);
+            return bytesTransferred;
+        }
+
+        public void complete() throws IOException {
+            sink.close();
+            for (Branch branch : branches) {
+                try {
+                    branch.pipe().sink().close();
+                } catch (IOException e) {
+                    // Consumidor já encerrado.
+                }
+            }
+        }
+
+        // Entrega o mesmo bloco à fila de cada destino ainda ativo, sem cópia.
+        private void dispatch(byte[] chunk) throws IOException {
+            bytesTransferred += chunk.length;
+
+            boolean anyActive = false;
+            for (Branch branch : branches) {
+                // Upload já encerrado (falhou, ou não conseguiu thread): não há quem consuma a fila.
+                if (branch.pipe().isReaderClosed() || branch.upload().isDone()) {
+                    continue;
+                }
+                try {
+                    branch.pipe().writeChunk(chunk);
+                    anyActive = true;
+                } catch (IOException e) {
+                    // O destino falhou e fechou sua fila; o erro é reportado pelo Future do upload.
+                }
+            }
+            if (!anyActive) {
+                throw new IOException("Todos os uploads falharam; transferência interrompida.");
+            }
+        }
+
+        private class FanOutSink extends OutputStream {
+
+            private byte[] buffer = new byte[chunkSize];
+            private int count;
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                while (len > 0) {
+                    int n = Math.min(len, buffer.length - count);
+                    System.arraycopy(b, off, buffer, count, n);
+                    count += n;
+                    off += n;
+                    len -= n;
+                    if (count == buffer.length) {
+                        dispatch(buffer);
+                        buffer = new byte[chunkSize];
+                        count = 0;
+                    }
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (count > 0) {
+                    byte[] last = Arrays.copyOf(buffer, count);
+                    count = 0;
+                    dispatch(last);
+                }
+            }
+        }
+
+        public void abort(Throwable cause) {
+            branches.forEach(branch -> branch.pipe().fail(cause));
+        }
+
+        public List<DestinationResult> awaitResults() {
+            List<DestinationResult> results = new ArrayList<>();
+            for (Branch branch : branches) {
+                try {
+                    results.add(new DestinationResult(branch.destination(), branch.upload().get(), null));
+                } catch (ExecutionException e) {
+                    results.add(new DestinationResult(branch.destination(), null, e.getCause()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    branch.upload().cancel(true);
+                    results.add(new DestinationResult(branch.destination(), null, e));
+                }
+            }
+            return results;
+        }
+    }
+}
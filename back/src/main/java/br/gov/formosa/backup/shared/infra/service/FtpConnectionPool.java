@@ -0,0 +1,197 @@
+package br.gov.formosa.backup.shared.infra.service;
+
+import br.gov.formosa.backup.config.domain.model.BackupDestination;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.net.ftp.FTP;
+import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.net.ftp.FTPReply;
+import org.apache.commons.pool2.BaseKeyedPooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPoolConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Conexões de controle FTP já autenticadas, reaproveitadas entre operações no mesmo servidor.
+ * A chave inclui as credenciais: editar um destino passa a usar conexões novas, e as antigas
+ * saem do pool pela expiração por ociosidade.
+ */
+@Service
+public class FtpConnectionPool {
+
+    private static final int FTP_PORT = 21;
+
+    private final GenericKeyedObjectPool<FtpKey, FtpSession> pool;
+    private final int connectTimeoutMs;
+
+    public FtpConnectionPool(@Value("${app.storage.ftp.pool.max-per-destination:4}") int maxPerDestination,
+                             @Value("${app.storage.ftp.pool.max-idle-time-ms:60000}") long maxIdleTimeMs,
+                             @Value("${app.storage.ftp.pool.max-wait-ms:30000}") long maxWaitMs,
+                             @Value("${app.storage.ftp.connect-timeout-ms:15000}") int connectTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+
+        GenericKeyedObjectPoolConfig<FtpSession> config = new GenericKeyedObjectPoolConfig<>();
+        config.setMaxTotalPerKey(Math.max(1, maxPerDestination));
+        config.setMaxIdlePerKey(Math.max(1, maxPerDestination));
+        config.setMaxWait(Duration.ofMillis(maxWaitMs));
+        config.setTestOnBorrow(true);
+        config.setTestWhileIdle(true);
+        config.setMinEvictableIdleDuration(Duration.ofMillis(maxIdleTimeMs));
+        config.setTimeBetweenEvictionRuns(Duration.ofMillis(Math.max(1000, maxIdleTimeMs / 2)));
+        config.setJmxEnabled(false);
+        this.pool = new GenericKeyedObjectPool<>(new FtpSessionFactory(), config);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.close();
+    }
+
+    @FunctionalInterface
+    public interface FtpCallback<T> {
+        T doWithFtp(FtpSession session) throws IOException;
+    }
+
+    public <T> T execute(BackupDestination destination, FtpCallback<T> callback) throws IOException {
+        FtpSession session = borrow(destination);
+        boolean reusable = false;
+        try {
+            T result = callback.doWithFtp(session);
+            reusable = true;
+            return result;
+        } finally {
+            release(destination, session, reusable);
+        }
+    }
+
+    /**
+     * Empréstimo explícito, para quem precisa manter a conexão além de um callback (streams de leitura).
+     * Toda chamada deve ter um {@link #release} correspondente.
+     */
+    public FtpSession borrow(BackupDestination destination) throws IOException {
+        try {
+            return pool.borrowObject(keyFor(destination));
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Falha ao obter conexão FTP com " + destination.getEndpoint() + ": " + e.getMessage(), e);
+        }
+    }
+
+    public void release(BackupDestination destination, FtpSession session, boolean healthy) {
+        FtpKey key = keyFor(destination);
+        // Depois de uma falha a conexão só volta ao pool se o servidor ainda responder.
+        if (healthy || isAlive(session)) {
+            pool.returnObject(key, session);
+        } else {
+            invalidateQuietly(key, session);
+        }
+    }
+
+    /**
+     * Conexão avulsa, fora do pool, para validar credenciais que ainda não foram salvas.
+     */
+    public FTPClient connect(String host, String user, String password) throws IOException {
+        FTPClient ftpClient = new FTPClient();
+        ftpClient.setConnectTimeout(connectTimeoutMs);
+        ftpClient.connect(host, FTP_PORT);
+        int reply = ftpClient.getReplyCode();
+        if (!FTPReply.isPositiveCompletion(reply)) {
+            ftpClient.disconnect();
+            throw new IOException("Falha ao conectar ao FTP: " + host);
+        }
+        boolean loggedIn = ftpClient.login(user, password);
+        if (!loggedIn) {
+            ftpClient.disconnect();
+            throw new IOException("Falha no login FTP (usuário/senha).");
+        }
+        ftpClient.setFileType(FTP.BINARY_FILE_TYPE);
+        ftpClient.enterLocalPassiveMode();
+        return ftpClient;
+    }
+
+    public static void disconnectQuietly(FTPClient ftpClient) {
+        if (ftpClient != null && ftpClient.isConnected()) {
+            try {
+                ftpClient.logout();
+            } catch (IOException ignored) {
+                // A conexão será encerrada de qualquer forma.
+            }
+            try {
+                ftpClient.disconnect();
+            } catch (IOException ignored) {
+                // Idem.
+            }
+        }
+    }
+
+    private FtpKey keyFor(BackupDestination destination) {
+        return new FtpKey(destination.getEndpoint(), destination.getAccessKey(), destination.getSecretKey());
+    }
+
+    private boolean isAlive(FtpSession session) {
+        try {
+            return session.client().isConnected() && session.client().sendNoOp();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void invalidateQuietly(FtpKey key, FtpSession session) {
+        try {
+            pool.invalidateObject(key, session);
+        } catch (Exception ignored) {
+            // destroyObject já encerra a conexão.
+        }
+    }
+
+    private record FtpKey(String host, String user, String password) {
+
+        @Override
+        public String toString() {
+            return user + "@" + host;
+        }
+    }
+
+    /**
+     * Conexão autenticada e o diretório inicial do login, restaurado a cada empréstimo.
+     */
+    public record FtpSession(FTPClient client, String homeDirectory) {}
+
+    private class FtpSessionFactory extends BaseKeyedPooledObjectFactory<FtpKey, FtpSession> {
+
+        @Override
+        public FtpSession create(FtpKey key) throws IOException {
+            FTPClient ftpClient = connect(key.host(), key.user(), key.password());
+            return new FtpSession(ftpClient, ftpClient.printWorkingDirectory());
+        }
+
+        @Override
+        public PooledObject<FtpSession> wrap(FtpSession session) {
+            return new DefaultPooledObject<>(session);
+        }
+
+        @Override
+        public boolean validateObject(FtpKey key, PooledObject<FtpSession> pooled) {
+            return isAlive(pooled.getObject());
+        }
+
+        @Override
+        public void activateObject(FtpKey key, PooledObject<FtpSession> pooled) throws IOException {
+            FtpSession session = pooled.getObject();
+            if (session.homeDirectory() != null && !session.client().changeWorkingDirectory(session.homeDirectory())) {
+                throw new IOException("Falha ao voltar ao diretório inicial do FTP.");
+            }
+        }
+
+        @Override
+        public void destroyObject(FtpKey key, PooledObject<FtpSession> pooled) {
+            disconnectQuietly(pooled.getObject().client());
+        }
+    }
+}
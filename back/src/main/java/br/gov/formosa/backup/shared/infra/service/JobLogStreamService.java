@@ -0,0 +1,381 @@
+package br.gov.formosa.backup.shared.infra.service;
+
+import br.gov.formosa.backup.job.domain.service.JobLogStore;
+import br.gov.formosa.backup.job.domain.service.JobLogStore.LogPosition;
+import br.gov.formosa.backup.job.domain.service.JobLogStore.LogSlice;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Log dos processos de dump: cada linha recebe um offset sequencial dentro da execução, é gravada em segmentos
+ * comprimidos (JobLogStore) e publicada no WebSocket em frames agrupados.
+ * No WebSocket cada job tem um buffer limitado; a cada intervalo é enviado no máximo um frame com até N linhas.
+ * Quando o processo produz mais do que o broker consegue receber, as linhas excedentes são descartadas do frame
+ * e substituídas por um marcador com a quantidade omitida. O log persistido não sofre descarte.
+ * Cada dump tem um leitor de stderr; o pool de leitores tem o dobro de {@code max-concurrent-runs} threads (o leitor
+ * de um run encerrado ainda pode estar drenando quando o próximo começa). Se mesmo assim estiver cheio, o leitor
+ * espera na fila por uma thread em vez de falhar o backup; nesse intervalo o dump pode pausar com o stderr cheio.
+ */
+@Service
+public class JobLogStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobLogStreamService.class);
+    private static final String TOPIC_PREFIX = "/topic/logs/job/";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final JobLogStore logStore;
+    private final int batchMaxLines;
+    private final int maxBufferedLines;
+    private final int segmentMaxLines;
+    private final long segmentIntervalMs;
+    private final ScheduledExecutorService flusher;
+    private final ThreadPoolExecutor readers;
+    private final Map<UUID, LogChannel> channels = new ConcurrentHashMap<>();
+
+    public JobLogStreamService(SimpMessagingTemplate messagingTemplate,
+                               JobLogStore logStore,
+                               @Value("${app.backup.log.flush-interval-ms:250}") long flushIntervalMs,
+                               @Value("${app.backup.log.batch-max-lines:200}") int batchMaxLines,
+                               @Value("${app.backup.log.max-buffered-lines:2000}") int maxBufferedLines,
+                               @Value("${app.execution.max-concurrent-runs:4}") int maxConcurrentRuns,
+                               @Value("${app.backup.log.segment-max-lines:1000}") int segmentMaxLines,
+                               @Value("${app.backup.log.segment-interval-ms:2000}") long segmentIntervalMs) {
+        this.messagingTemplate = messagingTemplate;
+        this.logStore = logStore;
+        this.batchMaxLines = Math.max(1, batchMaxLines);
+        this.maxBufferedLines = Math.max(this.batchMaxLines, maxBufferedLines);
+        this.segmentMaxLines = Math.max(1, segmentMaxLines);
+        this.segmentIntervalMs = segmentIntervalMs;
+
+        CustomizableThreadFactory flusherFactory = new CustomizableThreadFactory("job-log-flush-");
+        flusherFactory.setDaemon(true);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(flusherFactory);
+        this.flusher.scheduleWithFixedDelay(this::flushAll, flushIntervalMs, Math.max(10, flushIntervalMs), TimeUnit.MILLISECONDS);
+
+        CustomizableThreadFactory readerFactory = new CustomizableThreadFactory("job-log-reader-");
+        readerFactory.setDaemon(true);
+        int readerThreads = Math.max(1, maxConcurrentRuns) * 2;
+        this.readers = new ThreadPoolExecutor(readerThreads, readerThreads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), readerFactory);
+        this.readers.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        readers.shutdownNow();
+        channels.values().forEach(LogChannel::finish);
+        channels.clear();
+    }
+
+    public static String topicFor(UUID jobId) {
+        return TOPIC_PREFIX + jobId;
+    }
+
+    /**
+     * Se a execução foi assumida de outro nó, o log continua depois do que a tentativa anterior gravou.
+     */
+    public LogChannel open(UUID jobId, UUID runId) {
+        LogChannel channel = new LogChannel(topicFor(jobId), runId, logStore.nextPosition(runId));
+        channels.put(runId, channel);
+        return channel;
+    }
+
+    public boolean isLive(UUID runId) {
+        return channels.containsKey(runId);
+    }
+
+    /**
+     * Lê o log persistido a partir de {@code offset} e completa com as linhas da execução em andamento
+     * que ainda não formaram um segmento.
+     */
+    public LogSlice replay(UUID runId, long offset, int limit) {
+        LogChannel channel = channels.get(runId);
+        LogSlice pending = channel != null ? channel.pendingSegment() : null;
+
+        LogSlice stored = logStore.read(runId, offset, limit);
+        if (pending == null || stored.lines().size() >= limit) {
+            return stored;
+        }
+
+        long start = stored.lines().isEmpty() ? Math.max(offset, pending.start()) : stored.start();
+        long from = start + stored.lines().size();
+        if (from < pending.start()) {
+            // Lacuna de um segmento que falhou ao gravar; a próxima leitura continua depois dela.
+            return stored;
+        }
+        List<String> lines = new ArrayList<>(stored.lines());
+        for (long i = from; i < pending.end() && lines.size() < limit; i++) {
+            lines.add(pending.lines().get((int) (i - pending.start())));
+        }
+        return new LogSlice(start, lines);
+    }
+
+    /**
+     * Publica linhas já persistidas por uma execução de outro nó, para quem acompanha o log por este nó.
+     */
+    public void relay(UUID jobId, UUID runId, LogSlice slice) {
+        List<String> lines = slice.lines();
+        for (int from = 0; from < lines.size(); from += batchMaxLines) {
+            int to = Math.min(lines.size(), from + batchMaxLines);
+            sendFrame(topicFor(jobId), runId, String.join("\n", lines.subList(from, to)),
+                    slice.start() + from, slice.start() + to - 1);
+        }
+    }
+
+    private void sendFrame(String topic, UUID runId, String frame, long firstOffset, long lastOffset) {
+        Map<String, Object> headers = firstOffset < 0
+                ? Map.of("log-run", runId.toString())
+                : Map.of("log-run", runId.toString(),
+                "log-offset", String.valueOf(firstOffset),
+                "log-next-offset", String.valueOf(lastOffset + 1));
+        try {
+            messagingTemplate.convertAndSend(topic, frame, headers);
+        } catch (MessagingException ignored) {
+            // Sem assinantes ou broker indisponível: o frame ao vivo é descartável, o log fica nos segmentos.
+        }
+    }
+
+    private void flushAll() {
+        for (LogChannel channel : channels.values()) {
+            try {
+                if (channel.isFinished()) {
+                    channel.finish();
+                    channels.remove(channel.runId, channel);
+                } else {
+                    channel.flushBatch();
+                    channel.persistIfStale();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Falha ao publicar log da execução {}: {}", channel.runId, e.getMessage());
+            }
+        }
+    }
+
+    private record LogLine(long offset, String text) {}
+
+    private record PendingSegment(int seq, LogSlice slice) {}
+
+    public class LogChannel implements AutoCloseable {
+
+        private final String topic;
+        private final UUID runId;
+        private final Queue<LogLine> outbound = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger buffered = new AtomicInteger();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicInteger activeReaders = new AtomicInteger();
+        private volatile boolean closed;
+
+        // Protegidos por "this": linhas ainda não gravadas em segmento e segmentos fechados à espera do flusher.
+        private long nextOffset;
+        private long segmentStart;
+        private int segmentSeq;
+        private long lastSegmentAt = System.currentTimeMillis();
+        private final List<String> segment = new ArrayList<>();
+        private final Deque<PendingSegment> unsaved = new ArrayDeque<>();
+
+        private LogChannel(String topic, UUID runId, LogPosition start) {
+            this.topic = topic;
+            this.runId = runId;
+            this.segmentSeq = start.seq();
+            this.segmentStart = start.offset();
+            this.nextOffset = start.offset();
+        }
+
+        /**
+         * Nunca bloqueia quem produz o log por causa do WebSocket nem do banco: com o buffer cheio a linha só
+         * entra no segmento e é contabilizada como omitida no frame, e o segmento cheio é gravado pelo flusher.
+         */
+        public void append(String line) {
+            long offset;
+            PendingSegment full = null;
+            synchronized (this) {
+                offset = nextOffset++;
+                segment.add(line);
+                if (segment.size() >= segmentMaxLines) {
+                    full = cutSegment();
+                }
+            }
+            if (full != null) {
+                persistLater(full);
+            }
+
+            if (buffered.incrementAndGet() > maxBufferedLines) {
+                buffered.decrementAndGet();
+                dropped.incrementAndGet();
+                return;
+            }
+            outbound.add(new LogLine(offset, line));
+        }
+
+        /**
+         * Consome o stream linha a linha em uma thread do pool de leitores até o fim do processo.
+         */
+        public void attach(InputStream stream, String prefix) {
+            activeReaders.incrementAndGet();
+            if (readers.getActiveCount() >= readers.getMaximumPoolSize()) {
+                log.warn("Leitores de log ocupados; o stderr do run {} será lido quando um deles terminar.", runId);
+            }
+            readers.execute(() -> {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        append(prefix + line);
+                    }
+                } catch (IOException | UncheckedIOException ignored) {
+                    // O stream fecha junto com o processo; não há mais nada a publicar.
+                } finally {
+                    activeReaders.decrementAndGet();
+                }
+            });
+        }
+
+        public UUID getRunId() {
+            return runId;
+        }
+
+        /**
+         * Não espera pelos leitores: o último segmento e o último frame saem quando todos os streams anexados terminarem.
+         */
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        private boolean isFinished() {
+            return closed && activeReaders.get() == 0;
+        }
+
+        // Linhas ainda fora do banco: segmentos na fila do flusher seguidos do segmento aberto, sem lacunas.
+        private synchronized LogSlice pendingSegment() {
+            if (unsaved.isEmpty()) {
+                return new LogSlice(segmentStart, List.copyOf(segment));
+            }
+            List<String> lines = new ArrayList<>();
+            unsaved.forEach(pending -> lines.addAll(pending.slice().lines()));
+            lines.addAll(segment);
+            return new LogSlice(unsaved.peekFirst().slice().start(), lines);
+        }
+
+        // Chamado pelo flusher.
+        private void persistIfStale() {
+            PendingSegment stale;
+            synchronized (this) {
+                if (segment.isEmpty() || System.currentTimeMillis() - lastSegmentAt < segmentIntervalMs) {
+                    return;
+                }
+                stale = cutSegment();
+            }
+            store(stale);
+        }
+
+        private PendingSegment cutSegment() {
+            PendingSegment pending = new PendingSegment(segmentSeq, new LogSlice(segmentStart, List.copyOf(segment)));
+            unsaved.addLast(pending);
+            segmentSeq++;
+            segmentStart = nextOffset;
+            segment.clear();
+            lastSegmentAt = System.currentTimeMillis();
+            return pending;
+        }
+
+        private void persistLater(PendingSegment pending) {
+            try {
+                flusher.execute(() -> store(pending));
+            } catch (RejectedExecutionException e) {
+                // Aplicação encerrando: grava aqui mesmo.
+                store(pending);
+            }
+        }
+
+        private void store(PendingSegment pending) {
+            try {
+                logStore.appendSegment(runId, pending.seq(), pending.slice().start(), pending.slice().lines());
+            } catch (RuntimeException e) {
+                log.warn("Falha ao gravar segmento {} do log da execução {}: {}", pending.seq(), runId, e.getMessage());
+            } finally {
+                synchronized (this) {
+                    unsaved.remove(pending);
+                }
+            }
+        }
+
+        private void finish() {
+            PendingSegment last = null;
+            synchronized (this) {
+                if (!segment.isEmpty()) {
+                    last = cutSegment();
+                }
+            }
+            if (last != null) {
+                store(last);
+            }
+            while (!outbound.isEmpty() || dropped.get() > 0) {
+                flushBatch();
+            }
+        }
+
+        private void flushBatch() {
+            StringBuilder frame = new StringBuilder();
+            long firstOffset = -1;
+            long lastOffset = -1;
+            int count = 0;
+            LogLine line;
+            while (count < batchMaxLines && (line = outbound.poll()) != null) {
+                buffered.decrementAndGet();
+                if (count++ > 0) {
+                    frame.append('\n');
+                } else {
+                    firstOffset = line.offset();
+                }
+                lastOffset = line.offset();
+                frame.append(line.text());
+            }
+
+            long skipped = dropped.getAndSet(0);
+            if (skipped > 0) {
+                if (count > 0) {
+                    frame.append('\n');
+                }
+                frame.append("[... ").append(skipped).append(" linhas omitidas ...]");
+            }
+
+            if (frame.length() > 0) {
+                send(frame.toString(), firstOffset, lastOffset);
+            }
+        }
+
+        private void send(String frame, long firstOffset, long lastOffset) {
+            sendFrame(topic, runId, frame, firstOffset, lastOffset);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package br.gov.formosa.backup.shared.infra.service;
+
+import br.gov.formosa.backup.shared.enums.NodeRole;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Identifica esta instância nas tabelas compartilhadas (dono de execuções e de leases).
+ * Sem app.node.id, usa o hostname mais um sufixo aleatório, então um reinício conta como outro nó.
+ * O papel define se o nó dispara os agendamentos (coordenador), executa os runs da fila (worker) ou ambos;
+ * as zonas limitam quais fontes o worker atende.
+ */
+@Component
+public class NodeIdentity {
+
+    private static final String ANY_ZONE = "*";
+
+    private final String nodeId;
+    private final String hostname;
+    private final NodeRole role;
+    private final Set<String> zones;
+    private final boolean anyZone;
+    private final boolean sharedDatabase;
+
+    public NodeIdentity(@Value("${app.node.id:}") String configuredId,
+                        @Value("${app.node.role:ALL}") NodeRole role,
+                        @Value("${app.node.zones:*}") String zones,
+                        @Value("${spring.datasource.url:}") String datasourceUrl) {
+        this.hostname = hostname();
+        this.nodeId = configuredId.isBlank() ? hostname + "-" + UUID.randomUUID().toString().substring(0, 8) : configuredId;
+        this.role = role;
+        this.zones = Arrays.stream(zones.split(","))
+                .map(String::trim)
+                .filter(zone -> !zone.isEmpty() && !zone.equals(ANY_ZONE))
+                .collect(Collectors.toUnmodifiableSet());
+        this.anyZone = Arrays.stream(zones.split(",")).map(String::trim).anyMatch(ANY_ZONE::equals);
+        this.sharedDatabase = !datasourceUrl.toLowerCase(Locale.ROOT).startsWith("jdbc:h2:");
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Máquina deste nó, que continua a mesma entre reinícios; arquivos de spool só valem nela.
+     */
+    public String getHostname() {
+        return hostname;
+    }
+
+    public NodeRole getRole() {
+        return role;
+    }
+
+    public boolean isCoordinator() {
+        return role != NodeRole.WORKER;
+    }
+
+    public boolean isWorker() {
+        return role != NodeRole.COORDINATOR;
+    }
+
+    /**
+     * Zonas atendidas por este worker, além das fontes sem zona. Ignorado quando {@link #servesAnyZone()}.
+     */
+    public Set<String> getZones() {
+        return zones;
+    }
+
+    public boolean servesAnyZone() {
+        return anyZone;
+    }
+
+    /**
+     * Se outros nós podem usar o mesmo banco. Falso com H2, que só atende este processo.
+     */
+    public boolean sharesDatabase() {
+        return sharedDatabase;
+    }
+
+    private static String hostname() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "node";
+        }
+    }
+}
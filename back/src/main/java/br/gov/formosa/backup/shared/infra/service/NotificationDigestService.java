@@ -0,0 +1,187 @@
+package br.gov.formosa.backup.shared.infra.service;
+
+import br.gov.formosa.backup.job.api.dto.NotificationDigestGroup;
+import br.gov.formosa.backup.job.domain.model.NotificationDigestEntry;
+import br.gov.formosa.backup.job.domain.service.SchedulerLeaseService;
+import br.gov.formosa.backup.job.infra.repository.BackupRunRepository;
+import br.gov.formosa.backup.job.infra.repository.NotificationDigestEntryRepository;
+import br.gov.formosa.backup.shared.enums.BackupStatus;
+import br.gov.formosa.backup.shared.enums.RunStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Envia os resumos da política DIGEST: uma mensagem por configuração de e-mail e lista de destinatários, com uma
+ * linha por registro. Um grupo sai quando a janela da execução noturna termina (nenhum run na fila ou executando
+ * há {@code idle-grace-minutes}) ou, com runs ainda ativos, quando o resultado mais antigo passa de
+ * {@code window-minutes}. Os resultados ficam no banco até o envio dar certo, então sobrevivem a reinícios;
+ * só o coordenador que detém o lease envia.
+ */
+@Service
+public class NotificationDigestService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDigestService.class);
+    private static final String DIGEST_LEASE = "notification-digest";
+    private static final Set<RunStatus> ACTIVE_STATUSES = Set.of(RunStatus.QUEUED, RunStatus.RUNNING);
+    private static final int MAX_ATTEMPTS = 3;
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    private final NotificationDigestEntryRepository digestRepository;
+    private final BackupRunRepository runRepository;
+    private final SchedulerLeaseService leaseService;
+    private final NotificationService notificationService;
+    private final boolean coordinator;
+    private final Duration window;
+    private final Duration idleGrace;
+    private final int maxEntries;
+    private final Duration leaseTtl;
+
+    // Grupos com envio na fila de notificações, para a próxima rodada não enviar o mesmo resumo de novo.
+    private final Set<GroupKey> inFlight = ConcurrentHashMap.newKeySet();
+    private final Map<GroupKey, Integer> failures = new ConcurrentHashMap<>();
+
+    public NotificationDigestService(NotificationDigestEntryRepository digestRepository,
+                                     BackupRunRepository runRepository,
+                                     SchedulerLeaseService leaseService,
+                                     NotificationService notificationService,
+                                     NodeIdentity nodeIdentity,
+                                     @Value("${app.notification.digest.window-minutes:60}") long windowMinutes,
+                                     @Value("${app.notification.digest.idle-grace-minutes:5}") long idleGraceMinutes,
+                                     @Value("${app.notification.digest.max-entries:500}") int maxEntries,
+                                     @Value("${app.notification.digest.check-interval-ms:60000}") long checkIntervalMs) {
+        this.digestRepository = digestRepository;
+        this.runRepository = runRepository;
+        this.leaseService = leaseService;
+        this.notificationService = notificationService;
+        this.coordinator = nodeIdentity.isCoordinator();
+        this.window = Duration.ofMinutes(Math.max(1, windowMinutes));
+        this.idleGrace = Duration.ofMinutes(Math.max(0, idleGraceMinutes));
+        this.maxEntries = Math.max(1, maxEntries);
+        // Dois intervalos: o coordenador renova a cada rodada e só perde o lease se parar de rodar.
+        this.leaseTtl = Duration.ofMillis(Math.max(60000, checkIntervalMs * 2));
+    }
+
+    @Scheduled(fixedDelayString = "${app.notification.digest.check-interval-ms:60000}")
+    public void sendDueDigests() {
+        if (!coordinator) {
+            return;
+        }
+        try {
+            List<NotificationDigestGroup> groups = digestRepository.findGroups();
+            if (groups.isEmpty() || !leaseService.tryAcquire(DIGEST_LEASE, leaseTtl)) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            boolean idle = !runRepository.existsByStatusIn(ACTIVE_STATUSES);
+            for (NotificationDigestGroup group : groups) {
+                boolean due = group.count() >= maxEntries
+                        || !group.firstAt().isAfter(now.minus(window))
+                        || (idle && !group.lastAt().isAfter(now.minus(idleGrace)));
+                if (due) {
+                    send(new GroupKey(group.emailConfigId(), group.recipients()));
+                }
+            }
+        } catch (Exception e) {
+            log.error("Falha ao enviar os resumos de notificação: {}", e.getMessage(), e);
+        }
+    }
+
+    private void send(GroupKey key) {
+        if (!inFlight.add(key)) {
+            return;
+        }
+        List<NotificationDigestEntry> entries = digestRepository.findGroup(key.emailConfigId(), key.recipients(), PageRequest.of(0, maxEntries));
+        if (entries.isEmpty()) {
+            inFlight.remove(key);
+            return;
+        }
+        List<UUID> ids = entries.stream().map(NotificationDigestEntry::getId).toList();
+        boolean queued = notificationService.send(key.emailConfigId(), key.recipients().split(","),
+                buildSubject(entries), buildBody(entries), sent -> {
+                    try {
+                        finished(key, ids, sent);
+                    } finally {
+                        inFlight.remove(key);
+                    }
+                });
+        if (!queued) {
+            inFlight.remove(key);
+        }
+    }
+
+    // Resultados enviados saem do banco; depois de MAX_ATTEMPTS falhas seguidas (config excluída, SMTP recusando) também.
+    private void finished(GroupKey key, List<UUID> ids, boolean sent) {
+        if (sent) {
+            failures.remove(key);
+            digestRepository.deleteByIdIn(ids);
+            return;
+        }
+        int attempts = failures.merge(key, 1, Integer::sum);
+        if (attempts >= MAX_ATTEMPTS) {
+            failures.remove(key);
+            digestRepository.deleteByIdIn(ids);
+            log.warn("Resumo de {} resultado(s) para {} descartado após {} tentativas de envio.", ids.size(), key.recipients(), attempts);
+        }
+    }
+
+    private String buildSubject(List<NotificationDigestEntry> entries) {
+        long failed = entries.stream().filter(entry -> entry.getStatus() == BackupStatus.FAILED).count();
+        return String.format("Resumo do Backup: %d execução(ões), %d falha(s)", entries.size(), failed);
+    }
+
+    private String buildBody(List<NotificationDigestEntry> entries) {
+        long failed = entries.stream().filter(entry -> entry.getStatus() == BackupStatus.FAILED).count();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("Resumo das Execuções de Backup\n");
+        sb.append("--------------------------------------------------\n");
+        sb.append(String.format("Período: %s a %s\n",
+                format(entries.get(0).getCreatedAt()), format(entries.get(entries.size() - 1).getCreatedAt())));
+        sb.append(String.format("Total: %d | Sucesso: %d | Falha: %d\n\n", entries.size(), entries.size() - failed, failed));
+
+        for (NotificationDigestEntry entry : entries) {
+            double sizeInMB = (entry.getSizeBytes() != null ? entry.getSizeBytes() : 0) / (1024.0 * 1024.0);
+            sb.append(String.format("%s | %-7s | %s | %s -> %s | %.2f MB\n",
+                    format(entry.getTimestamp()), entry.getStatus(), entry.getJobName(),
+                    valueOrDash(entry.getSourceName()), valueOrDash(entry.getDestinationName()), sizeInMB));
+        }
+
+        if (failed > 0) {
+            sb.append("\n--- FALHAS ---\n");
+            for (NotificationDigestEntry entry : entries) {
+                if (entry.getStatus() == BackupStatus.FAILED) {
+                    sb.append(String.format("\n%s - %s -> %s\n", format(entry.getTimestamp()), entry.getJobName(), valueOrDash(entry.getDestinationName())));
+                    sb.append(valueOrDash(entry.getLogSummary())).append('\n');
+                }
+            }
+        }
+
+        sb.append("\n--------------------------------------------------\n");
+        sb.append("CoreVault Backup System");
+
+        return sb.toString();
+    }
+
+    private static String format(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.format(FORMATTER) : "-";
+    }
+
+    private static String valueOrDash(String value) {
+        return value != null && !value.isBlank() ? value : "-";
+    }
+
+    private record GroupKey(UUID emailConfigId, String recipients) {}
+}
@@ -1,65 +1,210 @@
 package br.gov.formosa.backup.shared.infra.service;
 
+import br.gov.formosa.backup.config.domain.model.BackupDestination;
 import br.gov.formosa.backup.config.domain.service.EmailConfigService;
 import br.gov.formosa.backup.job.domain.model.BackupJob;
 import br.gov.formosa.backup.job.domain.model.BackupRecord;
+import br.gov.formosa.backup.job.domain.model.NotificationDigestEntry;
+import br.gov.formosa.backup.job.infra.repository.NotificationDigestEntryRepository;
 import br.gov.formosa.backup.config.domain.model.EmailConfig;
 import br.gov.formosa.backup.shared.enums.BackupStatus;
 import br.gov.formosa.backup.shared.enums.NotificationPolicy;
-import lombok.RequiredArgsConstructor;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.JavaMailSenderImpl;
-import org.springframework.scheduling.annotation.Async;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Properties;
-
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Envia as notificações de backup numa fila própria e limitada: poucos envios simultâneos, pelas conexões do
+ * {@link SmtpTransportPool}. Quando muitos jobs falham juntos, as mensagens esperam na fila em vez de abrir uma
+ * sessão SMTP cada; se a fila encher, as excedentes são descartadas com aviso no log.
+ * Jobs com {@link NotificationPolicy#DIGEST} não enviam na hora: o resultado vai para o resumo enviado pelo
+ * {@link NotificationDigestService}.
+ */
 @Service
-@RequiredArgsConstructor
 public class NotificationService {
 
+    private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
+
     private final EmailConfigService emailConfigService;
+    private final SmtpTransportPool transportPool;
+    private final NotificationDigestEntryRepository digestRepository;
+    private final boolean digestImmediateFailures;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile long lastReportedTotal;
+
+    public NotificationService(EmailConfigService emailConfigService,
+                               SmtpTransportPool transportPool,
+                               NotificationDigestEntryRepository digestRepository,
+                               @Value("${app.notification.max-threads:2}") int maxThreads,
+                               @Value("${app.notification.queue-capacity:500}") int queueCapacity,
+                               @Value("${app.notification.digest.immediate-failures:false}") boolean digestImmediateFailures) {
+        this.emailConfigService = emailConfigService;
+        this.transportPool = transportPool;
+        this.digestRepository = digestRepository;
+        this.digestImmediateFailures = digestImmediateFailures;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("notification-");
+        threadFactory.setDaemon(true);
+        int threads = Math.max(1, maxThreads);
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity), threadFactory);
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("{} notificação(ões) pendente(s) não enviada(s) no encerramento.", executor.shutdownNow().size());
+        }
+    }
 
-    @Async
+    /**
+     * Monta a mensagem agora (o job vem carregado da execução) e enfileira o envio. Na política DIGEST o
+     * resultado é guardado para o resumo; falhas também saem na hora se {@code digest.immediate-failures}.
+     */
     public void sendBackupNotification(BackupJob job, BackupRecord record) {
         if (!shouldSend(job, record.getStatus())) {
             return;
         }
 
         if (job.getEmailConfig() == null || job.getEmailConfig().getId() == null) {
-            System.err.println("Job " + job.getName() + " configurado para notificar, mas nenhum EmailConfig foi associado.");
+            log.warn("Job {} configurado para notificar, mas nenhum EmailConfig foi associado.", job.getName());
             return;
         }
 
+        UUID configId = job.getEmailConfig().getId();
+        String[] recipients = getRecipients(job);
+        if (job.getNotificationPolicy() == NotificationPolicy.DIGEST) {
+            addToDigest(job, record, configId, recipients);
+            if (!digestImmediateFailures || record.getStatus() != BackupStatus.FAILED) {
+                return;
+            }
+        }
+
+        EmailConfig loaded = Hibernate.isInitialized(job.getEmailConfig()) ? job.getEmailConfig() : null;
+        String subject = String.format("Status do Backup: %s - %s", record.getStatus(), job.getName());
+        String body = buildEmailBody(job, record);
+        enqueue("do job " + job.getName(), configId, loaded, recipients, subject, body, null);
+    }
+
+    /**
+     * Enfileira uma mensagem já montada. {@code onDone} recebe se o envio deu certo; devolve false (sem chamar
+     * {@code onDone}) quando a fila está cheia.
+     */
+    public boolean send(UUID configId, String[] recipients, String subject, String body, Consumer<Boolean> onDone) {
+        return enqueue("\"" + subject + "\"", configId, null, recipients, subject, body, onDone);
+    }
+
+    private boolean enqueue(String description, UUID configId, EmailConfig loaded, String[] recipients,
+                            String subject, String body, Consumer<Boolean> onDone) {
         try {
-            EmailConfig config = emailConfigService.findById(job.getEmailConfig().getId());
+            executor.execute(() -> {
+                boolean ok = false;
+                try {
+                    EmailConfig config = loaded != null ? loaded : emailConfigService.findById(configId);
+                    transportPool.send(config, recipients, subject, body);
+                    sent.incrementAndGet();
+                    ok = true;
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    log.warn("Falha ao enviar e-mail de notificação {}: {}", description, e.getMessage());
+                }
+                if (onDone != null) {
+                    onDone.accept(ok);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            log.warn("Fila de notificações cheia ({} pendentes); notificação {} descartada.", getQueueDepth(), description);
+            return false;
+        }
+    }
 
-            JavaMailSender mailSender = createDynamicMailSender(config);
-            String from = config.getUsername();
+    private void addToDigest(BackupJob job, BackupRecord record, UUID configId, String[] recipients) {
+        try {
+            digestRepository.save(NotificationDigestEntry.builder()
+                    .emailConfigId(configId)
+                    .recipients(normalizeRecipients(recipients))
+                    .recordId(record.getId())
+                    .jobName(job.getName())
+                    .sourceName(job.getSource().getName())
+                    .destinationName(destinationName(job, record))
+                    .status(record.getStatus())
+                    .timestamp(record.getTimestamp())
+                    .sizeBytes(record.getSizeBytes())
+                    .logSummary(record.getStatus() == BackupStatus.FAILED ? record.getLogSummary() : null)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        } catch (RuntimeException e) {
+            log.warn("Falha ao guardar o resultado do job {} para o resumo de notificações: {}", job.getName(), e.getMessage());
+        }
+    }
 
-            SimpleMailMessage message = createMailMessage(job, record, from);
-            mailSender.send(message);
-        } catch (Exception e) {
-            System.err.println("Falha ao enviar e-mail de notificação: " + e.getMessage());
+    private String destinationName(BackupJob job, BackupRecord record) {
+        if (record.getDestinationId() == null || !Hibernate.isInitialized(job.getDestinations())) {
+            return null;
         }
+        return job.getDestinations().stream()
+                .filter(destination -> record.getDestinationId().equals(destination.getId()))
+                .map(BackupDestination::getName)
+                .findFirst()
+                .orElse(null);
     }
 
-    private JavaMailSender createDynamicMailSender(EmailConfig config) {
-        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
-        mailSender.setHost(config.getHost());
-        mailSender.setPort(config.getPort());
-        mailSender.setUsername(config.getUsername());
+    // A mesma lista escrita em outra ordem ou caixa cai no mesmo resumo.
+    private static String normalizeRecipients(String[] recipients) {
+        return Arrays.stream(recipients)
+                .map(address -> address.trim().toLowerCase(Locale.ROOT))
+                .filter(address -> !address.isEmpty())
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
 
-        mailSender.setPassword(config.getPassword());
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
 
-        Properties props = mailSender.getJavaMailProperties();
-        props.put("mail.transport.protocol", "smtp");
-        props.put("mail.smtp.auth", "true");
-        props.put("mail.smtp.starttls.enable", "true");
+    public long getRejectedCount() {
+        return rejected.get();
+    }
 
-        return mailSender;
+    // Resumo periódico, só quando houve movimento desde o anterior.
+    @Scheduled(fixedDelayString = "${app.notification.stats-interval-ms:60000}")
+    public void logStats() {
+        long total = sent.get() + failed.get() + rejected.get();
+        int depth = getQueueDepth();
+        if (total == lastReportedTotal && depth == 0) {
+            return;
+        }
+        lastReportedTotal = total;
+        log.info("Notificações: {} enviada(s), {} falha(s), {} descartada(s); fila {}/{}, {} em envio.",
+                sent.get(), failed.get(), rejected.get(), depth, queueCapacity, executor.getActiveCount());
     }
 
     private boolean shouldSend(BackupJob job, BackupStatus status) {
@@ -69,7 +214,7 @@ public class NotificationService {
         if (job.getNotificationRecipients() == null || job.getNotificationRecipients().isBlank()) {
             return false;
         }
-        if (job.getNotificationPolicy() == NotificationPolicy.ALWAYS) {
+        if (job.getNotificationPolicy() == NotificationPolicy.ALWAYS || job.getNotificationPolicy() == NotificationPolicy.DIGEST) {
             return true;
         }
         if (job.getNotificationPolicy() == NotificationPolicy.ON_FAILURE && status == BackupStatus.FAILED) {
@@ -82,21 +227,6 @@ public class NotificationService {
         return job.getNotificationRecipients().split("[,;\\s]+");
     }
 
-    private SimpleMailMessage createMailMessage(BackupJob job, BackupRecord record, String from) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(from);
-        message.setTo(getRecipients(job));
-
-        String statusStr = record.getStatus().toString();
-        String subject = String.format("Status do Backup: %s - %s", statusStr, job.getName());
-
-        String body = buildEmailBody(job, record);
-
-        message.setSubject(subject);
-        message.setText(body);
-        return message;
-    }
-
     private String buildEmailBody(BackupJob job, BackupRecord record) {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy 'às' HH:mm:ss");
 
@@ -0,0 +1,197 @@
+package br.gov.formosa.backup.shared.infra.service;
+
+import br.gov.formosa.backup.config.domain.model.EmailConfig;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.apache.commons.pool2.BaseKeyedPooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPoolConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Conexões SMTP já autenticadas (STARTTLS), reaproveitadas para várias mensagens da mesma configuração de
+ * e-mail. A chave inclui o id e as credenciais da configuração: uma edição passa a usar conexões novas, e as
+ * antigas saem do pool pela expiração por ociosidade. Cada conexão envia no máximo
+ * {@code max-messages-per-connection} mensagens, limite comum em relays.
+ */
+@Service
+public class SmtpTransportPool {
+
+    private static final Logger log = LoggerFactory.getLogger(SmtpTransportPool.class);
+
+    private final GenericKeyedObjectPool<SmtpKey, SmtpSession> pool;
+    private final int timeoutMs;
+    private final int maxMessagesPerConnection;
+
+    public SmtpTransportPool(@Value("${app.notification.smtp.pool.max-per-config:2}") int maxPerConfig,
+                             @Value("${app.notification.smtp.pool.max-idle-time-ms:60000}") long maxIdleTimeMs,
+                             @Value("${app.notification.smtp.pool.max-wait-ms:30000}") long maxWaitMs,
+                             @Value("${app.notification.smtp.max-messages-per-connection:100}") int maxMessagesPerConnection,
+                             @Value("${app.notification.smtp.timeout-ms:10000}") int timeoutMs) {
+        this.timeoutMs = timeoutMs;
+        this.maxMessagesPerConnection = Math.max(1, maxMessagesPerConnection);
+
+        GenericKeyedObjectPoolConfig<SmtpSession> config = new GenericKeyedObjectPoolConfig<>();
+        config.setMaxTotalPerKey(Math.max(1, maxPerConfig));
+        config.setMaxIdlePerKey(Math.max(1, maxPerConfig));
+        config.setMaxWait(Duration.ofMillis(maxWaitMs));
+        config.setTestOnBorrow(true);
+        config.setTestWhileIdle(true);
+        config.setMinEvictableIdleDuration(Duration.ofMillis(maxIdleTimeMs));
+        config.setTimeBetweenEvictionRuns(Duration.ofMillis(Math.max(1000, maxIdleTimeMs / 2)));
+        config.setJmxEnabled(false);
+        this.pool = new GenericKeyedObjectPool<>(new SmtpSessionFactory(), config);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.close();
+    }
+
+    /**
+     * Envia por uma conexão do pool. Se a conexão reaproveitada tiver caído (o servidor encerra conexões
+     * ociosas), a mensagem é reenviada uma vez por uma conexão nova; destinatários recusados não são reenviados.
+     */
+    public void send(EmailConfig config, String[] recipients, String subject, String body) throws MessagingException {
+        SmtpKey key = keyFor(config);
+        for (int attempt = 1; ; attempt++) {
+            SmtpSession session = borrow(key);
+            boolean healthy = false;
+            try {
+                MimeMessage message = new MimeMessage(session.session());
+                message.setFrom(new InternetAddress(config.getUsername()));
+                message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(String.join(",", recipients)));
+                message.setSubject(subject, "UTF-8");
+                message.setText(body, "UTF-8");
+                message.setSentDate(new Date());
+                message.saveChanges();
+                session.transport().sendMessage(message, message.getAllRecipients());
+                session.messagesSent++;
+                healthy = true;
+                return;
+            } catch (SendFailedException e) {
+                healthy = session.transport().isConnected();
+                throw e;
+            } catch (MessagingException e) {
+                if (attempt >= 2) {
+                    throw e;
+                }
+                log.debug("Conexão SMTP com {} falhou ({}); reenviando por uma nova.", key, e.getMessage());
+            } finally {
+                release(key, session, healthy);
+            }
+        }
+    }
+
+    private SmtpSession borrow(SmtpKey key) throws MessagingException {
+        try {
+            return pool.borrowObject(key);
+        } catch (MessagingException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new MessagingException("Falha ao obter conexão SMTP com " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void release(SmtpKey key, SmtpSession session, boolean healthy) {
+        if (healthy && session.messagesSent < maxMessagesPerConnection) {
+            pool.returnObject(key, session);
+            return;
+        }
+        try {
+            pool.invalidateObject(key, session);
+        } catch (Exception ignored) {
+            // destroyObject já encerra a conexão.
+        }
+    }
+
+    // Abre e autentica a conexão; separado para que os testes troquem o Transport.
+    Transport connect(Session session, String host, int port, String username, String password) throws MessagingException {
+        Transport transport = session.getTransport("smtp");
+        transport.connect(host, port, username, password);
+        return transport;
+    }
+
+    private SmtpKey keyFor(EmailConfig config) {
+        return new SmtpKey(config.getId(), config.getHost(), config.getPort(), config.getUsername(), config.getPassword());
+    }
+
+    private record SmtpKey(UUID configId, String host, int port, String username, String password) {
+
+        @Override
+        public String toString() {
+            return username + "@" + host + ":" + port;
+        }
+    }
+
+    private static final class SmtpSession {
+        private final Session session;
+        private final Transport transport;
+        private int messagesSent;
+
+        private SmtpSession(Session session, Transport transport) {
+            this.session = session;
+            this.transport = transport;
+        }
+
+        Session session() {
+            return session;
+        }
+
+        Transport transport() {
+            return transport;
+        }
+    }
+
+    private class SmtpSessionFactory extends BaseKeyedPooledObjectFactory<SmtpKey, SmtpSession> {
+
+        @Override
+        public SmtpSession create(SmtpKey key) throws MessagingException {
+            Properties props = new Properties();
+            props.put("mail.transport.protocol", "smtp");
+            props.put("mail.smtp.auth", "true");
+            props.put("mail.smtp.starttls.enable", "true");
+            props.put("mail.smtp.connectiontimeout", String.valueOf(timeoutMs));
+            props.put("mail.smtp.timeout", String.valueOf(timeoutMs));
+            props.put("mail.smtp.writetimeout", String.valueOf(timeoutMs));
+            Session session = Session.getInstance(props);
+            return new SmtpSession(session, connect(session, key.host(), key.port(), key.username(), key.password()));
+        }
+
+        @Override
+        public PooledObject<SmtpSession> wrap(SmtpSession session) {
+            return new DefaultPooledObject<>(session);
+        }
+
+        // isConnected envia um NOOP; conexões encerradas pelo servidor são descartadas antes do uso.
+        @Override
+        public boolean validateObject(SmtpKey key, PooledObject<SmtpSession> pooled) {
+            return pooled.getObject().transport().isConnected();
+        }
+
+        @Override
+        public void destroyObject(SmtpKey key, PooledObject<SmtpSession> pooled) {
+            try {
+                pooled.getObject().transport().close();
+            } catch (MessagingException ignored) {
+                // A conexão será descartada de qualquer forma.
+            }
+        }
+    }
+}
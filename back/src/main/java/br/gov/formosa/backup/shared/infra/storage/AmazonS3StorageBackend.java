@@ -0,0 +1,34 @@
+package br.gov.formosa.backup.shared.infra.storage;
+
+import br.gov.formosa.backup.shared.enums.BackupType;
+import br.gov.formosa.backup.shared.enums.StorageCapability;
+import br.gov.formosa.backup.shared.infra.service.CloudStorageClientCache;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+@Component
+public class AmazonS3StorageBackend extends ObjectStorageBackend {
+
+    private static final Set<StorageCapability> CAPABILITIES = EnumSet.of(
+            StorageCapability.FILE_UPLOAD,
+            StorageCapability.MULTIPART_UPLOAD,
+            StorageCapability.RANGED_READ,
+            StorageCapability.SERVER_SIDE_COPY,
+            StorageCapability.BATCH_DELETE);
+
+    public AmazonS3StorageBackend(CloudStorageClientCache cloudClients) {
+        super(cloudClients);
+    }
+
+    @Override
+    public BackupType type() {
+        return BackupType.AMAZON_S3;
+    }
+
+    @Override
+    public Set<StorageCapability> capabilities() {
+        return CAPABILITIES;
+    }
+}
@@ -0,0 +1,247 @@
+package br.gov.formosa.backup.shared.infra.storage;
+
+import br.gov.formosa.backup.config.domain.model.BackupDestination;
+import br.gov.formosa.backup.shared.dto.TestConnectionDTO;
+import br.gov.formosa.backup.shared.enums.BackupType;
+import br.gov.formosa.backup.shared.enums.StorageCapability;
+import br.gov.formosa.backup.shared.infra.service.FtpConnectionPool;
+import br.gov.formosa.backup.shared.infra.service.FtpConnectionPool.FtpSession;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.net.ftp.FTPFile;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Servidor FTP acessado pelas conexões do {@link FtpConnectionPool}. Os caminhos são relativos ao diretório inicial do login.
+ */
+@Component
+@RequiredArgsConstructor
+public class FtpStorageBackend implements StorageBackend {
+
+    private final FtpConnectionPool ftpPool;
+
+    @Override
+    public BackupType type() {
+        return BackupType.FTP;
+    }
+
+    @Override
+    public Set<StorageCapability> capabilities() {
+        return EnumSet.noneOf(StorageCapability.class);
+    }
+
+    @Override
+    public void testConnection(TestConnectionDTO dto) throws IOException {
+        FtpConnectionPool.disconnectQuietly(ftpPool.connect(dto.endpoint(), dto.accessKey(), dto.secretKey()));
+    }
+
+    @Override
+    public String write(BackupDestination destination, String path, InputStream data) throws IOException {
+        return ftpPool.execute(destination, session -> {
+            FTPClient ftpClient = session.client();
+            ensureDirectoryExists(session, path);
+            OutputStream remoteStream = ftpClient.storeFileStream(path);
+            if (remoteStream == null) {
+                throw new IOException("Falha ao abrir stream de escrita no FTP. Resposta: " + ftpClient.getReplyString());
+            }
+            IOException transferError = null;
+            try (remoteStream) {
+                data.transferTo(remoteStream);
+            } catch (IOException e) {
+                transferError = e;
+            }
+            boolean completed = ftpClient.completePendingCommand();
+            if (transferError != null) {
+                ftpClient.deleteFile(path);
+                throw transferError;
+            }
+            if (!completed) {
+                throw new IOException("Falha ao finalizar arquivo no FTP. Resposta: " + ftpClient.getReplyString());
+            }
+            return path;
+        });
+    }
+
+    @Override
+    public String writeFile(BackupDestination destination, String path, Path file) throws IOException {
+        return ftpPool.execute(destination, session -> {
+            try (InputStream fileStream = Files.newInputStream(file)) {
+                ensureDirectoryExists(session, path);
+                boolean done = session.client().storeFile(path, fileStream);
+                if (!done) {
+                    throw new IOException("Falha ao salvar arquivo no FTP. Resposta: " + session.client().getReplyString());
+                }
+                return path;
+            }
+        });
+    }
+
+    /**
+     * A conexão fica emprestada enquanto o stream estiver aberto e volta ao pool no close.
+     */
+    @Override
+    public InputStream openRead(BackupDestination destination, String path) throws IOException {
+        FtpSession session = ftpPool.borrow(destination);
+        InputStream remoteStream;
+        try {
+            remoteStream = session.client().retrieveFileStream(path);
+        } catch (IOException | RuntimeException e) {
+            ftpPool.release(destination, session, false);
+            throw e;
+        }
+        if (remoteStream == null) {
+            String reply = session.client().getReplyString();
+            ftpPool.release(destination, session, false);
+            throw new IOException("Falha ao abrir arquivo do FTP. Resposta: " + reply);
+        }
+
+        return new FilterInputStream(remoteStream) {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                boolean completed = false;
+                try {
+                    super.close();
+                    completed = session.client().completePendingCommand();
+                } finally {
+                    ftpPool.release(destination, session, completed);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void download(BackupDestination destination, String path, Path target) throws IOException {
+        ftpPool.execute(destination, session -> {
+            try (OutputStream outputStream = Files.newOutputStream(target)) {
+                boolean success = session.client().retrieveFile(path, outputStream);
+                if (!success) {
+                    throw new IOException("Falha ao baixar arquivo do FTP. Resposta: " + session.client().getReplyString());
+                }
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public void delete(BackupDestination destination, String path) throws IOException {
+        ftpPool.execute(destination, session -> {
+            if (!session.client().deleteFile(path)) {
+                throw new IOException("Falha ao excluir arquivo do FTP. Resposta: " + session.client().getReplyString());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Todas as exclusões na mesma conexão do pool. Se a conexão cair, o que não foi processado conta como falha.
+     */
+    @Override
+    public List<String> deleteAll(BackupDestination destination, Collection<String> paths) {
+        List<String> pending = List.copyOf(paths);
+        List<String> failed = new ArrayList<>();
+        int[] processed = {0};
+        try {
+            ftpPool.execute(destination, session -> {
+                for (String path : pending) {
+                    if (!session.client().deleteFile(path)) {
+                        failed.add(path);
+                    }
+                    processed[0]++;
+                }
+                return null;
+            });
+        } catch (IOException | RuntimeException e) {
+            failed.addAll(pending.subList(processed[0], pending.size()));
+        }
+        return failed;
+    }
+
+    @Override
+    public List<StorageObject> list(BackupDestination destination, String prefix) throws IOException {
+        String normalized = prefix == null ? "" : prefix;
+        String directory = normalized.contains("/") ? normalized.substring(0, normalized.lastIndexOf('/')) : "";
+        return ftpPool.execute(destination, session -> {
+            List<StorageObject> objects = new ArrayList<>();
+            collect(session.client(), directory, normalized, objects);
+            return objects;
+        });
+    }
+
+    private void collect(FTPClient ftpClient, String directory, String prefix, List<StorageObject> objects) throws IOException {
+        for (FTPFile entry : ftpClient.listFiles(directory)) {
+            String name = entry.getName();
+            if (name.equals(".") || name.equals("..")) {
+                continue;
+            }
+            String path = directory.isEmpty() ? name : directory + "/" + name;
+            if (entry.isDirectory()) {
+                if (prefix.startsWith(path + "/") || path.startsWith(prefix)) {
+                    collect(ftpClient, path, prefix, objects);
+                }
+            } else if (path.startsWith(prefix)) {
+                objects.add(toObject(path, entry));
+            }
+        }
+    }
+
+    @Override
+    public Optional<StorageObject> stat(BackupDestination destination, String path) throws IOException {
+        return ftpPool.execute(destination, session -> {
+            FTPFile[] entries = session.client().listFiles(path);
+            return Arrays.stream(entries)
+                    .filter(FTPFile::isFile)
+                    .findFirst()
+                    .map(entry -> toObject(path, entry));
+        });
+    }
+
+    private StorageObject toObject(String path, FTPFile entry) {
+        return new StorageObject(path, entry.getSize(),
+                entry.getTimestamp() != null ? entry.getTimestamp().toInstant() : null);
+    }
+
+    // Cria os diretórios do caminho e volta ao diretório inicial, onde o caminho relativo é resolvido.
+    private void ensureDirectoryExists(FtpSession session, String remotePath) throws IOException {
+        FTPClient ftpClient = session.client();
+        String[] directories = remotePath.split("/");
+        if (directories.length > 1) {
+            String[] dirsToCreate = Arrays.copyOf(directories, directories.length - 1);
+            for (String dir : dirsToCreate) {
+                if (!dir.isEmpty()) {
+                    boolean dirExists = ftpClient.changeWorkingDirectory(dir);
+                    if (!dirExists) {
+                        if (!ftpClient.makeDirectory(dir)) {
+                            throw new IOException("Falha ao criar diretório FTP: " + dir);
+                        }
+                        if (!ftpClient.changeWorkingDirectory(dir)) {
+                            throw new IOException("Falha ao entrar no diretório FTP: " + dir);
+                        }
+                    }
+                }
+            }
+            if (session.homeDirectory() != null) {
+                ftpClient.changeWorkingDirectory(session.homeDirectory());
+            }
+        }
+    }
+}
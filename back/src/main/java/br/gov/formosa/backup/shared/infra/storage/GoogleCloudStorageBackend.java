@@ -0,0 +1,36 @@
+package br.gov.formosa.backup.shared.infra.storage;
+
+import br.gov.formosa.backup.shared.enums.BackupType;
+import br.gov.formosa.backup.shared.enums.StorageCapability;
+import br.gov.formosa.backup.shared.infra.service.CloudStorageClientCache;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * GCS pela API XML compatível com S3. A interoperabilidade não aceita DeleteObjects, então não há exclusão em lote.
+ */
+@Component
+public class GoogleCloudStorageBackend extends ObjectStorageBackend {
+
+    private static final Set<StorageCapability> CAPABILITIES = EnumSet.of(
+            StorageCapability.FILE_UPLOAD,
+            StorageCapability.MULTIPART_UPLOAD,
+            StorageCapability.RANGED_READ,
+            StorageCapability.SERVER_SIDE_COPY);
+
+    public GoogleCloudStorageBackend(CloudStorageClientCache cloudClients) {
+        super(cloudClients);
+    }
+
+    @Override
+    public BackupType type() {
+        return BackupType.GOOGLE_CLOUD_STORAGE;
+    }
+
+    @Override
+    public Set<StorageCapability> capabilities() {
+        return CAPABILITIES;
+    }
+}
@@ -0,0 +1,257 @@
+package br.gov.formosa.backup.shared.infra.storage;
+
+import br.gov.formosa.backup.config.domain.model.BackupDestination;
+import br.gov.formosa.backup.shared.dto.TestConnectionDTO;
+import br.gov.formosa.backup.shared.enums.BackupType;
+import br.gov.formosa.backup.shared.enums.FsyncPolicy;
+import br.gov.formosa.backup.shared.enums.StorageCapability;
+import br.gov.formosa.backup.shared.exception.GlobalBackupException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Diretório local ou montado (NFS, SMB). O endpoint do destino é o diretório base.
+ */
+@Component
+public class LocalDiskStorageBackend implements StorageBackend {
+
+    private static final Set<StorageCapability> CAPABILITIES = EnumSet.of(
+            StorageCapability.FILE_UPLOAD,
+            StorageCapability.SERVER_SIDE_COPY);
+    private static final long LOCAL_TRANSFER_CHUNK = 8L * 1024 * 1024;
+
+    private final ExecutorService deletePool;
+    private final int deleteConcurrency;
+
+    @Value("${app.storage.local.fsync:FILE}")
+    private FsyncPolicy fsyncPolicy;
+
+    public LocalDiskStorageBackend(@Value("${app.storage.transfer.concurrency:4}") int concurrency) {
+        this.deleteConcurrency = Math.max(1, concurrency);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("storage-local-delete-");
+        threadFactory.setDaemon(true);
+        this.deletePool = Executors.newCachedThreadPool(threadFactory);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deletePool.shutdownNow();
+    }
+
+    @Override
+    public BackupType type() {
+        return BackupType.LOCAL_DISK;
+    }
+
+    @Override
+    public Set<StorageCapability> capabilities() {
+        return CAPABILITIES;
+    }
+
+    @Override
+    public void testConnection(TestConnectionDTO dto) throws IOException {
+        File localDir = new File(dto.endpoint());
+        if (!localDir.exists()) {
+            if (!localDir.mkdirs()) {
+                throw new IOException("Falha ao criar diretório local: " + dto.endpoint());
+            }
+        }
+        if (!localDir.canWrite()) {
+            throw new IOException("Sem permissão de escrita no diretório: " + dto.endpoint());
+        }
+        localDir.delete();
+    }
+
+    @Override
+    public String write(BackupDestination destination, String path, InputStream data) throws IOException {
+        Path destPath = resolve(destination, path);
+        Files.createDirectories(destPath.getParent());
+        Path partial = destPath.resolveSibling(destPath.getFileName() + ".part");
+
+        try {
+            try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ReadableByteChannel sourceChannel = Channels.newChannel(data);
+                long position = 0;
+                long transferred;
+                while ((transferred = channel.transferFrom(sourceChannel, position, LOCAL_TRANSFER_CHUNK)) > 0) {
+                    position += transferred;
+                }
+                if (fsyncPolicy != FsyncPolicy.NONE) {
+                    channel.force(true);
+                }
+            }
+            commit(partial, destPath, fsyncPolicy);
+        } catch (IOException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        return destPath.toString();
+    }
+
+    @Override
+    public String writeFile(BackupDestination destination, String path, Path file) throws IOException {
+        Path destPath = resolve(destination, path);
+        place(file, destPath, fsyncPolicy);
+        return destPath.toString();
+    }
+
+    @Override
+    public InputStream openRead(BackupDestination destination, String path) throws IOException {
+        Path sourcePath = resolve(destination, path);
+        try {
+            return new BufferedInputStream(Files.newInputStream(sourcePath), 1024 * 1024);
+        } catch (NoSuchFileException e) {
+            throw notFound(sourcePath);
+        }
+    }
+
+    @Override
+    public void download(BackupDestination destination, String path, Path target) throws IOException {
+        Path sourcePath = resolve(destination, path);
+        if (!Files.exists(sourcePath)) {
+            throw notFound(sourcePath);
+        }
+        place(sourcePath, target, FsyncPolicy.NONE);
+    }
+
+    @Override
+    public void delete(BackupDestination destination, String path) throws IOException {
+        Files.deleteIfExists(resolve(destination, path));
+    }
+
+    /**
+     * Em volumes de rede cada unlink é uma ida ao servidor; em paralelo as latências se sobrepõem.
+     */
+    @Override
+    public List<String> deleteAll(BackupDestination destination, Collection<String> paths) {
+        return ParallelDeletes.run(deletePool, deleteConcurrency, paths, path -> Files.deleteIfExists(resolve(destination, path)));
+    }
+
+    @Override
+    public List<StorageObject> list(BackupDestination destination, String prefix) throws IOException {
+        Path base = Path.of(destination.getEndpoint());
+        if (!Files.isDirectory(base)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(base)) {
+            return files.filter(Files::isRegularFile)
+                    .map(file -> base.relativize(file).toString().replace(File.separatorChar, '/'))
+                    .filter(relative -> prefix == null || relative.startsWith(prefix))
+                    .map(relative -> toObject(relative, base.resolve(relative)))
+                    .flatMap(Optional::stream)
+                    .toList();
+        }
+    }
+
+    @Override
+    public Optional<StorageObject> stat(BackupDestination destination, String path) {
+        return toObject(path, resolve(destination, path));
+    }
+
+    @Override
+    public String copy(BackupDestination destination, String sourcePath, String targetPath) throws IOException {
+        Path target = resolve(destination, targetPath);
+        place(resolve(destination, sourcePath), target, fsyncPolicy);
+        return target.toString();
+    }
+
+    private Optional<StorageObject> toObject(String path, Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return Optional.of(new StorageObject(path, attributes.size(), attributes.lastModifiedTime().toInstant()));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private Path resolve(BackupDestination destination, String remotePath) {
+        Path path = Path.of(remotePath);
+        return path.isAbsolute() ? path : Path.of(destination.getEndpoint()).resolve(remotePath);
+    }
+
+    private GlobalBackupException notFound(Path path) {
+        return new GlobalBackupException("Arquivo não encontrado no disco local: " + path.toAbsolutePath(), HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Coloca uma cópia de {@code source} em {@code target}. No mesmo sistema de arquivos é só um hard link
+     * (nenhum byte copiado); entre volumes a cópia é feita pelo kernel com transferTo. Nos dois casos o arquivo
+     * nasce como .part e só recebe o nome final com um rename atômico, depois do fsync exigido pela política.
+     */
+    private void place(Path source, Path target, FsyncPolicy fsync) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        Files.deleteIfExists(partial);
+
+        try {
+            try {
+                Files.createLink(partial, source);
+                if (fsync != FsyncPolicy.NONE) {
+                    forceFile(partial);
+                }
+            } catch (FileSystemException | UnsupportedOperationException e) {
+                copyWithTransferTo(source, partial, fsync);
+            }
+            commit(partial, target, fsync);
+        } catch (IOException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+    }
+
+    private void copyWithTransferTo(Path source, Path target, FsyncPolicy fsync) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, Math.min(LOCAL_TRANSFER_CHUNK, size - position), out);
+            }
+            if (fsync != FsyncPolicy.NONE) {
+                out.force(true);
+            }
+        }
+    }
+
+    private void commit(Path partial, Path target, FsyncPolicy fsync) throws IOException {
+        Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        if (fsync == FsyncPolicy.DIRECTORY) {
+            // Garante que o rename sobreviva a uma queda de energia (Linux permite fsync em diretórios).
+            try (FileChannel directory = FileChannel.open(target.getParent(), StandardOpenOption.READ)) {
+                directory.force(true);
+            }
+        }
+    }
+
+    private void forceFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+}
@@ -0,0 +1,533 @@
+package br.gov.formosa.backup.shared.infra.storage;
+
+import br.gov.formosa.backup.config.domain.model.BackupDestination;
+import br.gov.formosa.backup.shared.dto.TestConnectionDTO;
+import br.gov.formosa.backup.shared.enums.StorageCapability;
+import br.gov.formosa.backup.shared.infra.service.CloudStorageClientCache;
+import br.gov.formosa.backup.shared.infra.service.CloudStorageClientCache.ClientLease;
+import br.gov.formosa.backup.shared.infra.stream.RangedPrefetchInputStream;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.*;
+import com.amazonaws.services.s3.transfer.Transfer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Base para destinos acessados pela API S3 (AWS e GCS em modo de interoperabilidade).
+ * O bucket é o endpoint do destino.
+ */
+public abstract class ObjectStorageBackend implements StorageBackend {
+
+    private static final int MAX_KEYS_PER_DELETE = 1000;
+    private static final long MIB = 1024 * 1024;
+    // Limite de partes de um multipart no S3 e no GCS.
+    static final int MAX_PARTS = 10_000;
+    // No upload em stream o tamanho final é desconhecido: a parte dobra a cada PARTS_PER_STEP partes, até
+    // MAX_STREAMING_PART_SIZE. Com partes de 16 MB isso comporta cerca de 1 TB antes do limite de partes.
+    static final int PARTS_PER_STEP = 2_000;
+    static final int MAX_STREAMING_PART_SIZE = 512 * 1024 * 1024;
+
+    protected final CloudStorageClientCache cloudClients;
+    private final ExecutorService transferPool;
+
+    @Value("${app.storage.multipart.part-size-bytes:16777216}")
+    private int multipartPartSize;
+
+    @Value("${app.storage.download.range-size-bytes:16777216}")
+    private int downloadRangeSize;
+
+    protected ObjectStorageBackend(CloudStorageClientCache cloudClients) {
+        this.cloudClients = cloudClients;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("storage-transfer-" + type().name().toLowerCase() + "-");
+        threadFactory.setDaemon(true);
+        this.transferPool = Executors.newCachedThreadPool(threadFactory);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        transferPool.shutdownNow();
+    }
+
+    @Override
+    public void testConnection(TestConnectionDTO dto) {
+        AmazonS3 client = cloudClients.buildStandalone(dto.type(), dto.accessKey(), dto.secretKey(), dto.region());
+        try {
+            client.doesBucketExistV2(dto.endpoint());
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    /**
+     * Upload multipart de um stream de tamanho desconhecido: as partes são lidas em sequência e enviadas em paralelo.
+     * O número de buffers em circulação é limitado pela concorrência configurada, o que também limita a memória usada.
+     * As partes crescem ao longo do upload (ver {@link #streamingPartSize}); um stream que ainda passe de
+     * {@link #MAX_PARTS} partes aborta o upload antes de enviar a parte excedente.
+     */
+    @Override
+    public String write(BackupDestination destination, String path, InputStream data) throws IOException {
+        try (ClientLease lease = cloudClients.acquire(destination)) {
+            return write(lease.client(), destination.getEndpoint(), path, data);
+        }
+    }
+
+    private String write(AmazonS3 client, String bucket, String path, InputStream data) throws IOException {
+        String uploadId = client.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucket, path)).getUploadId();
+
+        int concurrency = cloudClients.getConcurrency();
+        BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            buffers.add(new byte[multipartPartSize]);
+        }
+        AtomicReference<Throwable> partFailure = new AtomicReference<>();
+        List<Future<PartETag>> parts = new ArrayList<>();
+
+        try {
+            int partNumber = 1;
+            long sent = 0;
+            while (partFailure.get() == null) {
+                byte[] taken = buffers.take();
+                int partSize = streamingPartSize(multipartPartSize, partNumber);
+                byte[] partBuffer = taken.length < partSize ? new byte[partSize] : taken;
+                int length = data.readNBytes(partBuffer, 0, partSize);
+                if (length == 0 && partNumber > 1) {
+                    break;
+                }
+                if (partNumber > MAX_PARTS) {
+                    throw new IOException("Upload em stream excedeu o limite de " + MAX_PARTS + " partes do multipart após "
+                            + sent + " bytes. Aumente app.storage.multipart.part-size-bytes ou desative o streaming do job.");
+                }
+                sent += length;
+                UploadPartRequest partRequest = new UploadPartRequest()
+                        .withBucketName(bucket)
+                        .withKey(path)
+                        .withUploadId(uploadId)
+                        .withPartNumber(partNumber++)
+                        .withInputStream(new ByteArrayInputStream(partBuffer, 0, length))
+                        .withPartSize(length);
+                parts.add(transferPool.submit(() -> {
+                    try {
+                        return client.uploadPart(partRequest).getPartETag();
+                    } catch (RuntimeException e) {
+                        partFailure.compareAndSet(null, e);
+                        throw e;
+                    } finally {
+                        buffers.add(partBuffer);
+                    }
+                }));
+                if (length < partSize) {
+                    break;
+                }
+            }
+
+            List<PartETag> partETags = new ArrayList<>();
+            for (Future<PartETag> part : parts) {
+                partETags.add(part.get());
+            }
+            client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, path, uploadId, partETags));
+            return path;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abortMultipart(client, bucket, path, uploadId, parts);
+            throw new InterruptedIOException("Upload multipart interrompido.");
+        } catch (ExecutionException e) {
+            abortMultipart(client, bucket, path, uploadId, parts);
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("Falha ao enviar parte do upload multipart: " + e.getCause().getMessage(), e.getCause());
+        } catch (IOException | RuntimeException e) {
+            abortMultipart(client, bucket, path, uploadId, parts);
+            throw e;
+        }
+    }
+
+    static int streamingPartSize(int basePartSize, int partNumber) {
+        int steps = Math.min((partNumber - 1) / PARTS_PER_STEP, 30);
+        long size = (long) basePartSize << steps;
+        return (int) Math.min(size, Math.max(basePartSize, MAX_STREAMING_PART_SIZE));
+    }
+
+    private void abortMultipart(AmazonS3 client, String bucket, String path, String uploadId, List<Future<PartETag>> parts) {
+        parts.forEach(part -> part.cancel(true));
+        client.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, path, uploadId));
+    }
+
+    @Override
+    public String writeFile(BackupDestination destination, String path, Path file) throws IOException {
+        try (ClientLease lease = cloudClients.acquire(destination)) {
+            awaitTransfer(lease.transferManager().upload(destination.getEndpoint(), path, file.toFile()));
+        }
+        return path;
+    }
+
+    /**
+     * Multipart com as partes lidas do arquivo por posição e enviadas em paralelo. Com um uploadId de uma tentativa
+     * anterior, as partes que o servidor já tem (ListParts) não são reenviadas. Uma interrupção deixa o upload aberto
+     * para ser retomado; qualquer outra falha o aborta. A parte cresce com o arquivo para não passar de MAX_PARTS e o
+     * tamanho escolhido é guardado junto com o uploadId.
+     */
+    @Override
+    public String writeFile(BackupDestination destination, String path, Path file, UploadProgress progress) throws IOException {
+        long size = Files.size(file);
+        if (size <= multipartPartSize) {
+            return writeFile(destination, path, file);
+        }
+        try (ClientLease lease = cloudClients.acquire(destination)) {
+            return writeFile(lease.client(), destination, path, file, size, progress);
+        }
+    }
+
+    private String writeFile(AmazonS3 client, BackupDestination destination, String path, Path file, long size,
+                             UploadProgress progress) throws IOException {
+        String bucket = destination.getEndpoint();
+        Map<Integer, PartETag> completed = new ConcurrentHashMap<>();
+
+        String uploadId = progress.uploadId();
+        // Na retomada vale o tamanho com que o upload foi aberto, mesmo que a configuração tenha mudado.
+        long partSize = progress.partSizeBytes() > 0 ? progress.partSizeBytes() : resumablePartSize(size);
+        if (uploadId != null && !listUploadedParts(client, bucket, path, uploadId, size, partSize, completed)) {
+            // O upload anterior não existe mais; se chegou a ser concluído, o objeto já está lá.
+            if (stat(destination, path).filter(object -> object.sizeBytes() == size).isPresent()) {
+                return path;
+            }
+            uploadId = null;
+        }
+        if (uploadId == null) {
+            partSize = resumablePartSize(size);
+            uploadId = client.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucket, path)).getUploadId();
+            progress.started(uploadId, partSize);
+        }
+        int partCount = (int) ((size + partSize - 1) / partSize);
+
+        Semaphore slots = new Semaphore(cloudClients.getConcurrency());
+        AtomicReference<Throwable> partFailure = new AtomicReference<>();
+        List<Future<PartETag>> parts = new ArrayList<>();
+        try {
+            for (int partNumber = 1; partNumber <= partCount && partFailure.get() == null; partNumber++) {
+                if (completed.containsKey(partNumber)) {
+                    continue;
+                }
+                long offset = (partNumber - 1) * partSize;
+                UploadPartRequest partRequest = new UploadPartRequest()
+                        .withBucketName(bucket)
+                        .withKey(path)
+                        .withUploadId(uploadId)
+                        .withPartNumber(partNumber)
+                        .withFile(file.toFile())
+                        .withFileOffset(offset)
+                        .withPartSize(Math.min(partSize, size - offset));
+                slots.acquire();
+                parts.add(transferPool.submit(() -> {
+                    try {
+                        PartETag partETag = client.uploadPart(partRequest).getPartETag();
+                        completed.put(partETag.getPartNumber(), partETag);
+                        progress.partCompleted(completed.size(), partCount);
+                        return partETag;
+                    } catch (RuntimeException e) {
+                        partFailure.compareAndSet(null, e);
+                        throw e;
+                    } finally {
+                        slots.release();
+                    }
+                }));
+            }
+            for (Future<PartETag> part : parts) {
+                part.get();
+            }
+            client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, path, uploadId,
+                    new ArrayList<>(new TreeMap<>(completed).values())));
+            return path;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            parts.forEach(part -> part.cancel(true));
+            throw new InterruptedIOException("Upload multipart interrompido; será retomado na próxima tentativa.");
+        } catch (ExecutionException e) {
+            abortMultipart(client, bucket, path, uploadId, parts);
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("Falha ao enviar parte do upload multipart: " + e.getCause().getMessage(), e.getCause());
+        } catch (RuntimeException e) {
+            abortMultipart(client, bucket, path, uploadId, parts);
+            throw e;
+        }
+    }
+
+    // Parte configurada, aumentada (em MiB inteiros) quando o arquivo passaria de MAX_PARTS partes.
+    long resumablePartSize(long size) {
+        long minimum = (size + MAX_PARTS - 1) / MAX_PARTS;
+        if (minimum <= multipartPartSize) {
+            return multipartPartSize;
+        }
+        return (minimum + MIB - 1) / MIB * MIB;
+    }
+
+    // Partes com o tamanho esperado para a posição; false se o upload não existe mais (concluído, abortado ou expirado).
+    private boolean listUploadedParts(AmazonS3 client, String bucket, String path, String uploadId, long size,
+                                      long partSize, Map<Integer, PartETag> completed) {
+        ListPartsRequest request = new ListPartsRequest(bucket, path, uploadId);
+        try {
+            PartListing listing;
+            do {
+                listing = client.listParts(request);
+                for (PartSummary part : listing.getParts()) {
+                    long expected = Math.min(partSize, size - (part.getPartNumber() - 1) * partSize);
+                    if (part.getSize() == expected) {
+                        completed.put(part.getPartNumber(), new PartETag(part.getPartNumber(), part.getETag()));
+                    }
+                }
+                request.setPartNumberMarker(listing.getNextPartNumberMarker());
+            } while (listing.isTruncated());
+            return true;
+        } catch (AmazonServiceException e) {
+            if (e.getStatusCode() == 404) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stream em ordem alimentado por faixas baixadas em paralelo, sem arquivo temporário.
+     */
+    @Override
+    public InputStream openRead(BackupDestination destination, String path) {
+        ClientLease lease = cloudClients.acquire(destination);
+        try {
+            AmazonS3 client = lease.client();
+            String bucket = destination.getEndpoint();
+            long length = client.getObjectMetadata(bucket, path).getContentLength();
+            // O cliente fica reservado enquanto o stream estiver aberto.
+            return new FilterInputStream(new RangedPrefetchInputStream((start, end) -> fetchRange(client, bucket, path, start, end),
+                    transferPool, length, downloadRangeSize, cloudClients.getConcurrency())) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        lease.close();
+                    }
+                }
+            };
+        } catch (RuntimeException e) {
+            lease.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Baixa o objeto em faixas simultâneas gravadas por posição em um arquivo pré-alocado.
+     */
+    @Override
+    public void download(BackupDestination destination, String path, Path target) throws IOException {
+        try (ClientLease lease = cloudClients.acquire(destination)) {
+            download(lease.client(), destination.getEndpoint(), path, target);
+        }
+    }
+
+    private void download(AmazonS3 client, String bucket, String path, Path target) throws IOException {
+        long length = client.getObjectMetadata(bucket, path).getContentLength();
+
+        if (length <= downloadRangeSize) {
+            try (S3Object object = client.getObject(bucket, path);
+                 InputStream objectData = object.getObjectContent()) {
+                Files.copy(objectData, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return;
+        }
+
+        Semaphore slots = new Semaphore(cloudClients.getConcurrency());
+        AtomicReference<Throwable> rangeFailure = new AtomicReference<>();
+        List<Future<?>> ranges = new ArrayList<>();
+        try (RandomAccessFile file = new RandomAccessFile(target.toFile(), "rw")) {
+            file.setLength(length);
+            FileChannel channel = file.getChannel();
+
+            for (long start = 0; start < length; start += downloadRangeSize) {
+                long rangeStart = start;
+                long rangeEnd = Math.min(length, start + downloadRangeSize) - 1;
+                slots.acquire();
+                ranges.add(transferPool.submit(() -> {
+                    try {
+                        writeRange(client, bucket, path, rangeStart, rangeEnd, channel);
+                        return null;
+                    } catch (IOException | RuntimeException e) {
+                        rangeFailure.compareAndSet(null, e);
+                        throw e;
+                    } finally {
+                        slots.release();
+                    }
+                }));
+                if (rangeFailure.get() != null) {
+                    break;
+                }
+            }
+            for (Future<?> range : ranges) {
+                range.get();
+            }
+            channel.force(false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ranges.forEach(range -> range.cancel(true));
+            Files.deleteIfExists(target);
+            throw new InterruptedIOException("Download em faixas interrompido.");
+        } catch (ExecutionException e) {
+            ranges.forEach(range -> range.cancel(true));
+            Files.deleteIfExists(target);
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("Falha ao baixar faixa do objeto: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private void writeRange(AmazonS3 client, String bucket, String key, long start, long end, FileChannel channel) throws IOException {
+        try (S3Object object = client.getObject(new GetObjectRequest(bucket, key).withRange(start, end));
+             InputStream objectData = object.getObjectContent()) {
+            byte[] buffer = new byte[1024 * 1024];
+            long position = start;
+            int read;
+            while ((read = objectData.read(buffer)) != -1) {
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    position += channel.write(chunk, position);
+                }
+            }
+            if (position != end + 1) {
+                throw new IOException("Faixa " + start + "-" + end + " incompleta.");
+            }
+        }
+    }
+
+    private byte[] fetchRange(AmazonS3 client, String bucket, String key, long start, long end) throws IOException {
+        try (S3Object object = client.getObject(new GetObjectRequest(bucket, key).withRange(start, end));
+             InputStream objectData = object.getObjectContent()) {
+            return objectData.readAllBytes();
+        }
+    }
+
+    @Override
+    public void delete(BackupDestination destination, String path) {
+        try (ClientLease lease = cloudClients.acquire(destination)) {
+            lease.client().deleteObject(destination.getEndpoint(), path);
+        }
+    }
+
+    /**
+     * Com exclusão em lote, um DeleteObjects por bloco de até 1000 chaves (limite da API); sem ela, exclusões paralelas.
+     */
+    @Override
+    public List<String> deleteAll(BackupDestination destination, Collection<String> paths) {
+        try (ClientLease lease = cloudClients.acquire(destination)) {
+            return deleteAll(lease.client(), destination.getEndpoint(), paths);
+        }
+    }
+
+    private List<String> deleteAll(AmazonS3 client, String bucket, Collection<String> paths) {
+        if (!supports(StorageCapability.BATCH_DELETE)) {
+            return ParallelDeletes.run(transferPool, cloudClients.getConcurrency(), paths, path -> client.deleteObject(bucket, path));
+        }
+
+        List<String> keys = List.copyOf(paths);
+        List<String> failed = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_DELETE) {
+            List<String> batch = keys.subList(from, Math.min(keys.size(), from + MAX_KEYS_PER_DELETE));
+            DeleteObjectsRequest request = new DeleteObjectsRequest(bucket)
+                    .withKeys(batch.toArray(String[]::new))
+                    .withQuiet(true);
+            try {
+                client.deleteObjects(request);
+            } catch (MultiObjectDeleteException e) {
+                e.getErrors().forEach(error -> failed.add(error.getKey()));
+            } catch (SdkClientException e) {
+                failed.addAll(batch);
+            }
+        }
+        return failed;
+    }
+
+    @Override
+    public List<StorageObject> list(BackupDestination destination, String prefix) {
+        try (ClientLease lease = cloudClients.acquire(destination)) {
+            return list(lease.client(), destination, prefix);
+        }
+    }
+
+    private List<StorageObject> list(AmazonS3 client, BackupDestination destination, String prefix) {
+        List<StorageObject> objects = new ArrayList<>();
+        ListObjectsV2Request request = new ListObjectsV2Request()
+                .withBucketName(destination.getEndpoint())
+                .withPrefix(prefix);
+        ListObjectsV2Result result;
+        do {
+            result = client.listObjectsV2(request);
+            for (S3ObjectSummary summary : result.getObjectSummaries()) {
+                objects.add(new StorageObject(summary.getKey(), summary.getSize(), summary.getLastModified().toInstant()));
+            }
+            request.setContinuationToken(result.getNextContinuationToken());
+        } while (result.isTruncated());
+        return objects;
+    }
+
+    @Override
+    public Optional<StorageObject> stat(BackupDestination destination, String path) {
+        try (ClientLease lease = cloudClients.acquire(destination)) {
+            ObjectMetadata metadata = lease.client().getObjectMetadata(destination.getEndpoint(), path);
+            return Optional.of(new StorageObject(path, metadata.getContentLength(),
+                    metadata.getLastModified() != null ? metadata.getLastModified().toInstant() : null));
+        } catch (AmazonServiceException e) {
+            if (e.getStatusCode() == 404) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public String copy(BackupDestination destination, String sourcePath, String targetPath) {
+        try (ClientLease lease = cloudClients.acquire(destination)) {
+            lease.client().copyObject(destination.getEndpoint(), sourcePath, destination.getEndpoint(), targetPath);
+        }
+        return targetPath;
+    }
+
+    private void awaitTransfer(Transfer transfer) throws IOException {
+        try {
+            transfer.waitForCompletion();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Transferência interrompida: " + transfer.getDescription());
+        }
+    }
+}
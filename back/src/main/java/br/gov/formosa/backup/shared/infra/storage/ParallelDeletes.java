@@ -0,0 +1,57 @@
+package br.gov.formosa.backup.shared.infra.storage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Exclusão de vários caminhos dividida em {@code concurrency} fatias, cada uma processada em sequência por uma thread do pool.
+ */
+final class ParallelDeletes {
+
+    @FunctionalInterface
+    interface PathDeletion {
+        void delete(String path) throws Exception;
+    }
+
+    private ParallelDeletes() {
+    }
+
+    static List<String> run(ExecutorService pool, int concurrency, Collection<String> paths, PathDeletion deletion) {
+        List<String> pending = List.copyOf(paths);
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+        int slices = Math.max(1, Math.min(concurrency, pending.size()));
+        int sliceSize = (pending.size() + slices - 1) / slices;
+
+        Queue<String> failed = new ConcurrentLinkedQueue<>();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int from = 0; from < pending.size(); from += sliceSize) {
+            List<String> slice = pending.subList(from, Math.min(pending.size(), from + sliceSize));
+            tasks.add(() -> {
+                for (String path : slice) {
+                    try {
+                        deletion.delete(path);
+                    } catch (Exception e) {
+                        failed.add(path);
+                    }
+                }
+                return null;
+            });
+        }
+
+        try {
+            pool.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // O que não chegou a ser confirmado conta como falha; a próxima limpeza tenta de novo.
+            return pending;
+        }
+        return List.copyOf(failed);
+    }
+}
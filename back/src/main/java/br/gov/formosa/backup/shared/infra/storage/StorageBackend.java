@@ -0,0 +1,86 @@
+package br.gov.formosa.backup.shared.infra.storage;
+
+import br.gov.formosa.backup.config.domain.model.BackupDestination;
+import br.gov.formosa.backup.shared.dto.TestConnectionDTO;
+import br.gov.formosa.backup.shared.enums.BackupType;
+import br.gov.formosa.backup.shared.enums.StorageCapability;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Operações de um tipo de destino de backup. Cada implementação é registrada para um {@link BackupType}
+ * e declara em {@link #capabilities()} o que sabe fazer além do básico, para que quem chama escolha o caminho mais rápido.
+ * Os caminhos são relativos ao destino (bucket, diretório base ou home do FTP); caminhos absolutos só fazem sentido no disco local.
+ */
+public interface StorageBackend {
+
+    BackupType type();
+
+    Set<StorageCapability> capabilities();
+
+    default boolean supports(StorageCapability capability) {
+        return capabilities().contains(capability);
+    }
+
+    void testConnection(TestConnectionDTO dto) throws IOException;
+
+    /**
+     * Grava o conteúdo lido de {@code data} até o fim do stream e devolve o caminho armazenado.
+     * Um erro de leitura no stream aborta a gravação sem deixar arquivo parcial visível.
+     */
+    String write(BackupDestination destination, String path, InputStream data) throws IOException;
+
+    default String writeFile(BackupDestination destination, String path, Path file) throws IOException {
+        try (InputStream data = Files.newInputStream(file)) {
+            return write(destination, path, data);
+        }
+    }
+
+    /**
+     * Como {@link #writeFile(BackupDestination, String, Path)}, mas retomável: o progresso vai para {@code progress}
+     * e, se ele trouxer um upload já iniciado, só o que falta é enviado. Sem suporte a retomada o arquivo é enviado de novo.
+     */
+    default String writeFile(BackupDestination destination, String path, Path file, UploadProgress progress) throws IOException {
+        return writeFile(destination, path, file);
+    }
+
+    InputStream openRead(BackupDestination destination, String path) throws IOException;
+
+    default void download(BackupDestination destination, String path, Path target) throws IOException {
+        try (InputStream data = openRead(destination, path)) {
+            Files.copy(data, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    void delete(BackupDestination destination, String path) throws IOException;
+
+    /**
+     * Exclui vários caminhos e devolve os que não puderam ser excluídos.
+     */
+    default List<String> deleteAll(BackupDestination destination, Collection<String> paths) {
+        return paths.stream().filter(path -> {
+            try {
+                delete(destination, path);
+                return false;
+            } catch (IOException | RuntimeException e) {
+                return true;
+            }
+        }).toList();
+    }
+
+    List<StorageObject> list(BackupDestination destination, String prefix) throws IOException;
+
+    Optional<StorageObject> stat(BackupDestination destination, String path) throws IOException;
+
+    default String copy(BackupDestination destination, String sourcePath, String targetPath) throws IOException {
+        throw new UnsupportedOperationException("Cópia no servidor não suportada por " + type());
+    }
+}
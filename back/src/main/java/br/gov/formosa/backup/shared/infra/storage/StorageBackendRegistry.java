@@ -0,0 +1,33 @@
+package br.gov.formosa.backup.shared.infra.storage;
+
+import br.gov.formosa.backup.shared.enums.BackupType;
+import br.gov.formosa.backup.shared.exception.GlobalBackupException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class StorageBackendRegistry {
+
+    private final Map<BackupType, StorageBackend> backends = new EnumMap<>(BackupType.class);
+
+    public StorageBackendRegistry(List<StorageBackend> backends) {
+        for (StorageBackend backend : backends) {
+            StorageBackend previous = this.backends.put(backend.type(), backend);
+            if (previous != null) {
+                throw new IllegalStateException("Mais de um StorageBackend registrado para " + backend.type());
+            }
+        }
+    }
+
+    public StorageBackend get(BackupType type) {
+        StorageBackend backend = backends.get(type);
+        if (backend == null) {
+            throw new GlobalBackupException("Tipo de destino de backup não suportado: " + type, HttpStatus.NOT_IMPLEMENTED);
+        }
+        return backend;
+    }
+}
@@ -0,0 +1,9 @@
+package br.gov.formosa.backup.shared.infra.storage;
+
+import java.time.Instant;
+
+public record StorageObject(
+        String path,
+        long sizeBytes,
+        Instant lastModified
+) {}
@@ -0,0 +1,42 @@
+package br.gov.formosa.backup.shared.infra.storage;
+
+/**
+ * Estado de um upload de arquivo guardado por quem chama, para que uma nova tentativa continue de onde a anterior parou.
+ * As notificações podem chegar de várias threads de transferência ao mesmo tempo.
+ */
+public interface UploadProgress {
+
+    UploadProgress NONE = new UploadProgress() {
+        @Override
+        public String uploadId() {
+            return null;
+        }
+
+        @Override
+        public long partSizeBytes() {
+            return 0;
+        }
+
+        @Override
+        public void started(String uploadId, long partSizeBytes) {
+        }
+
+        @Override
+        public void partCompleted(int completedParts, int totalParts) {
+        }
+    };
+
+    /**
+     * Upload multipart aberto por uma tentativa anterior, ou nulo.
+     */
+    String uploadId();
+
+    /**
+     * Tamanho de parte com que o upload em {@link #uploadId()} foi aberto, ou 0 se desconhecido.
+     */
+    long partSizeBytes();
+
+    void started(String uploadId, long partSizeBytes);
+
+    void partCompleted(int completedParts, int totalParts);
+}
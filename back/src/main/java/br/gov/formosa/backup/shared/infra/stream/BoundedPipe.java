@@ -0,0 +1,179 @@
+package br.gov.formosa.backup.shared.infra.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffer em memória limitado entre um produtor (saída do processo de dump) e um consumidor (upload).
+ * O produtor bloqueia quando o buffer está cheio, o que aplica backpressure sem nunca gravar o dump em disco.
+ */
+public class BoundedPipe {
+
+    private static final byte[] EOF = new byte[0];
+
+    private final BlockingQueue<byte[]> queue;
+    private volatile boolean writerClosed;
+    private volatile boolean readerClosed;
+    private volatile Throwable failure;
+
+    private final OutputStream sink = new PipeOutputStream();
+    private final InputStream source = new PipeInputStream();
+
+    public BoundedPipe(int capacityChunks) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacityChunks));
+    }
+
+    public OutputStream sink() {
+        return sink;
+    }
+
+    public InputStream source() {
+        return source;
+    }
+
+    public boolean isReaderClosed() {
+        return readerClosed;
+    }
+
+    /**
+     * Enfileira um bloco sem copiá-lo. O chamador não deve alterar o array depois de entregue,
+     * o que permite compartilhar o mesmo bloco entre vários pipes.
+     */
+    public void writeChunk(byte[] chunk) throws IOException {
+        if (writerClosed) {
+            throw new IOException("Pipe já encerrado para escrita.");
+        }
+        if (readerClosed) {
+            throw new IOException("O consumidor do pipe foi encerrado.");
+        }
+        if (chunk.length > 0) {
+            put(chunk);
+        }
+    }
+
+    /**
+     * Encerra o pipe com erro: o consumidor recebe uma IOException em vez de um fim de stream normal,
+     * permitindo abortar uploads multipart em vez de confirmar um arquivo truncado.
+     */
+    public void fail(Throwable cause) {
+        if (writerClosed) {
+            return;
+        }
+        failure = cause;
+        writerClosed = true;
+        // Um escritor bloqueado pode ocupar a vaga liberada antes do EOF; limpa de novo até o EOF entrar.
+        do {
+            queue.clear();
+        } while (!queue.offer(EOF));
+    }
+
+    private void put(byte[] chunk) throws IOException {
+        try {
+            boolean queued;
+            do {
+                queued = queue.offer(chunk, 200, TimeUnit.MILLISECONDS);
+                if (failure != null) {
+                    throw new IOException("Pipe encerrado com erro: " + failure.getMessage(), failure);
+                }
+                if (!queued && readerClosed) {
+                    throw new IOException("O consumidor do pipe foi encerrado.");
+                }
+            } while (!queued);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Escrita no pipe interrompida.");
+        }
+    }
+
+    private class PipeOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (writerClosed) {
+                throw new IOException("Pipe já encerrado para escrita.");
+            }
+            if (readerClosed) {
+                throw new IOException("O consumidor do pipe foi encerrado.");
+            }
+            if (len > 0) {
+                put(Arrays.copyOfRange(b, off, off + len));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writerClosed) {
+                return;
+            }
+            writerClosed = true;
+            put(EOF);
+        }
+    }
+
+    private class PipeInputStream extends InputStream {
+
+        private byte[] current;
+        private int position;
+        private boolean finished;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int n = read(single, 0, 1);
+            return n == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!nextChunk()) {
+                return -1;
+            }
+            int n = Math.min(len, current.length - position);
+            System.arraycopy(current, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        private boolean nextChunk() throws IOException {
+            if (readerClosed) {
+                throw new IOException("Pipe já encerrado para leitura.");
+            }
+            while (!finished && (current == null || position >= current.length)) {
+                try {
+                    current = queue.take();
+                    position = 0;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Leitura do pipe interrompida.");
+                }
+                if (current == EOF) {
+                    finished = true;
+                }
+            }
+            if (failure != null) {
+                throw new IOException("Stream de origem falhou: " + failure.getMessage(), failure);
+            }
+            return !finished;
+        }
+
+        @Override
+        public void close() {
+            readerClosed = true;
+            queue.clear();
+        }
+    }
+}
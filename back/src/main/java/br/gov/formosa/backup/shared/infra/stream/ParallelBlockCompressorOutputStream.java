@@ -0,0 +1,103 @@
+package br.gov.formosa.backup.shared.infra.stream;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.UnaryOperator;
+
+/**
+ * Compressão em blocos independentes (estilo pigz): cada bloco é comprimido em paralelo no pool
+ * e gravado na ordem original. Cada bloco gera um membro/frame completo do codec, e os formatos
+ * usados (gzip, zstd, lz4 frame) aceitam membros concatenados na descompressão.
+ */
+public class ParallelBlockCompressorOutputStream extends OutputStream {
+
+    private final OutputStream target;
+    private final UnaryOperator<byte[]> blockCompressor;
+    private final ExecutorService pool;
+    private final int blockSize;
+    private final int maxInFlight;
+    private final Deque<Future<byte[]>> inFlight = new ArrayDeque<>();
+
+    private byte[] block;
+    private int count;
+    private boolean closed;
+
+    public ParallelBlockCompressorOutputStream(OutputStream target, UnaryOperator<byte[]> blockCompressor,
+                                               ExecutorService pool, int blockSize, int maxInFlight) {
+        this.target = target;
+        this.blockCompressor = blockCompressor;
+        this.pool = pool;
+        this.blockSize = blockSize;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream de compressão já encerrado.");
+        }
+        while (len > 0) {
+            int n = Math.min(len, blockSize - count);
+            System.arraycopy(b, off, block, count, n);
+            count += n;
+            off += n;
+            len -= n;
+            if (count == blockSize) {
+                submitBlock();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (count > 0) {
+                submitBlock();
+            }
+            while (!inFlight.isEmpty()) {
+                writeOldest();
+            }
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+            target.close();
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        byte[] data = count == blockSize ? block : Arrays.copyOf(block, count);
+        inFlight.addLast(pool.submit(() -> blockCompressor.apply(data)));
+        block = new byte[blockSize];
+        count = 0;
+        while (inFlight.size() > maxInFlight) {
+            writeOldest();
+        }
+    }
+
+    private void writeOldest() throws IOException {
+        try {
+            target.write(inFlight.removeFirst().get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Compressão interrompida.");
+        } catch (ExecutionException e) {
+            throw new IOException("Falha ao comprimir bloco: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package br.gov.formosa.backup.shared.infra.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Lê um objeto remoto em faixas de bytes baixadas em paralelo e as entrega em ordem.
+ * No máximo {@code window} faixas ficam em memória (baixando ou aguardando leitura).
+ */
+public class RangedPrefetchInputStream extends InputStream {
+
+    @FunctionalInterface
+    public interface RangeFetcher {
+        byte[] fetch(long start, long endInclusive) throws IOException;
+    }
+
+    private final RangeFetcher fetcher;
+    private final ExecutorService pool;
+    private final long totalLength;
+    private final int rangeSize;
+    private final int window;
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+
+    private long nextRangeStart;
+    private byte[] current;
+    private int position;
+    private boolean closed;
+
+    public RangedPrefetchInputStream(RangeFetcher fetcher, ExecutorService pool, long totalLength, int rangeSize, int window) {
+        this.fetcher = fetcher;
+        this.pool = pool;
+        this.totalLength = totalLength;
+        this.rangeSize = Math.max(1, rangeSize);
+        this.window = Math.max(1, window);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int n = read(single, 0, 1);
+        return n == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream já encerrado.");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if ((current == null || position >= current.length) && !nextRange()) {
+            return -1;
+        }
+        int n = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    private boolean nextRange() throws IOException {
+        fillWindow();
+        Future<byte[]> next = pending.poll();
+        if (next == null) {
+            return false;
+        }
+        try {
+            current = next.get();
+            position = 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Download em faixas interrompido.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException io ? io : new IOException("Falha ao baixar faixa: " + cause.getMessage(), cause);
+        }
+        fillWindow();
+        return true;
+    }
+
+    private void fillWindow() {
+        while (pending.size() < window && nextRangeStart < totalLength) {
+            long start = nextRangeStart;
+            long end = Math.min(totalLength, start + rangeSize) - 1;
+            nextRangeStart = end + 1;
+            pending.add(pool.submit(() -> {
+                byte[] data = fetcher.fetch(start, end);
+                if (data.length != end - start + 1) {
+                    throw new IOException("Faixa " + start + "-" + end + " incompleta: " + data.length + " bytes recebidos.");
+                }
+                return data;
+            }));
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        pending.forEach(future -> future.cancel(true));
+        pending.clear();
+        current = null;
+    }
+}
@@ -0,0 +1,80 @@
+package br.gov.formosa.backup.shared.security;
+
+import br.gov.formosa.backup.dashboard.domain.service.DashboardUpdatePublisher;
+import br.gov.formosa.backup.user.domain.model.User;
+import br.gov.formosa.backup.user.domain.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * O handshake de /ws-backup é liberado no HTTP; quem se identifica é o CONNECT do STOMP, com o mesmo
+ * "Authorization: Bearer" da API. O tópico do dashboard de um usuário só aceita inscrição do próprio usuário.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthInterceptor implements ChannelInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(StompAuthInterceptor.class);
+
+    private final JwtService jwtService;
+    private final UserService userService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            authenticate(accessor);
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            checkSubscription(accessor.getDestination(), accessor.getUser());
+        }
+        return message;
+    }
+
+    private void authenticate(StompHeaderAccessor accessor) {
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return;
+        }
+        String jwt = authHeader.substring(7);
+        try {
+            String userEmail = jwtService.extractUsername(jwt);
+            if (userEmail == null) {
+                return;
+            }
+            UserDetails userDetails = userService.userDetailsService().loadUserByUsername(userEmail);
+            if (jwtService.isTokenValid(jwt, userDetails)) {
+                accessor.setUser(new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+            }
+        } catch (RuntimeException e) {
+            // Token expirado ou inválido: a sessão segue anônima e não assina tópicos de usuário.
+            log.debug("CONNECT com token inválido: {}", e.getMessage());
+        }
+    }
+
+    static void checkSubscription(String destination, Principal principal) {
+        if (destination == null || !destination.startsWith(DashboardUpdatePublisher.TOPIC_PREFIX)) {
+            return;
+        }
+        if (!(principal instanceof UsernamePasswordAuthenticationToken authentication)
+                || !(authentication.getPrincipal() instanceof User user)
+                || !DashboardUpdatePublisher.topicFor(user.getId()).equals(destination)) {
+            throw new AccessDeniedException("Inscrição não permitida em " + destination);
+        }
+    }
+}
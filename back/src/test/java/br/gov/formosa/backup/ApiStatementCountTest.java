@@ -0,0 +1,149 @@
+package br.gov.formosa.backup;
+
+import br.gov.formosa.backup.config.domain.model.BackupDestination;
+import br.gov.formosa.backup.config.domain.model.BackupSource;
+import br.gov.formosa.backup.config.infra.repository.BackupDestinationRepository;
+import br.gov.formosa.backup.config.infra.repository.BackupSourceRepository;
+import br.gov.formosa.backup.job.domain.model.BackupJob;
+import br.gov.formosa.backup.job.domain.model.BackupRecord;
+import br.gov.formosa.backup.job.infra.repository.BackupJobRepository;
+import br.gov.formosa.backup.job.infra.repository.BackupRecordRepository;
+import br.gov.formosa.backup.shared.enums.BackupStatus;
+import br.gov.formosa.backup.shared.enums.BackupType;
+import br.gov.formosa.backup.shared.enums.DatabaseType;
+import br.gov.formosa.backup.user.domain.model.User;
+import br.gov.formosa.backup.user.infra.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Comandos SQL das telas mais acessadas, contados pelas estatísticas do Hibernate. As contagens não podem
+ * crescer com o número de jobs, destinos e registros: um aumento aqui é uma associação LAZY lida linha a linha.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ApiStatementCountTest {
+
+    private static final int JOBS = 6;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BackupSourceRepository sourceRepository;
+    @Autowired
+    private BackupDestinationRepository destinationRepository;
+    @Autowired
+    private BackupJobRepository jobRepository;
+    @Autowired
+    private BackupRecordRepository recordRepository;
+
+    private Statistics statistics;
+    private User owner;
+    private User smallOwner;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = userWithJobs(JOBS);
+        smallOwner = userWithJobs(1);
+    }
+
+    @Test
+    void jobListLoadsSourcesAndDestinationsTogether() throws Exception {
+        assertThat(statementsFor("/api/backup-jobs", owner)).isEqualTo(2)
+                .isEqualTo(statementsFor("/api/backup-jobs", smallOwner));
+    }
+
+    @Test
+    void historyPageIsASingleQuery() throws Exception {
+        assertThat(statementsFor("/api/backup/history?limit=20", owner)).isEqualTo(1)
+                .isEqualTo(statementsFor("/api/backup/history?limit=20", smallOwner));
+    }
+
+    @Test
+    void dashboardIsAggregatedInTheDatabaseAndThenCached() throws Exception {
+        assertThat(statementsFor("/api/dashboard", owner)).isEqualTo(12)
+                .isEqualTo(statementsFor("/api/dashboard", smallOwner));
+        assertThat(statementsFor("/api/dashboard", owner)).isZero();
+    }
+
+    private long statementsFor(String uri, User user) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get(uri).with(user(user))).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User userWithJobs(int jobs) {
+        User user = userRepository.save(User.builder()
+                .email(UUID.randomUUID() + "@teste.local")
+                .password("x")
+                .build());
+
+        for (int i = 0; i < jobs; i++) {
+            BackupSource source = new BackupSource();
+            source.setName("fonte " + i);
+            source.setDatabaseType(DatabaseType.POSTGRES);
+            source.setDbDumpToolPath("pg_dump");
+            source.setUser(user);
+            sourceRepository.save(source);
+
+            BackupDestination local = destination(user, "local " + i);
+            BackupDestination nfs = destination(user, "nfs " + i);
+
+            BackupJob job = new BackupJob();
+            job.setName("job " + i);
+            job.setSource(source);
+            job.setDestinations(Set.of(local, nfs));
+            job.setBackupTime(LocalTime.of(2, i));
+            job.setRetentionDays(7);
+            job.setUser(user);
+            jobRepository.save(job);
+
+            for (int day = 0; day < 4; day++) {
+                for (BackupDestination destination : job.getDestinations()) {
+                    recordRepository.save(BackupRecord.builder()
+                            .job(job)
+                            .destinationId(destination.getId())
+                            .filename("dump.sql")
+                            .timestamp(LocalDateTime.now().minusDays(day).minusMinutes(i))
+                            .sizeBytes(1024L * (day + 1))
+                            .status(day == 3 ? BackupStatus.FAILED : BackupStatus.SUCCESS)
+                            .build());
+                }
+            }
+        }
+        return user;
+    }
+
+    private BackupDestination destination(User user, String name) {
+        return destinationRepository.save(BackupDestination.builder()
+                .name(name)
+                .type(BackupType.LOCAL_DISK)
+                .endpoint("/tmp")
+                .user(user)
+                .build());
+    }
+}
@@ -0,0 +1,54 @@
+package br.gov.formosa.backup.dashboard.domain.service;
+
+import br.gov.formosa.backup.dashboard.api.dto.DashboardDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DashboardCacheTest {
+
+    private final DashboardCache cache = new DashboardCache(10, 60000);
+    private final UUID user = UUID.randomUUID();
+    private final UUID otherUser = UUID.randomUUID();
+
+    @Test
+    void loadIsKeptWhenAnotherUserChanges() {
+        cache.get(user, () -> {
+            cache.invalidated(otherUser);
+            return dashboard(user);
+        });
+
+        assertThat(cache.peek(user)).isPresent();
+    }
+
+    @Test
+    void loadStartedBeforeTheUsersOwnChangeIsNotKept() {
+        DashboardDTO loaded = cache.get(user, () -> {
+            cache.invalidated(user);
+            return dashboard(user);
+        });
+
+        assertThat(loaded).isNotNull();
+        assertThat(cache.peek(user)).isEmpty();
+        assertThat(cache.get(user, () -> dashboard(user))).isNotNull();
+        assertThat(cache.peek(user)).isPresent();
+    }
+
+    @Test
+    void failedLoadLeavesNoState() {
+        assertThatThrownBy(() -> cache.get(user, () -> {
+            throw new IllegalStateException("falha");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.get(user, () -> dashboard(user))).isNotNull();
+        assertThat(cache.peek(user)).isPresent();
+    }
+
+    private DashboardDTO dashboard(UUID userId) {
+        return new DashboardDTO(null, List.of(), List.of(), List.of(), List.of(), userId);
+    }
+}
@@ -0,0 +1,193 @@
+package br.gov.formosa.backup.dashboard.domain.service;
+
+import br.gov.formosa.backup.config.domain.model.BackupDestination;
+import br.gov.formosa.backup.config.domain.model.BackupSource;
+import br.gov.formosa.backup.config.infra.repository.BackupDestinationRepository;
+import br.gov.formosa.backup.config.infra.repository.BackupSourceRepository;
+import br.gov.formosa.backup.dashboard.api.dto.BackupStatusSummaryDTO;
+import br.gov.formosa.backup.dashboard.api.dto.DashboardDTO;
+import br.gov.formosa.backup.dashboard.domain.model.DashboardSection;
+import br.gov.formosa.backup.dashboard.domain.model.BackupDailyRollup;
+import br.gov.formosa.backup.dashboard.infra.repository.BackupDailyRollupRepository;
+import br.gov.formosa.backup.job.domain.model.BackupJob;
+import br.gov.formosa.backup.job.domain.model.BackupRecord;
+import br.gov.formosa.backup.job.domain.service.SchedulerService;
+import br.gov.formosa.backup.job.infra.repository.BackupJobRepository;
+import br.gov.formosa.backup.job.infra.repository.BackupRecordRepository;
+import br.gov.formosa.backup.shared.enums.BackupStatus;
+import br.gov.formosa.backup.shared.enums.BackupType;
+import br.gov.formosa.backup.shared.enums.DatabaseType;
+import br.gov.formosa.backup.user.domain.model.User;
+import br.gov.formosa.backup.user.infra.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.IllegalTransactionStateException;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Sem @Transactional: o rollup grava em transações próprias e precisa enxergar os registros já confirmados.
+@SpringBootTest
+@ActiveProfiles("test")
+class DashboardRollupServiceTest {
+
+    @Autowired
+    private DashboardRollupService rollupService;
+    @Autowired
+    private DashboardService dashboardService;
+    @Autowired
+    private SchedulerService schedulerService;
+    @Autowired
+    private BackupDailyRollupRepository rollupRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BackupSourceRepository sourceRepository;
+    @Autowired
+    private BackupDestinationRepository destinationRepository;
+    @Autowired
+    private BackupJobRepository jobRepository;
+    @Autowired
+    private BackupRecordRepository recordRepository;
+
+    @TempDir
+    private Path endpoint;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private User user;
+    private BackupJob dailyJob;
+    private BackupJob weeklyJob;
+    private final List<UUID> recordIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .email(UUID.randomUUID() + "@teste.local")
+                .password("x")
+                .build());
+        dailyJob = newJob("diario");
+        weeklyJob = newJob("semanal");
+
+        newRecord(dailyJob, now.minusDays(1), BackupStatus.SUCCESS, 100);
+        newRecord(dailyJob, now.minusDays(1), BackupStatus.FAILED, null);
+        newRecord(dailyJob, now.minusDays(2), BackupStatus.SUCCESS, 200);
+        newRecord(dailyJob, now.minusDays(10), BackupStatus.SUCCESS, 400);
+        newRecord(dailyJob, now.minusDays(12), BackupStatus.SUCCESS, 800);
+        newRecord(weeklyJob, now.minusDays(3), BackupStatus.SUCCESS, 50);
+        newRecord(weeklyJob, now.minusDays(20), BackupStatus.SUCCESS, 1000);
+    }
+
+    @Test
+    void finishedRecordsAreCounted() {
+        rollupService.recordsFinished(recordIds);
+
+        DashboardDTO dashboard = dashboard();
+        assertThat(dashboard.stats().totalStorageUsedBytes()).isEqualTo(2550);
+        assertThat(dashboard.stats().successRatePercentage()).isEqualTo(600.0 / 7);
+        assertThat(dashboard.storageBySource()).extracting(usage -> usage.sourceName() + "=" + usage.totalBytes())
+                .containsExactly("diario=1500", "semanal=1050");
+        assertThat(rows()).hasSize(7);
+    }
+
+    @Test
+    void retentionCleanupTakesRecordsOutOfTheRollup() {
+        rollupService.recordsFinished(recordIds);
+        List<BackupStatusSummaryDTO> dailyBefore = dashboard().dailyStatusSummary();
+
+        schedulerService.cleanupOldBackups(dailyJob);
+        schedulerService.cleanupOldBackups(weeklyJob);
+
+        assertThat(recordRepository.findAllById(recordIds)).hasSize(4);
+        DashboardDTO dashboard = dashboard();
+        assertThat(dashboard.stats().totalStorageUsedBytes()).isEqualTo(350);
+        assertThat(dashboard.stats().successRatePercentage()).isEqualTo(75.0);
+        assertThat(dashboard.storageBySource()).extracting(usage -> usage.sourceName() + "=" + usage.totalBytes())
+                .containsExactly("diario=300", "semanal=50");
+        // Os registros excluídos estavam fora da janela de sete dias do gráfico.
+        assertThat(dashboard.dailyStatusSummary()).isEqualTo(dailyBefore);
+        assertThat(rows()).extracting(row -> row.getId().getDay())
+                .allMatch(day -> day.isAfter(LocalDate.now().minusDays(7)));
+    }
+
+    @Test
+    void rebuildReproducesTheIncrementalRows() {
+        rollupService.recordsFinished(recordIds);
+        schedulerService.cleanupOldBackups(dailyJob);
+        schedulerService.cleanupOldBackups(weeklyJob);
+        List<BackupDailyRollup> incremental = rows();
+
+        int rebuilt = rollupService.rebuild(user.getId());
+
+        assertThat(rebuilt).isEqualTo(incremental.size());
+        assertThat(rows()).containsExactlyInAnyOrderElementsOf(incremental);
+    }
+
+    @Test
+    void deletionMustJoinTheCallersTransaction() {
+        assertThatThrownBy(() -> rollupService.recordsDeleted(recordIds))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    private DashboardDTO dashboard() {
+        return dashboardService.refresh(user, null, EnumSet.allOf(DashboardSection.class));
+    }
+
+    private List<BackupDailyRollup> rows() {
+        return rollupRepository.findAll().stream()
+                .filter(row -> row.getId().getUserId().equals(user.getId()))
+                .toList();
+    }
+
+    private BackupJob newJob(String name) {
+        BackupSource source = new BackupSource();
+        source.setName(name);
+        source.setDatabaseType(DatabaseType.POSTGRES);
+        source.setDbDumpToolPath("pg_dump");
+        source.setUser(user);
+        sourceRepository.save(source);
+
+        BackupDestination destination = destinationRepository.save(BackupDestination.builder()
+                .name("destino")
+                .type(BackupType.LOCAL_DISK)
+                .endpoint(endpoint.toString())
+                .user(user)
+                .build());
+
+        BackupJob job = new BackupJob();
+        job.setName(name);
+        job.setSource(source);
+        job.setDestinations(Set.of(destination));
+        job.setBackupTime(LocalTime.of(2, 0));
+        job.setRetentionDays(7);
+        job.setActive(true);
+        job.setUser(user);
+        return jobRepository.save(job);
+    }
+
+    private void newRecord(BackupJob job, LocalDateTime timestamp, BackupStatus status, Integer sizeBytes) {
+        BackupRecord record = recordRepository.save(BackupRecord.builder()
+                .job(job)
+                .destinationId(job.getDestinations().iterator().next().getId())
+                .filename("dump.sql")
+                .remotePath(job.getName() + "/" + UUID.randomUUID() + ".sql")
+                .timestamp(timestamp)
+                .status(status)
+                .sizeBytes(sizeBytes == null ? null : sizeBytes.longValue())
+                .build());
+        recordIds.add(record.getId());
+    }
+}
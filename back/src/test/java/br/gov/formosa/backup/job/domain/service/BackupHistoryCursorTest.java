@@ -0,0 +1,191 @@
+package br.gov.formosa.backup.job.domain.service;
+
+import br.gov.formosa.backup.config.domain.model.BackupDestination;
+import br.gov.formosa.backup.config.domain.model.BackupSource;
+import br.gov.formosa.backup.config.infra.repository.BackupDestinationRepository;
+import br.gov.formosa.backup.config.infra.repository.BackupSourceRepository;
+import br.gov.formosa.backup.job.api.dto.BackupHistoryItemDTO;
+import br.gov.formosa.backup.job.api.dto.BackupHistoryPageDTO;
+import br.gov.formosa.backup.job.domain.model.BackupJob;
+import br.gov.formosa.backup.job.domain.model.BackupRecord;
+import br.gov.formosa.backup.job.infra.repository.BackupJobRepository;
+import br.gov.formosa.backup.job.infra.repository.BackupRecordRepository;
+import br.gov.formosa.backup.shared.enums.BackupStatus;
+import br.gov.formosa.backup.shared.enums.BackupType;
+import br.gov.formosa.backup.shared.enums.DatabaseType;
+import br.gov.formosa.backup.shared.exception.GlobalBackupException;
+import br.gov.formosa.backup.user.domain.model.User;
+import br.gov.formosa.backup.user.infra.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class BackupHistoryCursorTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 10, 1, 2, 0);
+
+    @Autowired
+    private BackupService backupService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BackupSourceRepository sourceRepository;
+    @Autowired
+    private BackupDestinationRepository destinationRepository;
+    @Autowired
+    private BackupJobRepository jobRepository;
+    @Autowired
+    private BackupRecordRepository recordRepository;
+
+    private User user;
+    private BackupJob job;
+
+    @BeforeEach
+    void setUp() {
+        user = newUser();
+        job = newJob(user);
+        // Sete registros no mesmo instante: só o id separa as páginas.
+        for (int i = 0; i < 7; i++) {
+            newRecord(job, BASE, BackupStatus.SUCCESS);
+        }
+        for (int i = 1; i <= 5; i++) {
+            newRecord(job, BASE.minusHours(i), i % 2 == 0 ? BackupStatus.FAILED : BackupStatus.SUCCESS);
+        }
+        newRecord(job, BASE.plusDays(1), BackupStatus.SUCCESS);
+        newRecord(newJob(newUser()), BASE, BackupStatus.SUCCESS);
+    }
+
+    @Test
+    void pagesWalkTheHistoryOnceInOrder() {
+        List<BackupHistoryItemDTO> all = backupService.getHistory(user, null, null, null, null, null, null, 100).items();
+
+        List<BackupHistoryItemDTO> walked = walk(null, 3);
+
+        assertThat(all).hasSize(13);
+        assertThat(walked).extracting(BackupHistoryItemDTO::id).containsExactlyElementsOf(all.stream().map(BackupHistoryItemDTO::id).toList());
+        assertThat(walked).extracting(BackupHistoryItemDTO::timestamp).isSortedAccordingTo(Comparator.reverseOrder());
+    }
+
+    @Test
+    void cursorKeepsTheFilters() {
+        List<BackupHistoryItemDTO> failed = walk(BackupStatus.FAILED, 1);
+
+        assertThat(failed).hasSize(2).allMatch(item -> item.status() == BackupStatus.FAILED);
+        assertThat(failed).extracting(BackupHistoryItemDTO::timestamp).containsExactly(BASE.minusHours(2), BASE.minusHours(4));
+    }
+
+    @Test
+    void filtersCombineWithTheCursor() {
+        BackupHistoryItemDTO first = backupService.getHistory(user, null, null, null, null, null, null, 1).items().get(0);
+        UUID sourceId = first.sourceId();
+        UUID destinationId = first.destinationId();
+
+        List<BackupHistoryItemDTO> window = new ArrayList<>();
+        String cursor = null;
+        do {
+            BackupHistoryPageDTO page = backupService.getHistory(user, BackupStatus.SUCCESS, sourceId, destinationId,
+                    BASE.minusHours(3), BASE.plusHours(1), cursor, 2);
+            window.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        // Sete no instante BASE, mais os sucessos de uma e três horas antes; o do dia seguinte fica fora do "to".
+        assertThat(window).hasSize(9)
+                .allMatch(item -> item.status() == BackupStatus.SUCCESS && item.sourceId().equals(sourceId));
+        assertThat(backupService.getHistory(user, null, UUID.randomUUID(), null, null, null, null, 10).items()).isEmpty();
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        BackupHistoryPageDTO page = backupService.getHistory(user, null, null, null, null, null, null, 13);
+
+        assertThat(page.items()).hasSize(13);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void malformedCursorIsABadRequest() {
+        String missingId = Base64.getUrlEncoder().withoutPadding().encodeToString("2026-10-01T02:00".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : List.of("não é base64", missingId, Base64.getUrlEncoder().encodeToString("x|y".getBytes(StandardCharsets.UTF_8)))) {
+            assertThatThrownBy(() -> backupService.getHistory(user, null, null, null, null, null, cursor, 3))
+                    .isInstanceOf(GlobalBackupException.class)
+                    .extracting(e -> ((GlobalBackupException) e).getStatus())
+                    .isEqualTo(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private List<BackupHistoryItemDTO> walk(BackupStatus status, int limit) {
+        List<BackupHistoryItemDTO> items = new ArrayList<>();
+        String cursor = null;
+        do {
+            BackupHistoryPageDTO page = backupService.getHistory(user, status, null, null, null, null, cursor, limit);
+            assertThat(page.items()).hasSizeLessThanOrEqualTo(limit);
+            items.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return items;
+    }
+
+    private User newUser() {
+        return userRepository.save(User.builder()
+                .email(UUID.randomUUID() + "@teste.local")
+                .password("x")
+                .build());
+    }
+
+    private BackupJob newJob(User owner) {
+        BackupSource source = new BackupSource();
+        source.setName("fonte");
+        source.setDatabaseType(DatabaseType.POSTGRES);
+        source.setDbDumpToolPath("pg_dump");
+        source.setUser(owner);
+        sourceRepository.save(source);
+
+        BackupDestination destination = destinationRepository.save(BackupDestination.builder()
+                .name("destino")
+                .type(BackupType.LOCAL_DISK)
+                .endpoint("/tmp")
+                .user(owner)
+                .build());
+
+        BackupJob newJob = new BackupJob();
+        newJob.setName("job");
+        newJob.setSource(source);
+        newJob.setDestinations(Set.of(destination));
+        newJob.setBackupTime(LocalTime.of(2, 0));
+        newJob.setRetentionDays(7);
+        newJob.setUser(owner);
+        return jobRepository.save(newJob);
+    }
+
+    private void newRecord(BackupJob recordJob, LocalDateTime timestamp, BackupStatus status) {
+        recordRepository.save(BackupRecord.builder()
+                .job(recordJob)
+                .destinationId(recordJob.getDestinations().iterator().next().getId())
+                .filename("dump.sql")
+                .timestamp(timestamp)
+                .status(status)
+                .build());
+    }
+}
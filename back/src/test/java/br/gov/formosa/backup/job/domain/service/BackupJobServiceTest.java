@@ -0,0 +1,79 @@
+package br.gov.formosa.backup.job.domain.service;
+
+import br.gov.formosa.backup.job.api.dto.BackupJobDTO;
+import br.gov.formosa.backup.job.api.mapper.BackupJobMapperImpl;
+import br.gov.formosa.backup.job.domain.model.BackupJob;
+import br.gov.formosa.backup.job.infra.repository.BackupJobRepository;
+import br.gov.formosa.backup.job.infra.repository.ClusterSignalRepository;
+import br.gov.formosa.backup.shared.enums.CompressionCodec;
+import br.gov.formosa.backup.shared.enums.NotificationPolicy;
+import br.gov.formosa.backup.shared.enums.ScheduleType;
+import br.gov.formosa.backup.user.domain.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BackupJobServiceTest {
+
+    private final BackupJobRepository repository = mock(BackupJobRepository.class);
+    private final ClusterSignalRepository signalRepository = mock(ClusterSignalRepository.class);
+    private final BackupJobService service = new BackupJobService(repository, new BackupJobMapperImpl(),
+            mock(ApplicationEventPublisher.class), signalRepository);
+
+    private final UUID jobId = UUID.randomUUID();
+    private final User user = User.builder().id(UUID.randomUUID()).email("admin@admin.com").password("x").build();
+    private final BackupJob stored = new BackupJob();
+
+    @BeforeEach
+    void setUp() {
+        stored.setId(jobId);
+        stored.setStreamingEnabled(true);
+        stored.setCompressionCodec(CompressionCodec.ZSTD);
+        stored.setParallelDumpJobs(4);
+        when(repository.findByIdAndUser(jobId, user)).thenReturn(Optional.of(stored));
+        when(repository.save(any(BackupJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(signalRepository.increment(anyString())).thenReturn(1);
+    }
+
+    @Test
+    void updateKeepsExecutionOptionsTheRequestLeavesOut() {
+        BackupJob saved = service.update(jobId, dto(null, null, null), user);
+
+        assertThat(saved.isStreamingEnabled()).isTrue();
+        assertThat(saved.getCompressionCodec()).isEqualTo(CompressionCodec.ZSTD);
+        assertThat(saved.getParallelDumpJobs()).isEqualTo(4);
+        assertThat(saved.isActive()).isFalse();
+    }
+
+    @Test
+    void updateAppliesExecutionOptionsTheRequestSends() {
+        BackupJob saved = service.update(jobId, dto(false, CompressionCodec.NONE, 0), user);
+
+        assertThat(saved.isStreamingEnabled()).isFalse();
+        assertThat(saved.getCompressionCodec()).isEqualTo(CompressionCodec.NONE);
+        assertThat(saved.getParallelDumpJobs()).isNull();
+    }
+
+    @Test
+    void newJobsWithoutCodecAreUncompressed() {
+        BackupJob saved = service.save(dto(null, null, null), user);
+
+        assertThat(saved.getCompressionCodec()).isEqualTo(CompressionCodec.NONE);
+    }
+
+    private static BackupJobDTO dto(Boolean streamingEnabled, CompressionCodec codec, Integer parallelDumpJobs) {
+        return new BackupJobDTO("job", UUID.randomUUID(), Set.of(UUID.randomUUID()), ScheduleType.DAILY, LocalTime.of(2, 0),
+                7, false, NotificationPolicy.NEVER, null, null, streamingEnabled, codec, parallelDumpJobs, null, null, null);
+    }
+}
@@ -0,0 +1,91 @@
+package br.gov.formosa.backup.job.domain.service;
+
+import br.gov.formosa.backup.shared.enums.ScheduleType;
+import br.gov.formosa.backup.shared.exception.GlobalBackupException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JobScheduleTest {
+
+    // Sábado, 10:00.
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 17, 10, 0);
+
+    @Test
+    void manualAndMissingTypeHaveNoExpression() {
+        assertThat(JobSchedule.expressionFor(ScheduleType.MANUAL, LocalTime.NOON, DayOfWeek.MONDAY, "0 * * * *")).isEmpty();
+        assertThat(JobSchedule.expressionFor(null, LocalTime.NOON, null, null)).isEmpty();
+    }
+
+    @Test
+    void dailyRunsAtTheConfiguredTimeEveryDay() {
+        CronExpression cron = JobSchedule.expressionFor(ScheduleType.DAILY, LocalTime.of(2, 30, 15), null, null).orElseThrow();
+
+        assertThat(cron.toString()).isEqualTo("15 30 2 * * *");
+        assertThat(cron.next(NOW)).isEqualTo(LocalDateTime.of(2026, 10, 18, 2, 30, 15));
+    }
+
+    @Test
+    void dailyLaterTodayRunsToday() {
+        CronExpression cron = JobSchedule.expressionFor(ScheduleType.DAILY, LocalTime.of(23, 0), null, null).orElseThrow();
+
+        assertThat(cron.next(NOW)).isEqualTo(LocalDateTime.of(2026, 10, 17, 23, 0));
+    }
+
+    @Test
+    void weeklyRunsOnTheConfiguredDay() {
+        CronExpression cron = JobSchedule.expressionFor(ScheduleType.WEEKLY, LocalTime.of(3, 0), DayOfWeek.WEDNESDAY, null).orElseThrow();
+
+        assertThat(cron.toString()).isEqualTo("0 0 3 * * WED");
+        assertThat(cron.next(NOW)).isEqualTo(LocalDateTime.of(2026, 10, 21, 3, 0));
+    }
+
+    @Test
+    void weeklyWithoutDayIsRejected() {
+        assertThatThrownBy(() -> JobSchedule.expressionFor(ScheduleType.WEEKLY, LocalTime.NOON, null, null))
+                .isInstanceOf(GlobalBackupException.class)
+                .extracting(e -> ((GlobalBackupException) e).getStatus())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void timedSchedulesWithoutTimeAreRejected() {
+        assertThatThrownBy(() -> JobSchedule.expressionFor(ScheduleType.DAILY, null, null, null))
+                .isInstanceOf(GlobalBackupException.class)
+                .hasMessageContaining("horário");
+    }
+
+    @Test
+    void unixCronGetsTheSecondsField() {
+        CronExpression cron = JobSchedule.expressionFor(ScheduleType.CRON, null, null, " */15 1-5 * * MON-FRI ").orElseThrow();
+
+        assertThat(cron.toString()).isEqualTo("0 */15 1-5 * * MON-FRI");
+        assertThat(cron.next(NOW)).isEqualTo(LocalDateTime.of(2026, 10, 19, 1, 0));
+    }
+
+    @Test
+    void springCronAndMacrosAreKeptAsIs() {
+        assertThat(JobSchedule.expressionFor(ScheduleType.CRON, null, null, "30 0 4 * * *").orElseThrow().next(NOW))
+                .isEqualTo(LocalDateTime.of(2026, 10, 18, 4, 0, 30));
+        assertThat(JobSchedule.expressionFor(ScheduleType.CRON, null, null, "@daily").orElseThrow().next(NOW))
+                .isEqualTo(LocalDateTime.of(2026, 10, 18, 0, 0));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "   ", "0 25 * * *", "nem um cron"})
+    void invalidCronIsABadRequest(String cron) {
+        assertThatThrownBy(() -> JobSchedule.expressionFor(ScheduleType.CRON, null, null, cron))
+                .isInstanceOf(GlobalBackupException.class)
+                .extracting(e -> ((GlobalBackupException) e).getStatus())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
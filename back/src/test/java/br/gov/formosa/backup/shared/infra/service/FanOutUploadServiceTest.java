@@ -0,0 +1,132 @@
+package br.gov.formosa.backup.shared.infra.service;
+
+import br.gov.formosa.backup.config.domain.model.BackupDestination;
+import br.gov.formosa.backup.shared.infra.service.FanOutUploadService.DestinationResult;
+import br.gov.formosa.backup.shared.infra.service.FanOutUploadService.FanOutUpload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FanOutUploadServiceTest {
+
+    private final StorageManagerService storageManager = mock(StorageManagerService.class);
+    private final Map<String, byte[]> received = new ConcurrentHashMap<>();
+    private FanOutUploadService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void failingBranchDoesNotStopTheOthers() throws Exception {
+        service = new FanOutUploadService(storageManager, 2, 4, 64 * 1024, 4);
+        BackupDestination first = destination("primeiro");
+        BackupDestination broken = destination("quebrado");
+        BackupDestination last = destination("ultimo");
+        when(storageManager.uploadStream(any(), anyString(), any())).thenAnswer(invocation -> {
+            InputStream input = invocation.getArgument(0);
+            BackupDestination destination = invocation.getArgument(2);
+            if (destination == broken) {
+                input.readNBytes(1000);
+                throw new IllegalStateException("bucket indisponível");
+            }
+            received.put(destination.getName(), input.readAllBytes());
+            return destination.getName() + "/" + invocation.getArgument(1);
+        });
+        byte[] dump = randomBytes(3 * 1024 * 1024 + 17);
+
+        FanOutUpload fanOut = service.open(List.of(first, broken, last), "dump.sql");
+        fanOut.transfer(new ByteArrayInputStream(dump));
+        fanOut.complete();
+        List<DestinationResult> results = fanOut.awaitResults();
+
+        assertThat(results).extracting(DestinationResult::destination).containsExactly(first, broken, last);
+        assertThat(results.get(0).remotePath()).isEqualTo("primeiro/dump.sql");
+        assertThat(results.get(1).isSuccess()).isFalse();
+        assertThat(results.get(1).error()).hasMessage("bucket indisponível");
+        assertThat(results.get(2).isSuccess()).isTrue();
+        assertThat(received.get("primeiro")).isEqualTo(dump);
+        assertThat(received.get("ultimo")).isEqualTo(dump);
+        assertThat(fanOut.getBytesTransferred()).isEqualTo(dump.length);
+    }
+
+    @Test
+    void transferStopsWhenEveryBranchFailed() throws Exception {
+        service = new FanOutUploadService(storageManager, 1, 2, 1024, 2);
+        when(storageManager.uploadStream(any(), anyString(), any())).thenThrow(new IllegalStateException("fora do ar"));
+
+        FanOutUpload fanOut = service.open(List.of(destination("a"), destination("b")), "dump.sql");
+
+        assertThatThrownBy(() -> fanOut.transfer(new ByteArrayInputStream(randomBytes(1024 * 1024))))
+                .isInstanceOf(IOException.class);
+        fanOut.abort(new IOException("interrompido"));
+        assertThat(fanOut.awaitResults()).noneMatch(DestinationResult::isSuccess);
+    }
+
+    @Test
+    void abortFailsEveryBranchInsteadOfCompletingATruncatedUpload() throws Exception {
+        service = new FanOutUploadService(storageManager, 1, 2, 1024, 2);
+        when(storageManager.uploadStream(any(), anyString(), any())).thenAnswer(invocation -> {
+            InputStream input = invocation.getArgument(0);
+            input.readAllBytes();
+            return "enviado";
+        });
+
+        FanOutUpload fanOut = service.open(List.of(destination("a"), destination("b")), "dump.sql");
+        fanOut.sink().write(randomBytes(4096));
+        fanOut.abort(new IllegalStateException("pool de compressão recusou o bloco"));
+
+        assertThat(fanOut.awaitResults()).allSatisfy(result -> {
+            assertThat(result.isSuccess()).isFalse();
+            assertThat(result.error()).hasMessageContaining("pool de compressão recusou o bloco");
+        });
+    }
+
+    @Test
+    void destinationsBeyondThePoolFailImmediately() throws Exception {
+        service = new FanOutUploadService(storageManager, 1, 1, 1024, 2);
+        when(storageManager.uploadStream(any(), anyString(), any())).thenAnswer(invocation -> {
+            InputStream input = invocation.getArgument(0);
+            return "enviado:" + input.readAllBytes().length;
+        });
+
+        FanOutUpload fanOut = service.open(List.of(destination("a"), destination("b")), "dump.sql");
+        fanOut.transfer(new ByteArrayInputStream(randomBytes(10_000)));
+        fanOut.complete();
+        List<DestinationResult> results = fanOut.awaitResults();
+
+        assertThat(results.get(0).remotePath()).isEqualTo("enviado:10000");
+        assertThat(results.get(1).error()).isInstanceOf(IOException.class).hasMessageContaining("Limite de uploads");
+    }
+
+    private static BackupDestination destination(String name) {
+        BackupDestination destination = new BackupDestination();
+        destination.setId(UUID.randomUUID());
+        destination.setName(name);
+        return destination;
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
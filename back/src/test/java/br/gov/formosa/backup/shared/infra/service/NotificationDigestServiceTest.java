@@ -0,0 +1,181 @@
+package br.gov.formosa.backup.shared.infra.service;
+
+import br.gov.formosa.backup.job.api.dto.NotificationDigestGroup;
+import br.gov.formosa.backup.job.domain.model.NotificationDigestEntry;
+import br.gov.formosa.backup.job.domain.service.SchedulerLeaseService;
+import br.gov.formosa.backup.job.infra.repository.BackupRunRepository;
+import br.gov.formosa.backup.job.infra.repository.NotificationDigestEntryRepository;
+import br.gov.formosa.backup.shared.enums.BackupStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationDigestServiceTest {
+
+    private static final int MAX_ENTRIES = 3;
+    private static final String RECIPIENTS = "a@teste.local,b@teste.local";
+
+    private final NotificationDigestEntryRepository digestRepository = mock(NotificationDigestEntryRepository.class);
+    private final BackupRunRepository runRepository = mock(BackupRunRepository.class);
+    private final SchedulerLeaseService leaseService = mock(SchedulerLeaseService.class);
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final UUID configId = UUID.randomUUID();
+    private final LocalDateTime now = LocalDateTime.now();
+    private final List<Consumer<Boolean>> callbacks = new ArrayList<>();
+    private final List<UUID> entryIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+    private NotificationDigestService service;
+
+    @BeforeEach
+    void setUp() {
+        NodeIdentity nodeIdentity = mock(NodeIdentity.class);
+        when(nodeIdentity.isCoordinator()).thenReturn(true);
+        when(leaseService.tryAcquire(anyString(), any())).thenReturn(true);
+        when(digestRepository.findGroup(eq(configId), eq(RECIPIENTS), any())).thenReturn(entryIds.stream()
+                .map(id -> NotificationDigestEntry.builder()
+                        .id(id)
+                        .emailConfigId(configId)
+                        .recipients(RECIPIENTS)
+                        .jobName("job")
+                        .status(BackupStatus.SUCCESS)
+                        .timestamp(now)
+                        .createdAt(now)
+                        .build())
+                .toList());
+        when(notificationService.send(eq(configId), any(), anyString(), anyString(), any())).thenAnswer(invocation -> {
+            callbacks.add(invocation.getArgument(4));
+            return true;
+        });
+        service = new NotificationDigestService(digestRepository, runRepository, leaseService, notificationService,
+                nodeIdentity, 60, 5, MAX_ENTRIES, 60000);
+    }
+
+    @Test
+    void groupIsDueWhenTheWindowCloses() {
+        runsActive(true);
+
+        group(1, now.minusMinutes(30), now.minusMinutes(1));
+        assertThat(sentGroups()).isZero();
+
+        group(1, now.minusMinutes(61), now.minusMinutes(1));
+        assertThat(sentGroups()).isEqualTo(1);
+    }
+
+    @Test
+    void groupIsDueAtMaxEntries() {
+        runsActive(true);
+
+        group(MAX_ENTRIES - 1, now.minusMinutes(1), now);
+        assertThat(sentGroups()).isZero();
+
+        group(MAX_ENTRIES, now.minusMinutes(1), now);
+        assertThat(sentGroups()).isEqualTo(1);
+    }
+
+    @Test
+    void groupIsDueAfterTheIdleGrace() {
+        runsActive(false);
+
+        group(1, now.minusMinutes(10), now.minusMinutes(1));
+        assertThat(sentGroups()).isZero();
+
+        group(1, now.minusMinutes(10), now.minusMinutes(6));
+        assertThat(sentGroups()).isEqualTo(1);
+    }
+
+    @Test
+    void recentGroupWaitsWhileRunsAreActive() {
+        runsActive(true);
+
+        group(1, now.minusMinutes(10), now.minusMinutes(6));
+
+        assertThat(sentGroups()).isZero();
+    }
+
+    @Test
+    void entriesAreDeletedOnlyAfterASuccessfulSend() {
+        dueGroup();
+
+        assertThat(sentGroups()).isEqualTo(1);
+        verify(digestRepository, never()).deleteByIdIn(anyCollection());
+
+        callbacks.get(0).accept(true);
+        verify(digestRepository).deleteByIdIn(entryIds);
+    }
+
+    @Test
+    void groupInFlightIsNotSentAgain() {
+        dueGroup();
+
+        service.sendDueDigests();
+
+        assertThat(callbacks).hasSize(1);
+        callbacks.get(0).accept(true);
+        service.sendDueDigests();
+        assertThat(callbacks).hasSize(2);
+    }
+
+    @Test
+    void failedSendKeepsTheEntriesUntilMaxAttempts() {
+        dueGroup();
+
+        callbacks.get(0).accept(false);
+        service.sendDueDigests();
+        callbacks.get(1).accept(false);
+        verify(digestRepository, never()).deleteByIdIn(anyCollection());
+
+        service.sendDueDigests();
+        callbacks.get(2).accept(false);
+        verify(digestRepository).deleteByIdIn(entryIds);
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        dueGroup();
+        callbacks.get(0).accept(false);
+        service.sendDueDigests();
+        callbacks.get(1).accept(false);
+        service.sendDueDigests();
+        callbacks.get(2).accept(true);
+
+        service.sendDueDigests();
+        callbacks.get(3).accept(false);
+        service.sendDueDigests();
+        callbacks.get(4).accept(false);
+
+        // Só a exclusão do envio que deu certo; as duas falhas seguintes ainda não chegam ao limite.
+        verify(digestRepository).deleteByIdIn(entryIds);
+    }
+
+    private void dueGroup() {
+        runsActive(true);
+        group(1, now.minusMinutes(61), now);
+    }
+
+    private void runsActive(boolean active) {
+        when(runRepository.existsByStatusIn(any())).thenReturn(active);
+    }
+
+    private void group(long count, LocalDateTime firstAt, LocalDateTime lastAt) {
+        when(digestRepository.findGroups()).thenReturn(List.of(new NotificationDigestGroup(configId, RECIPIENTS, count, firstAt, lastAt)));
+        service.sendDueDigests();
+    }
+
+    private int sentGroups() {
+        return callbacks.size();
+    }
+}
@@ -0,0 +1,130 @@
+package br.gov.formosa.backup.shared.infra.service;
+
+import br.gov.formosa.backup.config.domain.model.BackupSource;
+import br.gov.formosa.backup.config.domain.model.EmailConfig;
+import br.gov.formosa.backup.config.domain.service.EmailConfigService;
+import br.gov.formosa.backup.job.domain.model.BackupJob;
+import br.gov.formosa.backup.job.domain.model.BackupRecord;
+import br.gov.formosa.backup.job.domain.model.NotificationDigestEntry;
+import br.gov.formosa.backup.job.infra.repository.NotificationDigestEntryRepository;
+import br.gov.formosa.backup.shared.enums.BackupStatus;
+import br.gov.formosa.backup.shared.enums.NotificationPolicy;
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationServiceTest {
+
+    private static final String[] RECIPIENTS = {"ops@teste.local"};
+
+    private final EmailConfigService emailConfigService = mock(EmailConfigService.class);
+    private final SmtpTransportPool transportPool = mock(SmtpTransportPool.class);
+    private final NotificationDigestEntryRepository digestRepository = mock(NotificationDigestEntryRepository.class);
+    private final UUID configId = UUID.randomUUID();
+    private NotificationService service;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.shutdown();
+    }
+
+    @Test
+    void fullQueueRejectsAndCounts() throws Exception {
+        when(emailConfigService.findById(configId)).thenReturn(new EmailConfig());
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            sending.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(transportPool).send(any(), any(), any(), any());
+        service = new NotificationService(emailConfigService, transportPool, digestRepository, 1, 1, false);
+        List<Boolean> results = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+
+        assertThat(service.send(configId, RECIPIENTS, "primeira", "corpo", ok -> { results.add(ok); done.countDown(); })).isTrue();
+        assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(service.send(configId, RECIPIENTS, "segunda", "corpo", ok -> { results.add(ok); done.countDown(); })).isTrue();
+        assertThat(service.getQueueDepth()).isEqualTo(1);
+
+        assertThat(service.send(configId, RECIPIENTS, "terceira", "corpo", ok -> results.add(ok))).isFalse();
+        assertThat(service.getRejectedCount()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(results).containsExactly(true, true);
+        verify(transportPool, times(2)).send(any(), any(), any(), any());
+    }
+
+    @Test
+    void failedSendIsReportedToTheCaller() throws Exception {
+        when(emailConfigService.findById(configId)).thenReturn(new EmailConfig());
+        doAnswer(invocation -> {
+            throw new MessagingException("servidor indisponível");
+        }).when(transportPool).send(any(), any(), any(), any());
+        service = new NotificationService(emailConfigService, transportPool, digestRepository, 1, 10, false);
+        CountDownLatch done = new CountDownLatch(1);
+        List<Boolean> results = new CopyOnWriteArrayList<>();
+
+        service.send(configId, RECIPIENTS, "assunto", "corpo", ok -> { results.add(ok); done.countDown(); });
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(results).containsExactly(false);
+        assertThat(service.getRejectedCount()).isZero();
+    }
+
+    @Test
+    void differentlyWrittenRecipientListsShareADigestGroup() throws Exception {
+        service = new NotificationService(emailConfigService, transportPool, digestRepository, 1, 10, false);
+
+        service.sendBackupNotification(digestJob("B@Teste.local; a@teste.local"), record());
+        service.sendBackupNotification(digestJob(" a@teste.local,b@teste.local  a@TESTE.local"), record());
+        service.sendBackupNotification(digestJob("a@teste.local"), record());
+
+        ArgumentCaptor<NotificationDigestEntry> saved = ArgumentCaptor.forClass(NotificationDigestEntry.class);
+        verify(digestRepository, times(3)).save(saved.capture());
+        assertThat(saved.getAllValues()).extracting(NotificationDigestEntry::getRecipients)
+                .containsExactly("a@teste.local,b@teste.local", "a@teste.local,b@teste.local", "a@teste.local");
+        assertThat(saved.getAllValues()).extracting(NotificationDigestEntry::getEmailConfigId).containsOnly(configId);
+        verify(transportPool, never()).send(any(), any(), any(), any());
+    }
+
+    private BackupJob digestJob(String recipients) {
+        EmailConfig emailConfig = new EmailConfig();
+        emailConfig.setId(configId);
+        BackupSource source = new BackupSource();
+        source.setName("fonte");
+        BackupJob job = new BackupJob();
+        job.setName("job");
+        job.setSource(source);
+        job.setEmailConfig(emailConfig);
+        job.setNotificationPolicy(NotificationPolicy.DIGEST);
+        job.setNotificationRecipients(recipients);
+        return job;
+    }
+
+    private static BackupRecord record() {
+        return BackupRecord.builder()
+                .id(UUID.randomUUID())
+                .status(BackupStatus.SUCCESS)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,140 @@
+package br.gov.formosa.backup.shared.infra.service;
+
+import br.gov.formosa.backup.config.domain.model.EmailConfig;
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SmtpTransportPoolTest {
+
+    private static final String[] RECIPIENTS = {"ops@teste.local"};
+
+    private final EmailConfig config = emailConfig();
+    private final List<Transport> opened = new ArrayList<>();
+    private final List<Transport> available = new ArrayList<>();
+    private SmtpTransportPool pool;
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void connectionIsReusedAcrossMessages() throws Exception {
+        pool = pool(100);
+
+        for (int i = 0; i < 3; i++) {
+            pool.send(config, RECIPIENTS, "assunto " + i, "corpo");
+        }
+
+        assertThat(opened).hasSize(1);
+        verify(opened.get(0), times(3)).sendMessage(any(Message.class), any(Address[].class));
+        verify(opened.get(0), never()).close();
+    }
+
+    @Test
+    void connectionIsReplacedAfterMaxMessages() throws Exception {
+        pool = pool(2);
+
+        for (int i = 0; i < 3; i++) {
+            pool.send(config, RECIPIENTS, "assunto " + i, "corpo");
+        }
+
+        assertThat(opened).hasSize(2);
+        verify(opened.get(0), times(2)).sendMessage(any(Message.class), any(Address[].class));
+        verify(opened.get(0)).close();
+        verify(opened.get(1)).sendMessage(any(Message.class), any(Address[].class));
+    }
+
+    @Test
+    void droppedConnectionIsRetriedOnceOnANewOne() throws Exception {
+        Transport dropped = transport();
+        doThrow(new MessagingException("conexão encerrada pelo servidor"))
+                .when(dropped).sendMessage(any(Message.class), any(Address[].class));
+        available.add(dropped);
+        pool = pool(100);
+
+        pool.send(config, RECIPIENTS, "assunto", "corpo");
+
+        assertThat(opened).hasSize(2);
+        verify(dropped).close();
+        verify(opened.get(1)).sendMessage(any(Message.class), any(Address[].class));
+    }
+
+    @Test
+    void secondFailureIsReported() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            Transport dropped = transport();
+            doThrow(new MessagingException("conexão encerrada pelo servidor"))
+                    .when(dropped).sendMessage(any(Message.class), any(Address[].class));
+            available.add(dropped);
+        }
+        pool = pool(100);
+
+        assertThatThrownBy(() -> pool.send(config, RECIPIENTS, "assunto", "corpo"))
+                .isInstanceOf(MessagingException.class);
+        assertThat(opened).hasSize(2);
+    }
+
+    @Test
+    void rejectedRecipientsAreNotRetried() throws Exception {
+        Transport transport = transport();
+        doThrow(new SendFailedException("destinatário recusado"))
+                .when(transport).sendMessage(any(Message.class), any(Address[].class));
+        available.add(transport);
+        pool = pool(100);
+
+        assertThatThrownBy(() -> pool.send(config, RECIPIENTS, "assunto", "corpo"))
+                .isInstanceOf(SendFailedException.class);
+        assertThat(opened).hasSize(1);
+        verify(transport, never()).close();
+    }
+
+    private SmtpTransportPool pool(int maxMessagesPerConnection) {
+        return new SmtpTransportPool(2, 60000, 1000, maxMessagesPerConnection, 1000) {
+            @Override
+            Transport connect(Session session, String host, int port, String username, String password) throws MessagingException {
+                Transport transport = available.isEmpty() ? transport() : available.remove(0);
+                opened.add(transport);
+                return transport;
+            }
+        };
+    }
+
+    private static Transport transport() throws MessagingException {
+        Transport transport = mock(Transport.class);
+        when(transport.isConnected()).thenReturn(true);
+        doNothing().when(transport).sendMessage(any(Message.class), any(Address[].class));
+        return transport;
+    }
+
+    private static EmailConfig emailConfig() {
+        EmailConfig config = new EmailConfig();
+        config.setId(UUID.randomUUID());
+        config.setHost("smtp.teste.local");
+        config.setPort(587);
+        config.setUsername("backup@teste.local");
+        config.setPassword("x");
+        return config;
+    }
+}
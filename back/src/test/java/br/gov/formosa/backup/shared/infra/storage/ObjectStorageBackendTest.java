@@ -0,0 +1,234 @@
+package br.gov.formosa.backup.shared.infra.storage;
+
+import br.gov.formosa.backup.config.domain.model.BackupDestination;
+import br.gov.formosa.backup.shared.infra.service.CloudStorageClientCache;
+import br.gov.formosa.backup.shared.infra.service.CloudStorageClientCache.ClientLease;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ListPartsRequest;
+import com.amazonaws.services.s3.model.PartListing;
+import com.amazonaws.services.s3.model.PartSummary;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ObjectStorageBackendTest {
+
+    private static final int PART_SIZE = 1024;
+
+    private final AmazonS3 client = mock(AmazonS3.class);
+    private final Map<Integer, Long> partSizes = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> partOffsets = new ConcurrentHashMap<>();
+    private final BackupDestination destination = BackupDestination.builder().endpoint("bucket").build();
+    private AmazonS3StorageBackend backend;
+
+    @BeforeEach
+    void setUp() {
+        CloudStorageClientCache cache = mock(CloudStorageClientCache.class);
+        ClientLease lease = mock(ClientLease.class);
+        when(cache.acquire(any())).thenReturn(lease);
+        when(cache.getConcurrency()).thenReturn(4);
+        when(lease.client()).thenReturn(client);
+
+        InitiateMultipartUploadResult initiated = new InitiateMultipartUploadResult();
+        initiated.setUploadId("upload-1");
+        when(client.initiateMultipartUpload(any(InitiateMultipartUploadRequest.class))).thenReturn(initiated);
+        when(client.uploadPart(any(UploadPartRequest.class))).thenAnswer(invocation -> {
+            UploadPartRequest request = invocation.getArgument(0);
+            partSizes.put(request.getPartNumber(), request.getPartSize());
+            partOffsets.put(request.getPartNumber(), request.getFileOffset());
+            UploadPartResult result = new UploadPartResult();
+            result.setPartNumber(request.getPartNumber());
+            result.setETag("etag-" + request.getPartNumber());
+            return result;
+        });
+
+        backend = new AmazonS3StorageBackend(cache);
+        ReflectionTestUtils.setField(backend, "multipartPartSize", PART_SIZE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        backend.shutdown();
+    }
+
+    @Test
+    void streamingPartsGrowEveryStep() {
+        assertThat(ObjectStorageBackend.streamingPartSize(PART_SIZE, 1)).isEqualTo(PART_SIZE);
+        assertThat(ObjectStorageBackend.streamingPartSize(PART_SIZE, ObjectStorageBackend.PARTS_PER_STEP)).isEqualTo(PART_SIZE);
+        assertThat(ObjectStorageBackend.streamingPartSize(PART_SIZE, ObjectStorageBackend.PARTS_PER_STEP + 1)).isEqualTo(2 * PART_SIZE);
+        assertThat(ObjectStorageBackend.streamingPartSize(16 * 1024 * 1024, ObjectStorageBackend.MAX_PARTS))
+                .isEqualTo(ObjectStorageBackend.MAX_STREAMING_PART_SIZE / 2);
+        assertThat(ObjectStorageBackend.streamingPartSize(1024 * 1024 * 1024, ObjectStorageBackend.MAX_PARTS))
+                .isEqualTo(1024 * 1024 * 1024);
+    }
+
+    @Test
+    void defaultPartSizeStreamsAboutATerabyteWithinThePartLimit() {
+        long capacity = 0;
+        for (int part = 1; part <= ObjectStorageBackend.MAX_PARTS; part++) {
+            capacity += ObjectStorageBackend.streamingPartSize(16 * 1024 * 1024, part);
+        }
+        assertThat(capacity).isGreaterThan(900L * 1024 * 1024 * 1024);
+    }
+
+    @Test
+    void streamBeyondTheFirstStepUsesLargerParts() throws IOException {
+        long size = (long) PART_SIZE * ObjectStorageBackend.PARTS_PER_STEP + 3 * PART_SIZE;
+
+        backend.write(destination, "dump.sql", new ZeroInputStream(size));
+
+        assertThat(partSizes).hasSize(ObjectStorageBackend.PARTS_PER_STEP + 2);
+        assertThat(partSizes.get(ObjectStorageBackend.PARTS_PER_STEP)).isEqualTo(PART_SIZE);
+        assertThat(partSizes.get(ObjectStorageBackend.PARTS_PER_STEP + 1)).isEqualTo(2L * PART_SIZE);
+        assertThat(partSizes.get(ObjectStorageBackend.PARTS_PER_STEP + 2)).isEqualTo(PART_SIZE);
+        assertThat(partSizes.values().stream().mapToLong(Long::longValue).sum()).isEqualTo(size);
+        verify(client).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    @Test
+    void streamOverThePartLimitIsAbortedBeforeTheExtraPart() {
+        long capacity = 0;
+        for (int part = 1; part <= ObjectStorageBackend.MAX_PARTS; part++) {
+            capacity += ObjectStorageBackend.streamingPartSize(PART_SIZE, part);
+        }
+
+        long sent = capacity;
+        assertThatThrownBy(() -> backend.write(destination, "dump.sql", new ZeroInputStream(sent + 1)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining(String.valueOf(ObjectStorageBackend.MAX_PARTS))
+                .hasMessageContaining(sent + " bytes");
+
+        verify(client, times(ObjectStorageBackend.MAX_PARTS)).uploadPart(any(UploadPartRequest.class));
+        verify(client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    @Test
+    void largeFilesGetLargerPartsRoundedToAMebibyte() {
+        ReflectionTestUtils.setField(backend, "multipartPartSize", 16 * 1024 * 1024);
+
+        assertThat(backend.resumablePartSize(100L * 1024 * 1024 * 1024)).isEqualTo(16L * 1024 * 1024);
+        long terabytes = 2L * 1024 * 1024 * 1024 * 1024;
+        long partSize = backend.resumablePartSize(terabytes);
+        assertThat(partSize % (1024 * 1024)).isZero();
+        assertThat((terabytes + partSize - 1) / partSize).isLessThanOrEqualTo(ObjectStorageBackend.MAX_PARTS);
+        assertThat(partSize).isEqualTo(210L * 1024 * 1024);
+    }
+
+    @Test
+    void newUploadStoresItsPartSize(@TempDir Path dir) throws IOException {
+        Path file = Files.write(dir.resolve("dump.sql"), new byte[3 * PART_SIZE + 10]);
+        RecordingProgress progress = new RecordingProgress(null, 0);
+
+        backend.writeFile(destination, "dump.sql", file, progress);
+
+        assertThat(progress.started).containsExactly("upload-1:" + PART_SIZE);
+        assertThat(partSizes).hasSize(4);
+    }
+
+    @Test
+    void resumeUsesThePartSizeTheUploadWasOpenedWith(@TempDir Path dir) throws IOException {
+        long storedPartSize = 2L * PART_SIZE;
+        Path file = Files.write(dir.resolve("dump.sql"), new byte[5 * PART_SIZE]);
+        PartSummary uploaded = new PartSummary();
+        uploaded.setPartNumber(1);
+        uploaded.setSize(storedPartSize);
+        uploaded.setETag("etag-1");
+        PartListing listing = new PartListing();
+        listing.setParts(List.of(uploaded));
+        when(client.listParts(any(ListPartsRequest.class))).thenReturn(listing);
+
+        backend.writeFile(destination, "dump.sql", file, new RecordingProgress("upload-0", storedPartSize));
+
+        assertThat(partSizes).containsOnly(Map.entry(2, storedPartSize), Map.entry(3, (long) PART_SIZE));
+        assertThat(partOffsets).containsOnly(Map.entry(2, storedPartSize), Map.entry(3, 2 * storedPartSize));
+        verify(client, never()).initiateMultipartUpload(any(InitiateMultipartUploadRequest.class));
+        verify(client).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    private static class RecordingProgress implements UploadProgress {
+        private final String uploadId;
+        private final long partSizeBytes;
+        private final List<String> started = new ArrayList<>();
+
+        RecordingProgress(String uploadId, long partSizeBytes) {
+            this.uploadId = uploadId;
+            this.partSizeBytes = partSizeBytes;
+        }
+
+        @Override
+        public String uploadId() {
+            return uploadId;
+        }
+
+        @Override
+        public long partSizeBytes() {
+            return partSizeBytes;
+        }
+
+        @Override
+        public void started(String uploadId, long partSizeBytes) {
+            started.add(uploadId + ":" + partSizeBytes);
+        }
+
+        @Override
+        public void partCompleted(int completedParts, int totalParts) {
+        }
+    }
+
+    // Stream de zeros do tamanho pedido, sem alocar o conteúdo.
+    private static class ZeroInputStream extends InputStream {
+        private long remaining;
+
+        ZeroInputStream(long size) {
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() {
+            if (remaining == 0) {
+                return -1;
+            }
+            remaining--;
+            return 0;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (remaining == 0) {
+                return -1;
+            }
+            int count = (int) Math.min(len, remaining);
+            Arrays.fill(b, off, off + count, (byte) 0);
+            remaining -= count;
+            return count;
+        }
+    }
+}
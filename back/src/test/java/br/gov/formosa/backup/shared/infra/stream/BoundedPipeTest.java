@@ -0,0 +1,124 @@
+package br.gov.formosa.backup.shared.infra.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPipeTest {
+
+    @Test
+    void readerReceivesEverythingWrittenBeforeClose() throws Exception {
+        BoundedPipe pipe = new BoundedPipe(2);
+        CompletableFuture<byte[]> read = CompletableFuture.supplyAsync(() -> readAll(pipe.source()));
+
+        try (OutputStream sink = pipe.sink()) {
+            for (int i = 0; i < 10; i++) {
+                sink.write(("linha " + i + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            pipe.writeChunk("fim".getBytes(StandardCharsets.UTF_8));
+        }
+
+        String text = new String(read.get(5, TimeUnit.SECONDS), StandardCharsets.UTF_8);
+        assertThat(text).startsWith("linha 0\n").contains("linha 9\n").endsWith("fim");
+        assertThat(pipe.source().read()).isEqualTo(-1);
+    }
+
+    @Test
+    void closeIsIdempotentAndRejectsLaterWrites() throws Exception {
+        BoundedPipe pipe = new BoundedPipe(2);
+        pipe.sink().close();
+        pipe.sink().close();
+
+        assertThatThrownBy(() -> pipe.sink().write(1)).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> pipe.writeChunk(new byte[]{1})).isInstanceOf(IOException.class);
+        assertThat(pipe.source().read()).isEqualTo(-1);
+    }
+
+    @Test
+    void failDiscardsQueuedDataAndSurfacesTheCauseToTheReader() throws Exception {
+        BoundedPipe pipe = new BoundedPipe(4);
+        pipe.sink().write(new byte[]{1, 2, 3});
+
+        pipe.fail(new IllegalStateException("dump abortado"));
+
+        assertThatThrownBy(() -> pipe.source().read(new byte[8]))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("dump abortado")
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> pipe.sink().write(1)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void failAfterCloseKeepsTheNormalEndOfStream() throws Exception {
+        BoundedPipe pipe = new BoundedPipe(4);
+        pipe.sink().write(new byte[]{7});
+        pipe.sink().close();
+
+        pipe.fail(new IllegalStateException("tarde demais"));
+
+        assertThat(readAll(pipe.source())).containsExactly(7);
+    }
+
+    @Test
+    void failReleasesAWriterBlockedOnAFullPipe() throws Exception {
+        BoundedPipe pipe = new BoundedPipe(1);
+        pipe.writeChunk(new byte[]{1});
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> {
+            try {
+                pipe.writeChunk(new byte[]{2});
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        Thread.sleep(100);
+        assertThat(blocked).isNotDone();
+        pipe.fail(new IOException("falha"));
+
+        assertThatThrownBy(() -> blocked.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("falha");
+        assertThatThrownBy(() -> pipe.source().read()).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void closingTheReaderFailsAWriterBlockedOnAFullPipe() throws Exception {
+        BoundedPipe pipe = new BoundedPipe(1);
+        pipe.writeChunk(new byte[]{1});
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> {
+            try {
+                pipe.sink().write(new byte[]{2});
+                pipe.sink().write(new byte[]{3});
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        Thread.sleep(100);
+        pipe.source().close();
+
+        assertThat(pipe.isReaderClosed()).isTrue();
+        assertThatThrownBy(() -> blocked.get(5, TimeUnit.SECONDS))
+                .hasRootCauseInstanceOf(IOException.class)
+                .hasRootCauseMessage("O consumidor do pipe foi encerrado.");
+        assertThatThrownBy(() -> pipe.writeChunk(new byte[]{4})).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> pipe.source().read()).isInstanceOf(IOException.class);
+    }
+
+    private static byte[] readAll(InputStream input) {
+        try {
+            return input.readAllBytes();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package br.gov.formosa.backup.shared.infra.stream;
+
+import br.gov.formosa.backup.shared.enums.CompressionCodec;
+import br.gov.formosa.backup.shared.infra.service.CompressionService;
+import com.github.luben.zstd.ZstdInputStream;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelBlockCompressorOutputStreamTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void writesBlocksInInputOrderEvenWhenLaterBlocksFinishFirst() throws Exception {
+        AtomicInteger submitted = new AtomicInteger();
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        byte[] input = dumpLikeBytes(10 * 1000 + 123);
+
+        // Os primeiros blocos demoram mais, então terminam depois dos seguintes.
+        try (OutputStream out = new ParallelBlockCompressorOutputStream(target, block -> {
+            sleep(Math.max(0, 40 - 10L * submitted.getAndIncrement()));
+            return block;
+        }, pool, 1000, 4)) {
+            out.write(input, 0, 2500);
+            out.write(input[2500]);
+            out.write(input, 2501, input.length - 2501);
+        }
+
+        assertThat(target.toByteArray()).isEqualTo(input);
+        assertThat(submitted.get()).isEqualTo(11);
+    }
+
+    @Test
+    void closeFlushesThePartialLastBlockAndClosesTheTarget() throws Exception {
+        ClosingTracker target = new ClosingTracker();
+        OutputStream out = new ParallelBlockCompressorOutputStream(target, block -> block, pool, 64, 2);
+        out.write("parcial".getBytes(StandardCharsets.UTF_8));
+        out.close();
+        out.close();
+
+        assertThat(target.toString(StandardCharsets.UTF_8)).isEqualTo("parcial");
+        assertThat(target.closes).isEqualTo(1);
+        assertThatThrownBy(() -> out.write(1)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void blockFailureIsReportedAsIOException() {
+        ClosingTracker target = new ClosingTracker();
+        OutputStream out = new ParallelBlockCompressorOutputStream(target, block -> {
+            throw new IllegalStateException("sem memória para o bloco");
+        }, pool, 16, 1);
+
+        assertThatThrownBy(() -> {
+            out.write(new byte[64]);
+            out.close();
+        }).isInstanceOf(IOException.class).hasMessageContaining("sem memória para o bloco");
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = CompressionCodec.class, names = {"GZIP", "ZSTD", "LZ4"})
+    void concatenatedBlocksRoundTripThroughStandardDecoders(CompressionCodec codec) throws Exception {
+        CompressionService compressionService = new CompressionService(3, 64 * 1024);
+        try {
+            byte[] input = dumpLikeBytes(1024 * 1024 + 4321);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (OutputStream out = compressionService.compress(compressed, codec)) {
+                out.write(input);
+            }
+
+            assertThat(compressed.size()).isLessThan(input.length);
+            try (InputStream decoded = standardDecoder(codec, new ByteArrayInputStream(compressed.toByteArray()))) {
+                assertThat(decoded.readAllBytes()).isEqualTo(input);
+            }
+        } finally {
+            compressionService.shutdown();
+        }
+    }
+
+    private static InputStream standardDecoder(CompressionCodec codec, InputStream compressed) throws IOException {
+        return switch (codec) {
+            case GZIP -> new GZIPInputStream(compressed);
+            case ZSTD -> new ZstdInputStream(compressed);
+            case LZ4 -> new LZ4FrameInputStream(compressed);
+            default -> compressed;
+        };
+    }
+
+    // Texto repetitivo com um pouco de ruído, parecido com a saída de um pg_dump.
+    private static byte[] dumpLikeBytes(int size) {
+        Random random = new Random(size);
+        StringBuilder sb = new StringBuilder(size);
+        while (sb.length() < size) {
+            sb.append("INSERT INTO tabela VALUES (").append(random.nextInt(100000)).append(", 'registro');\n");
+        }
+        return sb.substring(0, size).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class ClosingTracker extends ByteArrayOutputStream {
+        private int closes;
+
+        @Override
+        public void close() {
+            closes++;
+        }
+    }
+}
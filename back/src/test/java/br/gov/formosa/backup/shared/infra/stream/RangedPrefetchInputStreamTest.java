@@ -0,0 +1,168 @@
+package br.gov.formosa.backup.shared.infra.stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RangedPrefetchInputStreamTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+    private final List<long[]> fetched = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void deliversRangesInOrderWhenTheyCompleteOutOfOrder() throws Exception {
+        byte[] object = randomBytes(10_007);
+        RangedPrefetchInputStream.RangeFetcher fetcher = (start, end) -> {
+            fetched.add(new long[]{start, end});
+            // Faixas do início demoram mais que as seguintes.
+            sleep(Math.max(0, 30 - start / 100));
+            return Arrays.copyOfRange(object, (int) start, (int) end + 1);
+        };
+
+        try (InputStream input = new RangedPrefetchInputStream(fetcher, pool, object.length, 1000, 4)) {
+            assertThat(input.readAllBytes()).isEqualTo(object);
+            assertThat(input.read()).isEqualTo(-1);
+        }
+
+        assertThat(fetched).hasSize(11);
+        assertThat(fetched).extracting(range -> range[1] - range[0] + 1).containsOnly(1000L, 7L);
+        assertThat(fetched.stream().mapToLong(range -> range[1] - range[0] + 1).sum()).isEqualTo(object.length);
+    }
+
+    @Test
+    void keepsAtMostTheWindowPlusTheRangeBeingRead() throws Exception {
+        byte[] object = randomBytes(100_000);
+        RangedPrefetchInputStream.RangeFetcher fetcher = (start, end) -> {
+            fetched.add(new long[]{start, end});
+            return Arrays.copyOfRange(object, (int) start, (int) end + 1);
+        };
+
+        try (InputStream input = new RangedPrefetchInputStream(fetcher, new DirectExecutor(), object.length, 1000, 3)) {
+            assertThat(input.read()).isEqualTo(object[0] & 0xFF);
+            assertThat(fetched).hasSize(4);
+
+            input.readNBytes(999);
+            assertThat(fetched).hasSize(4);
+            input.read();
+            assertThat(fetched).hasSize(5);
+        }
+    }
+
+    @Test
+    void emptyObjectEndsWithoutFetching() throws Exception {
+        try (InputStream input = new RangedPrefetchInputStream((start, end) -> {
+            throw new AssertionError("nada a baixar");
+        }, pool, 0, 1000, 2)) {
+            assertThat(input.read()).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void shortRangeIsReportedAsIncomplete() {
+        InputStream input = new RangedPrefetchInputStream((start, end) -> new byte[10], pool, 2500, 1000, 2);
+
+        assertThatThrownBy(input::readAllBytes)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Faixa 0-999 incompleta");
+    }
+
+    @Test
+    void fetchFailureReachesTheReader() throws Exception {
+        byte[] object = randomBytes(3000);
+        InputStream input = new RangedPrefetchInputStream((start, end) -> {
+            if (start >= 1000) {
+                throw new IOException("conexão recusada");
+            }
+            return Arrays.copyOfRange(object, (int) start, (int) end + 1);
+        }, pool, object.length, 1000, 2);
+
+        assertThat(input.readNBytes(1000)).isEqualTo(Arrays.copyOf(object, 1000));
+        assertThatThrownBy(input::read).isInstanceOf(IOException.class).hasMessage("conexão recusada");
+    }
+
+    @Test
+    void closeCancelsPendingRangesAndRejectsReads() throws Exception {
+        RangedPrefetchInputStream input = new RangedPrefetchInputStream((start, end) -> {
+            if (start > 0) {
+                sleep(TimeUnit.SECONDS.toMillis(30));
+            }
+            return new byte[(int) (end - start + 1)];
+        }, pool, 10_000, 1000, 4);
+
+        assertThat(input.read()).isZero();
+        input.close();
+        input.close();
+
+        assertThatThrownBy(input::read).isInstanceOf(IOException.class).hasMessage("Stream já encerrado.");
+        pool.shutdown();
+        assertThat(pool.awaitTermination(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Executa cada faixa no momento em que é pedida, para contar as faixas pedidas sem corrida.
+    private static class DirectExecutor extends AbstractExecutorService {
+        private boolean shutdown;
+
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package br.gov.formosa.backup.shared.security;
+
+import br.gov.formosa.backup.dashboard.domain.service.DashboardUpdatePublisher;
+import br.gov.formosa.backup.user.domain.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StompAuthInterceptorTest {
+
+    private final User owner = user();
+
+    @Test
+    void ownerSubscribesToTheirDashboard() {
+        assertThatCode(() -> StompAuthInterceptor.checkSubscription(DashboardUpdatePublisher.topicFor(owner.getId()), principal(owner)))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void otherUsersDashboardIsRejected() {
+        String topic = DashboardUpdatePublisher.topicFor(UUID.randomUUID());
+
+        assertThatThrownBy(() -> StompAuthInterceptor.checkSubscription(topic, principal(owner)))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThatThrownBy(() -> StompAuthInterceptor.checkSubscription(topic + "/x", principal(owner)))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void anonymousSessionCannotSubscribeToADashboard() {
+        assertThatThrownBy(() -> StompAuthInterceptor.checkSubscription(DashboardUpdatePublisher.topicFor(owner.getId()), null))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void otherTopicsAreNotChecked() {
+        assertThatCode(() -> StompAuthInterceptor.checkSubscription("/topic/logs/job/" + UUID.randomUUID(), null))
+                .doesNotThrowAnyException();
+    }
+
+    private static User user() {
+        User user = User.builder().email("dono@teste.local").password("x").build();
+        user.setId(UUID.randomUUID());
+        return user;
+    }
+
+    private static UsernamePasswordAuthenticationToken principal(User user) {
+        return new UsernamePasswordAuthenticationToken(user, null, List.of());
+    }
+}
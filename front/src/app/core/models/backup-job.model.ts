@@ -1,6 +1,6 @@
 import { BackupDestination } from "./backup-destination.model";
 import { BackupSource } from "./backup-source.model";
-import { NotificationPolicy, ScheduleType } from "./enums";
+import { CompressionCodec, NotificationPolicy, ScheduleType } from "./enums";
 
 export interface BackupJob {
   id: string;
@@ -9,7 +9,13 @@ export interface BackupJob {
   destinations: BackupDestination[];
   scheduleType: ScheduleType;
   backupTime: string;
+  dayOfWeek?: string;
+  cronExpression?: string;
   retentionDays: number;
+  priority?: number;
+  streamingEnabled?: boolean;
+  compressionCodec?: CompressionCodec;
+  parallelDumpJobs?: number;
   isActive: boolean;
   notificationPolicy: NotificationPolicy;
   notificationRecipients?: string;
@@ -22,7 +28,13 @@ export interface BackupJobDTO {
   destinationIds: string[];
   scheduleType: ScheduleType;
   backupTime: string;
+  dayOfWeek?: string;
+  cronExpression?: string;
   retentionDays: number;
+  priority?: number;
+  streamingEnabled?: boolean;
+  compressionCodec?: CompressionCodec;
+  parallelDumpJobs?: number;
   isActive: boolean;
   notificationPolicy: NotificationPolicy;
   notificationRecipients?: string;
@@ -11,4 +11,27 @@ export interface BackupRecord {
   destinationId: string;
   status: BackupStatus;
   logSummary: string;
-}
\ No newline at end of file
+}
+
+export interface BackupHistoryItem {
+  id: string;
+  jobId: string;
+  jobName: string;
+  sourceId: string;
+  sourceName: string;
+  destinationId: string;
+  destinationName: string | null;
+  runId: string | null;
+  filename: string;
+  timestamp: string;
+  sizeBytes: number;
+  rawSizeBytes: number | null;
+  compressionCodec: string | null;
+  status: BackupStatus;
+  logSummary: string;
+}
+
+export interface BackupHistoryPage {
+  items: BackupHistoryItem[];
+  nextCursor: string | null;
+}
@@ -11,6 +11,7 @@ export interface BackupSource {
   dbName?: string;
   dbUser?: string;
   dbPassword?: string;
+  zone?: string;
 }
 
 export type BackupSourceDTO = Omit<BackupSource, 'id'>;
\ No newline at end of file
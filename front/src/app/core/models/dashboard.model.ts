@@ -26,4 +26,5 @@ export interface DashboardData {
   storageBySource: StorageUsageSummary[];
   upcomingJobs: BackupJob[];
   recentFailures: BackupRecord[];
+  userId: string;
 }
\ No newline at end of file
@@ -24,11 +24,20 @@ export enum DatabaseType {
 export enum ScheduleType {
   MANUAL = 'MANUAL',
   DAILY = 'DAILY',
-  WEEKLY = 'WEEKLY'
+  WEEKLY = 'WEEKLY',
+  CRON = 'CRON'
+}
+
+export enum CompressionCodec {
+  NONE = 'NONE',
+  GZIP = 'GZIP',
+  ZSTD = 'ZSTD',
+  LZ4 = 'LZ4'
 }
 
 export enum NotificationPolicy {
   NEVER = 'NEVER',
   ON_FAILURE = 'ON_FAILURE',
-  ALWAYS = 'ALWAYS'
+  ALWAYS = 'ALWAYS',
+  DIGEST = 'DIGEST'
 }
\ No newline at end of file
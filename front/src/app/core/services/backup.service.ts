@@ -1,8 +1,7 @@
 import { Injectable, inject } from '@angular/core';
 import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
-import { BackupRecord } from '../models/backup-record.model';
-import { Page } from '../models/api-dtos';
+import { BackupHistoryPage } from '../models/backup-record.model';
 
 @Injectable({
   providedIn: 'root'
@@ -11,13 +10,12 @@ export class BackupService {
   private http = inject(HttpClient);
   private apiUrl = 'http://localhost:8082/api/backup';
 
-  getHistory(page: number, size: number): Observable<Page<BackupRecord>> {
-    const params = new HttpParams()
-      .set('page', page.toString())
-      .set('size', size.toString())
-      .set('sort', 'timestamp,desc');
-      
-    return this.http.get<Page<BackupRecord>>(`${this.apiUrl}/history`, { params });
+  getHistory(cursor: string | null, limit: number): Observable<BackupHistoryPage> {
+    let params = new HttpParams().set('limit', limit.toString());
+    if (cursor) {
+      params = params.set('cursor', cursor);
+    }
+    return this.http.get<BackupHistoryPage>(`${this.apiUrl}/history`, { params });
   }
 
   restoreBackup(recordId: string): Observable<void> {
@@ -1,16 +1,30 @@
 import { Injectable, inject } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
 import { Observable } from 'rxjs';
+import { map, scan, startWith, switchMap } from 'rxjs/operators';
 import { DashboardData } from '../models/dashboard.model';
+import { WebSocketService } from './websocket.service';
 
 @Injectable({
   providedIn: 'root'
 })
 export class DashboardService {
   private http = inject(HttpClient);
+  private wsService = inject(WebSocketService);
   private apiUrl = 'http://localhost:8082/api/dashboard';
 
   getDashboardData(): Observable<DashboardData> {
     return this.http.get<DashboardData>(this.apiUrl);
   }
-}
\ No newline at end of file
+
+  // Carrega o dashboard uma vez e aplica as seções alteradas que o servidor envia pelo WebSocket.
+  watchDashboardData(): Observable<DashboardData> {
+    return this.getDashboardData().pipe(
+      switchMap(data => this.wsService.watchTopic(`/topic/dashboard/${data.userId}`).pipe(
+        map(body => JSON.parse(body) as Partial<DashboardData>),
+        scan((current, delta) => ({ ...current, ...delta }), data),
+        startWith(data)
+      ))
+    );
+  }
+}
@@ -1,17 +1,24 @@
-import { Injectable } from '@angular/core';
+import { Injectable, inject } from '@angular/core';
 import { RxStomp } from '@stomp/rx-stomp';
 import { Observable } from 'rxjs';
 import { map } from 'rxjs/operators';
+import { AuthService } from './auth.service';
 
 @Injectable({
   providedIn: 'root'
 })
 export class WebSocketService extends RxStomp {
+  private authService = inject(AuthService);
 
   constructor() {
     super();
     this.configure({
       brokerURL: 'ws://localhost:8082/ws-backup',
+      // O token é lido a cada (re)conexão: o tópico do dashboard só aceita o próprio usuário.
+      beforeConnect: client => {
+        const token = this.authService.getToken();
+        client.configure({ connectHeaders: token ? { Authorization: `Bearer ${token}` } : {} });
+      },
       reconnectDelay: 5000,
       heartbeatIncoming: 4000,
       heartbeatOutgoing: 4000,
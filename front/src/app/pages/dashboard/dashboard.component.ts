@@ -3,10 +3,9 @@ import { CommonModule, DatePipe, DecimalPipe } from '@angular/common';
 import { BackupService } from '../../core/services/backup.service';
 import { BackupStatus } from '../../core/models/enums';
 import { Observable } from 'rxjs';
-import { Page } from '../../core/models/api-dtos';
 import { DashboardService } from '../../core/services/dashboard.service';
 import { DashboardData } from '../../core/models/dashboard.model';
-import { BackupRecord } from '../../core/models/backup-record.model';
+import { BackupHistoryPage } from '../../core/models/backup-record.model';
 import { ModalComponent } from '../../shared/modal/modal.component';
 import { LogViewerComponent } from '../../shared/log-viewer/log-viewer.component';
 
@@ -27,9 +26,11 @@ export class DashboardComponent implements OnInit {
   private backupService = inject(BackupService);
 
   data$!: Observable<DashboardData>;
-  historyPage$!: Observable<Page<BackupRecord>>;
+  historyPage$!: Observable<BackupHistoryPage>;
   BackupStatus = BackupStatus;
 
+  // Cursor de início de cada página já visitada; a primeira começa do registro mais recente.
+  pageCursors: (string | null)[] = [null];
   currentPage = 0;
   pageSize = 5;
 
@@ -42,12 +43,21 @@ export class DashboardComponent implements OnInit {
   }
 
   loadDashboard(): void {
-    this.data$ = this.dashboardService.getDashboardData();
+    this.data$ = this.dashboardService.watchDashboardData();
   }
 
   loadHistory(page: number = 0): void {
+    if (page === 0) {
+      this.pageCursors = [null];
+    }
     this.currentPage = page;
-    this.historyPage$ = this.backupService.getHistory(this.currentPage, this.pageSize);
+    this.historyPage$ = this.backupService.getHistory(this.pageCursors[page], this.pageSize);
+  }
+
+  nextHistoryPage(nextCursor: string | null): void {
+    if (!nextCursor) return;
+    this.pageCursors[this.currentPage + 1] = nextCursor;
+    this.loadHistory(this.currentPage + 1);
   }
 
   restore(id: string): void {
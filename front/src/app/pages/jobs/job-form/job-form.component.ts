@@ -7,7 +7,7 @@ import { DestinationService } from '../../../core/services/destination.service';
 import { Observable, forkJoin } from 'rxjs';
 import { BackupSource } from '../../../core/models/backup-source.model';
 import { BackupDestination } from '../../../core/models/backup-destination.model';
-import { NotificationPolicy, ScheduleType } from '../../../core/models/enums';
+import { CompressionCodec, NotificationPolicy, ScheduleType } from '../../../core/models/enums';
 import { BackupJobDTO } from '../../../core/models/backup-job.model';
 import { tap } from 'rxjs/operators';
 import { EmailConfigService } from '../../../core/services/email-config.service';
@@ -38,7 +38,18 @@ export class JobFormComponent implements OnInit {
   allDestinations: BackupDestination[] = [];
   
   scheduleTypes = Object.values(ScheduleType);
+  ScheduleType = ScheduleType;
+  daysOfWeek = [
+    { value: 'MONDAY', label: 'Segunda-feira' },
+    { value: 'TUESDAY', label: 'Terça-feira' },
+    { value: 'WEDNESDAY', label: 'Quarta-feira' },
+    { value: 'THURSDAY', label: 'Quinta-feira' },
+    { value: 'FRIDAY', label: 'Sexta-feira' },
+    { value: 'SATURDAY', label: 'Sábado' },
+    { value: 'SUNDAY', label: 'Domingo' }
+  ];
   notificationPolicies = Object.values(NotificationPolicy);
+  compressionCodecs = Object.values(CompressionCodec);
 
   constructor() {
     this.jobForm = this.fb.group({
@@ -46,7 +57,13 @@ export class JobFormComponent implements OnInit {
       sourceId: [null, Validators.required],
       scheduleType: [ScheduleType.DAILY, Validators.required],
       backupTime: ['02:00', Validators.required],
+      dayOfWeek: ['MONDAY'],
+      cronExpression: [''],
       retentionDays: [7, [Validators.required, Validators.min(1)]],
+      priority: [0, [Validators.min(-10), Validators.max(10)]],
+      streamingEnabled: [false],
+      compressionCodec: [CompressionCodec.NONE, Validators.required],
+      parallelDumpJobs: [0, [Validators.min(0)]],
       isActive: [true, Validators.required],
       destinations: this.fb.array([], Validators.required),
       
@@ -92,7 +109,13 @@ export class JobFormComponent implements OnInit {
         sourceId: job.source.id,
         scheduleType: job.scheduleType,
         backupTime: job.backupTime,
+        dayOfWeek: job.dayOfWeek || 'MONDAY',
+        cronExpression: job.cronExpression || '',
         retentionDays: job.retentionDays,
+        priority: job.priority ?? 0,
+        streamingEnabled: job.streamingEnabled ?? false,
+        compressionCodec: job.compressionCodec ?? CompressionCodec.NONE,
+        parallelDumpJobs: job.parallelDumpJobs ?? 0,
         isActive: job.isActive,
         notificationPolicy: job.notificationPolicy,
         notificationRecipients: job.notificationRecipients,
@@ -169,7 +192,13 @@ export class JobFormComponent implements OnInit {
       sourceId: formValue.sourceId,
       scheduleType: formValue.scheduleType,
       backupTime: formValue.backupTime,
+      dayOfWeek: formValue.scheduleType === ScheduleType.WEEKLY ? formValue.dayOfWeek : undefined,
+      cronExpression: formValue.scheduleType === ScheduleType.CRON ? formValue.cronExpression : undefined,
       retentionDays: formValue.retentionDays,
+      priority: formValue.priority,
+      streamingEnabled: formValue.streamingEnabled,
+      compressionCodec: formValue.compressionCodec,
+      parallelDumpJobs: formValue.parallelDumpJobs ?? 0,
       isActive: formValue.isActive,
       notificationPolicy: formValue.notificationPolicy,
       notificationRecipients: formValue.notificationRecipients,
@@ -38,6 +38,7 @@ export class SourceFormComponent implements OnInit {
       dbName: [{ value: '', disabled: true }],
       dbUser: [{ value: '', disabled: true }],
       dbPassword: [{ value: '', disabled: true }],
+      zone: [''],
     });
 
     this.sourceForm.get('databaseType')?.valueChanges.subscribe(type => {